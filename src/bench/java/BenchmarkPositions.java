@@ -0,0 +1,66 @@
+import java.util.ArrayList;
+import java.util.Random;
+
+/**
+ * Фиксированный набор позиций для замеров производительности. Позиции получаются случайными партиями
+ * с постоянным зерном, поэтому одинаковы при каждом запуске. Во всех позициях ход чёрных.
+ */
+public class BenchmarkPositions {
+    public static final int POSITIONS_AMOUNT = 16;
+    public static final int OPENING_PLY = 6;
+    public static final int MIDGAME_PLY = 24;
+    public static final int ENDGAME_PLY = 46;
+
+    /**
+     * Возвращает позиции начала игры.
+     * @return доски размера 8x8, на которых разрешена отмена ходов.
+     */
+    public static ArrayList<Board> getOpening() {
+        return getPositions(OPENING_PLY);
+    }
+
+    /**
+     * Возвращает позиции середины игры.
+     * @return доски размера 8x8, на которых разрешена отмена ходов.
+     */
+    public static ArrayList<Board> getMidgame() {
+        return getPositions(MIDGAME_PLY);
+    }
+
+    /**
+     * Возвращает позиции конца игры.
+     * @return доски размера 8x8, на которых разрешена отмена ходов.
+     */
+    public static ArrayList<Board> getEndgame() {
+        return getPositions(ENDGAME_PLY);
+    }
+
+    /**
+     * Разыгрывает случайные партии до заданного хода.
+     * @param ply количество ходов от начала игры.
+     * @return позиции, в которых чёрные могут сделать ход.
+     */
+    public static ArrayList<Board> getPositions(int ply) {
+        Random random = new Random(ply);
+        ArrayList<Board> positions = new ArrayList<>();
+        while (positions.size() < POSITIONS_AMOUNT) {
+            Board board = new Board(BitBoard.SIZE, true);
+            board.initialize();
+            DiskColor diskColor = DiskColor.BLACK;
+            for (int i = 0; i < ply; ++i) {
+                var steps = board.getAvailableSteps(diskColor);
+                if (steps.isEmpty()) {
+                    break;
+                }
+                var step = steps.get(random.nextInt(steps.size()));
+                board.makeStep(step.getPositionX(), step.getPositionY(), diskColor);
+                diskColor = diskColor.getOpposite();
+            }
+            if (diskColor == DiskColor.BLACK && !board.getAvailableSteps(diskColor).isEmpty()) {
+                positions.add(board);
+            }
+        }
+
+        return positions;
+    }
+}
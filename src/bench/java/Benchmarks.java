@@ -0,0 +1,139 @@
+import com.sun.management.ThreadMXBean;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.function.ToLongFunction;
+
+/**
+ * Замеры производительности операций доски и решений ботов на фиксированном наборе позиций.
+ * Для каждой операции выполняются разогревочные и измерительные итерации, после чего печатается
+ * количество операций в секунду с погрешностью и количество байт, выделенных в куче на одну операцию.
+ * Первый аргумент, если он задан, — подстрока названия замеров, которые нужно выполнить.
+ * <p>
+ * Замеры не входят в сборку игры: они собираются и запускаются только в профиле {@code benchmark}.
+ */
+public class Benchmarks {
+    private static final int WARMUP_ITERATIONS = 5;
+    private static final int MEASUREMENT_ITERATIONS = 10;
+    private static final long ITERATION_NANOS = 500_000_000L;
+
+    /**
+     * Поле, в которое складываются результаты операций, чтобы компилятор не удалил их как ненужные.
+     */
+    private static volatile long sink;
+
+    public static void main(String[] args) {
+        String filter = args.length > 0 ? args[0] : "";
+        LinkedHashMap<String, ArrayList<Board>> corpus = new LinkedHashMap<>();
+        corpus.put("opening", BenchmarkPositions.getOpening());
+        corpus.put("midgame", BenchmarkPositions.getMidgame());
+        corpus.put("endgame", BenchmarkPositions.getEndgame());
+
+        LinkedHashMap<String, ToLongFunction<Board>> benchmarks = new LinkedHashMap<>();
+        benchmarks.put("getAvailableSteps", board -> board.getAvailableSteps(DiskColor.BLACK).size());
+        benchmarks.put("getClosedCells", board -> {
+            long closed = 0;
+            for (Cell step : board.getAvailableSteps(DiskColor.BLACK)) {
+                closed += board.getClosedCells(step, DiskColor.BLACK).size();
+            }
+            return closed;
+        });
+        // Ход выбирается заранее, чтобы в замер не попадали поиск ходов и выделение списка.
+        IdentityHashMap<Board, Cell> firstSteps = new IdentityHashMap<>();
+        for (ArrayList<Board> positions : corpus.values()) {
+            for (Board position : positions) {
+                firstSteps.put(position, position.getAvailableSteps(DiskColor.BLACK).get(0));
+            }
+        }
+        benchmarks.put("makeStep+restorePreviousStep", board -> {
+            Cell step = firstSteps.get(board);
+            board.makeStep(step.getPositionX(), step.getPositionY(), DiskColor.BLACK);
+            long disks = board.getDiskAmount(DiskColor.BLACK);
+            board.restorePreviousStep();
+            return disks;
+        });
+        benchmarks.put("getBoardCopy", board -> board.getBoardCopy().getSize());
+        benchmarks.put("getDiskAmount", board -> board.getDiskAmount(DiskColor.BLACK));
+        EasyBotBehaviour easyBot = new EasyBotBehaviour();
+        benchmarks.put("EasyBotBehaviour.makeDecision",
+                board -> easyBot.makeDecision(board, DiskColor.BLACK).getCoordinateX());
+        HardBotBehaviour hardBot = new HardBotBehaviour();
+        benchmarks.put("HardBotBehaviour.makeDecision",
+                board -> hardBot.makeDecision(board, DiskColor.BLACK).getCoordinateX());
+
+        System.out.printf("%-32s %-8s %16s %12s %14s%n", "benchmark", "corpus", "ops/s", "error", "bytes/op");
+        for (var benchmark : benchmarks.entrySet()) {
+            if (!benchmark.getKey().contains(filter)) {
+                continue;
+            }
+            for (var positions : corpus.entrySet()) {
+                run(benchmark.getKey(), positions.getKey(), positions.getValue(), benchmark.getValue());
+            }
+        }
+    }
+
+    /**
+     * Выполняет замер одной операции на наборе позиций и печатает результат.
+     * @param name название операции.
+     * @param corpusName название набора позиций.
+     * @param positions набор позиций. Операция применяется к позициям по очереди.
+     * @param operation операция.
+     */
+    private static void run(String name, String corpusName, ArrayList<Board> positions,
+                            ToLongFunction<Board> operation) {
+        ThreadMXBean threadBean = (ThreadMXBean) ManagementFactory.getThreadMXBean();
+        for (int i = 0; i < WARMUP_ITERATIONS; ++i) {
+            runIteration(positions, operation);
+        }
+
+        double[] throughputs = new double[MEASUREMENT_ITERATIONS];
+        long operations = 0;
+        long allocatedBefore = threadBean.getCurrentThreadAllocatedBytes();
+        for (int i = 0; i < MEASUREMENT_ITERATIONS; ++i) {
+            long start = System.nanoTime();
+            long iterationOperations = runIteration(positions, operation);
+            throughputs[i] = iterationOperations * 1e9 / (System.nanoTime() - start);
+            operations += iterationOperations;
+        }
+        long allocated = threadBean.getCurrentThreadAllocatedBytes() - allocatedBefore;
+
+        double mean = 0;
+        for (double throughput : throughputs) {
+            mean += throughput;
+        }
+        mean /= throughputs.length;
+        double variance = 0;
+        for (double throughput : throughputs) {
+            variance += (throughput - mean) * (throughput - mean);
+        }
+        double error = Math.sqrt(variance / (throughputs.length - 1));
+
+        System.out.printf("%-32s %-8s %16.1f %12.1f %14.1f%n", name, corpusName, mean, error,
+                (double) allocated / operations);
+    }
+
+    /**
+     * Выполняет операцию на позициях по очереди, пока не пройдёт время итерации.
+     * @param positions набор позиций.
+     * @param operation операция.
+     * @return количество выполненных операций.
+     */
+    private static long runIteration(ArrayList<Board> positions, ToLongFunction<Board> operation) {
+        long deadline = System.nanoTime() + ITERATION_NANOS;
+        long operations = 0;
+        long result = 0;
+        while (System.nanoTime() < deadline) {
+            for (Board position : positions) {
+                // Иначе операции над одной позицией мерили бы копирование запомненных доской ходов.
+                position.clearAvailableStepsCache();
+                result += operation.applyAsLong(position);
+            }
+            operations += positions.size();
+        }
+        sink = result;
+
+        return operations;
+    }
+}
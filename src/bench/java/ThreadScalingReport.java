@@ -0,0 +1,45 @@
+import java.util.ArrayList;
+
+/**
+ * Отчёт о масштабировании многопоточного поиска: скорость перебора в зависимости от количества потоков.
+ * Аргументы: максимальное количество потоков и время на ход в миллисекундах.
+ */
+public class ThreadScalingReport {
+    public static void main(String[] args) {
+        int maxThreads = args.length > 0 ? Integer.parseInt(args[0]) : Runtime.getRuntime().availableProcessors();
+        long timeBudgetMillis = args.length > 1 ? Long.parseLong(args[1]) : 2000;
+
+        ArrayList<Board> positions = BenchmarkPositions.getMidgame();
+        System.out.printf("%8s %14s %10s %8s%n", "threads", "nodes/sec", "speedup", "depth");
+        long singleThreadSpeed = 0;
+        ArrayList<Integer> threadsAmounts = new ArrayList<>();
+        for (int threads = 1; threads < maxThreads; threads *= 2) {
+            threadsAmounts.add(threads);
+        }
+        threadsAmounts.add(maxThreads);
+
+        for (int threads : threadsAmounts) {
+            long nodes = 0;
+            long nanos = 0;
+            int depth = 0;
+            // Пул каждой строки останавливается до следующей, чтобы его потоки не мешали замеру.
+            try (SearchEngine searchEngine = new SearchEngine(timeBudgetMillis, SearchEngine.DEFAULT_MAX_DEPTH,
+                    new TranspositionTable(), threads)) {
+                for (Board position : positions) {
+                    long start = System.nanoTime();
+                    searchEngine.findBestStep(position, DiskColor.BLACK);
+                    nanos += System.nanoTime() - start;
+                    nodes += searchEngine.getNodes();
+                    depth += searchEngine.getDepthReached();
+                }
+            }
+
+            long speed = nodes * 1_000_000_000 / Math.max(1, nanos);
+            if (threads == 1) {
+                singleThreadSpeed = speed;
+            }
+            System.out.printf("%8d %14d %10.2f %8.1f%n", threads, speed,
+                    (double) speed / Math.max(1, singleThreadSpeed), (double) depth / positions.size());
+        }
+    }
+}
@@ -0,0 +1,184 @@
+import java.io.PrintStream;
+
+/**
+ * Отрисовщик для терминалов с поддержкой ANSI-последовательностей. Первый раз доска выводится
+ * целиком на очищенный экран, а дальше курсор переводится только в клетки, содержимое которых
+ * изменилось; сообщения под доской при каждой отрисовке стираются и выводятся заново.
+ * Разметка доски совпадает с {@link Board#toString()}.
+ * <p>
+ * Перерисовка по клеткам работает, только пока экран не прокручивается. Поэтому отрисовщик считает
+ * строки под доской, включая строки ввода после {@link #prompt(String)}, и если следующее сообщение
+ * не поместится в терминал, сначала стирает старые сообщения. Если в терминал не помещается сама
+ * доска, она каждый раз выводится целиком. Размер терминала берётся из переменных окружения
+ * {@code LINES} и {@code COLUMNS}, а без них считается равным 24 на 80.
+ */
+public class AnsiBoardRenderer implements BoardRenderer {
+    private static final String ESCAPE = "\u001b[";
+    private static final char EMPTY = ' ';
+    private static final char POSSIBLE_STEP = '@';
+    private static final int DEFAULT_TERMINAL_HEIGHT = 24;
+    private static final int DEFAULT_TERMINAL_WIDTH = 80;
+
+    private final PrintStream out;
+    /**
+     * Доска, которая сейчас на экране, или {@code null}, если экран нужно перерисовать целиком.
+     */
+    private Board displayedBoard;
+    /**
+     * Символы клеток на экране.
+     */
+    private char[] displayedCells = new char[0];
+    private int[] stepsBuffer = new int[0];
+    private final int terminalHeight;
+    private final int terminalWidth;
+    /**
+     * Количество строк экрана, занятых сообщениями под доской с последней отрисовки.
+     */
+    private int messageLines;
+
+    /**
+     * @param out поток для вывода; буфер сбрасывается только в {@link #flush()}.
+     */
+    public AnsiBoardRenderer(PrintStream out) {
+        this(out, getEnvironmentSize("LINES", DEFAULT_TERMINAL_HEIGHT),
+                getEnvironmentSize("COLUMNS", DEFAULT_TERMINAL_WIDTH));
+    }
+
+    /**
+     * @param out поток для вывода; буфер сбрасывается только в {@link #flush()}.
+     * @param terminalHeight количество строк терминала.
+     * @param terminalWidth количество столбцов терминала.
+     */
+    public AnsiBoardRenderer(PrintStream out, int terminalHeight, int terminalWidth) {
+        this.out = out;
+        this.terminalHeight = Math.max(1, terminalHeight);
+        this.terminalWidth = Math.max(1, terminalWidth);
+    }
+
+    @Override
+    public void render(Board board) {
+        int size = board.getSize();
+        messageLines = 0;
+        if (displayedBoard != board || displayedCells.length != size * size
+                || getMessageTop(size) > terminalHeight) {
+            displayedBoard = board;
+            displayedCells = new char[size * size];
+            stepsBuffer = new int[size * size];
+            fillCells(board, displayedCells);
+            out.print(ESCAPE + "H" + ESCAPE + "2J");
+            out.println(board);
+            return;
+        }
+
+        char[] cells = new char[size * size];
+        fillCells(board, cells);
+        for (int square = 0; square < cells.length; ++square) {
+            if (cells[square] != displayedCells[square]) {
+                int y = square / size;
+                int x = square % size;
+                moveCursor(2 + 2 * y, String.valueOf(size - y).length() + 4 + 4 * x);
+                out.print(cells[square]);
+            }
+        }
+        displayedCells = cells;
+
+        clearMessages(getMessageTop(size));
+    }
+
+    @Override
+    public void println(String message) {
+        reserveMessageLines(getLines(message));
+        out.println(message);
+    }
+
+    @Override
+    public void prompt(String prompt) {
+        // Строку приглашения завершает Enter пользователя.
+        reserveMessageLines(getLines(prompt));
+        out.print(prompt);
+        out.flush();
+    }
+
+    @Override
+    public void flush() {
+        out.flush();
+    }
+
+    private void fillCells(Board board, char[] cells) {
+        int size = board.getSize();
+        for (int y = 0; y < size; ++y) {
+            for (int x = 0; x < size; ++x) {
+                cells[y * size + x] = switch (board.getCell(x, y).getDisk()) {
+                    case WHITE -> 'W';
+                    case BLACK -> 'B';
+                    case NONE -> EMPTY;
+                };
+            }
+        }
+
+        DiskColor displayedStepsColor = board.getDisplayedStepsColor();
+        if (displayedStepsColor != DiskColor.NONE) {
+            int stepsAmount = board.getAvailableSteps(displayedStepsColor, stepsBuffer);
+            for (int i = 0; i < stepsAmount; ++i) {
+                cells[stepsBuffer[i]] = POSSIBLE_STEP;
+            }
+        }
+    }
+
+    /**
+     * Стирает сообщения под доской, если ещё {@code lines} строк не поместятся в терминал.
+     * Если не помещаются и они, экран прокрутится, поэтому следующая отрисовка будет полной.
+     */
+    private void reserveMessageLines(int lines) {
+        if (displayedBoard == null) {
+            return;
+        }
+
+        int messageTop = getMessageTop(displayedBoard.getSize());
+        if (messageLines > 0 && messageTop + messageLines + lines > terminalHeight) {
+            clearMessages(messageTop);
+        }
+        messageLines += lines;
+        if (messageTop + messageLines > terminalHeight) {
+            displayedBoard = null;
+        }
+    }
+
+    /**
+     * Возвращает количество строк экрана, которые займёт текст с учётом переноса длинных строк.
+     */
+    private int getLines(String text) {
+        int lines = 0;
+        for (String line : text.split("\n", -1)) {
+            lines += Math.max(1, (line.length() + terminalWidth - 1) / terminalWidth);
+        }
+        return lines;
+    }
+
+    private void clearMessages(int messageTop) {
+        moveCursor(messageTop, 1);
+        out.print(ESCAPE + "J");
+        messageLines = 0;
+    }
+
+    /**
+     * Возвращает строку, с которой начинаются сообщения: рамка, строки доски с разделителями,
+     * буквы и пустая строка.
+     */
+    private static int getMessageTop(int size) {
+        return 2 * size + 4;
+    }
+
+    private static int getEnvironmentSize(String name, int defaultSize) {
+        try {
+            String value = System.getenv(name);
+            return value == null ? defaultSize : Integer.parseInt(value.trim());
+        } catch (NumberFormatException e) {
+            return defaultSize;
+        }
+    }
+
+    private void moveCursor(int line, int column) {
+        out.print(ESCAPE + line + ";" + column + "H");
+    }
+}
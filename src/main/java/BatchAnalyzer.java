@@ -0,0 +1,244 @@
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.DataInputStream;
+import java.io.FileDescriptor;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Пакетный анализ позиций из файла. Позиции читаются потоком, анализируются параллельно на пуле потоков
+ * и выводятся в том же порядке, в каком были прочитаны.
+ * <p>
+ * Чтение идёт в отдельном потоке, который для каждой позиции отдаёт задачу пулу и кладёт её результат
+ * в очередь ограниченного размера; основной поток забирает результаты из очереди по порядку и печатает их.
+ * Когда очередь заполнена, чтение ждёт, поэтому в памяти одновременно находится не больше
+ * {@code queueCapacity} позиций.
+ * <p>
+ * Входной файл — либо текст с позицией в каждой строке в формате {@link PositionNotation}
+ * (пустые строки и строки с {@code #} пропускаются), либо файл записей партий {@link GameRecordWriter},
+ * из которого анализируется каждая позиция каждой партии, где есть ход. Для каждой позиции выводится
+ * строка: номер позиции (номер строки или {@code партия:ход}), лучший ход или {@code pass}, оценка
+ * и глубина перебора ({@code -}, если их нет).
+ */
+public class BatchAnalyzer {
+    public static final int DEFAULT_QUEUE_CAPACITY = 1024;
+    /**
+     * Время перебора при анализе на заданную глубину: ограничивает только глубина.
+     */
+    private static final long DEPTH_SEARCH_TIME_MILLIS = TimeUnit.DAYS.toMillis(1);
+    /**
+     * Объём таблицы транспозиций потока анализа. Таблица и упорядочивание ходов очищаются перед каждой
+     * позицией, чтобы результат не зависел от того, какие позиции тот же поток анализировал раньше,
+     * поэтому таблица небольшая.
+     */
+    private static final int TRANSPOSITION_TABLE_MEGABYTES = 2;
+
+    private final int threadsAmount;
+    private final int queueCapacity;
+    /**
+     * Фабрика поведений для анализа или {@code null}, если анализ идёт перебором на {@link #depth}.
+     */
+    private final Supplier<Behaviour> behaviourFactory;
+    private final int depth;
+
+    /**
+     * @param analysisName {@code depth:N} — перебор {@link SearchEngine} на глубину {@code N}
+     *                     с выводом оценки, или название поведения из {@link BehaviourFactory}.
+     * @param threadsAmount количество потоков анализа.
+     * @param queueCapacity наибольшее количество прочитанных, но ещё не выведенных позиций.
+     * @throws IllegalArgumentException если название анализа неизвестно.
+     */
+    public BatchAnalyzer(String analysisName, int threadsAmount, int queueCapacity) {
+        this.threadsAmount = Math.max(1, threadsAmount);
+        this.queueCapacity = Math.max(1, queueCapacity);
+        if (analysisName.startsWith("depth:")) {
+            behaviourFactory = null;
+            depth = Integer.parseInt(analysisName.substring("depth:".length()));
+        } else {
+            behaviourFactory = BehaviourFactory.getFactory(analysisName);
+            depth = 0;
+        }
+    }
+
+    /**
+     * Анализирует все позиции из файла.
+     * @param input путь к текстовому файлу позиций или к файлу записей партий.
+     * @param out поток для вывода результатов.
+     * @return количество проанализированных позиций.
+     * @throws IOException если файл не удалось прочитать или в нём неверная позиция.
+     */
+    public long run(Path input, PrintStream out) throws IOException {
+        // Поведения и поиски всех потоков, чтобы закрыть их после анализа.
+        ConcurrentLinkedQueue<Behaviour> createdBehaviours = new ConcurrentLinkedQueue<>();
+        ConcurrentLinkedQueue<SearchEngine> createdSearchEngines = new ConcurrentLinkedQueue<>();
+        ThreadLocal<Behaviour> behaviours = ThreadLocal.withInitial(() -> {
+            Behaviour behaviour = behaviourFactory.get();
+            createdBehaviours.add(behaviour);
+            return behaviour;
+        });
+        ThreadLocal<TranspositionTable> tables = ThreadLocal.withInitial(() ->
+                new TranspositionTable(TRANSPOSITION_TABLE_MEGABYTES));
+        ThreadLocal<SearchEngine> searchEngines = ThreadLocal.withInitial(() -> {
+            SearchEngine searchEngine = new SearchEngine(DEPTH_SEARCH_TIME_MILLIS, depth, tables.get());
+            createdSearchEngines.add(searchEngine);
+            return searchEngine;
+        });
+        ExecutorService executor = Executors.newFixedThreadPool(threadsAmount);
+        ArrayBlockingQueue<Future<String>> results = new ArrayBlockingQueue<>(queueCapacity);
+        Future<String> end = executor.submit(() -> null);
+        IOException[] readError = new IOException[1];
+
+        Thread reader = new Thread(() -> {
+            try {
+                PositionSubmitter submitter = (id, board, diskColor) -> results.put(executor.submit(() ->
+                        behaviourFactory == null ? analyze(searchEngines.get(), tables.get(), id, board, diskColor)
+                                : analyze(behaviours.get(), id, board, diskColor)));
+                if (isGameRecordFile(input)) {
+                    readRecords(input, submitter);
+                } else {
+                    readText(input, submitter);
+                }
+            } catch (IOException e) {
+                readError[0] = e;
+            } catch (RuntimeException e) {
+                readError[0] = new IOException("Cannot read positions: " + e.getMessage(), e);
+            } catch (InterruptedException e) {
+                return;
+            }
+            try {
+                results.put(end);
+            } catch (InterruptedException ignored) {
+            }
+        }, "batch-reader");
+        reader.start();
+
+        long positionsAmount = 0;
+        try {
+            Future<String> result;
+            while ((result = results.take()) != end) {
+                out.println(result.get());
+                ++positionsAmount;
+            }
+            reader.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Анализ был прерван", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new IllegalStateException(e.getCause());
+        } finally {
+            reader.interrupt();
+            executor.shutdownNow();
+            createdBehaviours.forEach(Behaviour::close);
+            createdSearchEngines.forEach(SearchEngine::close);
+            out.flush();
+        }
+
+        if (readError[0] != null) {
+            throw readError[0];
+        }
+        return positionsAmount;
+    }
+
+    /**
+     * Передаёт прочитанную позицию на анализ, ожидая места в очереди результатов.
+     */
+    private interface PositionSubmitter {
+        void submit(String id, Board board, DiskColor diskColor) throws InterruptedException;
+    }
+
+    private static boolean isGameRecordFile(Path input) throws IOException {
+        try (var in = new DataInputStream(Files.newInputStream(input))) {
+            return in.available() >= Integer.BYTES && in.readInt() == GameRecordWriter.MAGIC;
+        }
+    }
+
+    private static void readText(Path input, PositionSubmitter submitter) throws IOException, InterruptedException {
+        try (BufferedReader in = Files.newBufferedReader(input)) {
+            String line;
+            long lineNumber = 0;
+            while ((line = in.readLine()) != null) {
+                ++lineNumber;
+                if (line.isBlank() || line.startsWith("#")) {
+                    continue;
+                }
+                try {
+                    submitter.submit(String.valueOf(lineNumber), PositionNotation.parseBoard(line, false),
+                            PositionNotation.parseDiskColor(line));
+                } catch (IllegalArgumentException e) {
+                    throw new IOException("Bad position in line " + lineNumber + ": " + e.getMessage(), e);
+                }
+            }
+        }
+    }
+
+    private static void readRecords(Path input, PositionSubmitter submitter) throws IOException, InterruptedException {
+        try (GameRecordReader reader = GameRecordReader.open(input)) {
+            GameRecord record;
+            long gameIndex = 0;
+            while ((record = reader.read()) != null) {
+                GameReplayer replayer = new GameReplayer(record);
+                while (replayer.hasNextStep()) {
+                    submitter.submit(gameIndex + ":" + replayer.getStepIndex(), replayer.getBoard().getBoardCopy(),
+                            replayer.getDiskColor());
+                    replayer.nextStep();
+                }
+                ++gameIndex;
+            }
+        }
+    }
+
+    private static String analyze(SearchEngine searchEngine, TranspositionTable table, String id, Board board,
+                                  DiskColor diskColor) {
+        table.clear();
+        searchEngine.clearMoveOrdering();
+        int step = searchEngine.findBestStep(board, diskColor);
+        if (step < 0) {
+            return id + " pass - -";
+        }
+        return id + " " + StepNotation.format(step, board.getSize()) + " " + searchEngine.getLastScore() + " "
+                + searchEngine.getDepthReached();
+    }
+
+    private static String analyze(Behaviour behaviour, String id, Board board, DiskColor diskColor) {
+        Decision decision = behaviour.makeDecision(board, diskColor);
+        if (decision.getAction() != Action.STEP) {
+            return id + " pass - -";
+        }
+        return id + " " + StepNotation.format(decision.getCoordinateY() * board.getSize() + decision.getCoordinateX(),
+                board.getSize()) + " - -";
+    }
+
+    /**
+     * Аргументы: путь к файлу позиций, анализ ({@code depth:N} или название поведения), количество потоков
+     * и путь к файлу результатов (по умолчанию результаты выводятся на экран).
+     */
+    public static void main(String[] args) throws IOException {
+        Path input = Path.of(args[0]);
+        String analysisName = args.length > 1 ? args[1] : "depth:6";
+        int threads = args.length > 2 ? Integer.parseInt(args[2]) : Runtime.getRuntime().availableProcessors();
+
+        BatchAnalyzer analyzer = new BatchAnalyzer(analysisName, threads, DEFAULT_QUEUE_CAPACITY);
+        try (PrintStream out = new PrintStream(new BufferedOutputStream(args.length > 3
+                ? Files.newOutputStream(Path.of(args[3])) : new FileOutputStream(FileDescriptor.out), 1 << 16), false)) {
+            long start = System.nanoTime();
+            long positionsAmount = analyzer.run(input, out);
+            double seconds = (System.nanoTime() - start) / 1e9;
+            System.err.printf("%d positions in %.1f s (%.1f positions/s)%n", positionsAmount, seconds,
+                    positionsAmount / seconds);
+        }
+    }
+}
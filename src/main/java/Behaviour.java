@@ -10,4 +10,45 @@ public interface Behaviour {
      * @see Decision объект-решение
      */
     Decision makeDecision(Board board, DiskColor diskColor);
+
+    /**
+     * Начинает принимать решение, которое должно быть готово к заданному моменту, и сразу возвращает
+     * объект, хранящий лучший ход на данный момент. Решение можно отменить, тогда окончательным станет
+     * лучший найденный ход. Следующее решение или обдумывание можно начинать, не дожидаясь, пока
+     * поведение остановится после отмены.
+     * <p>
+     * По умолчанию решение принимается синхронно вызовом {@link #makeDecision(Board, DiskColor)},
+     * и момент окончания не учитывается. Поведения, которые думают долго, переопределяют метод.
+     * @param board доска, на которой проходит игра. Поведение не должно хранить ссылку на неё после возврата.
+     * @param diskColor цвет фишки, которой нужно совершить ход.
+     * @param deadlineNanos момент по {@link System#nanoTime()}, к которому нужно решение,
+     *                      или {@link Long#MAX_VALUE}, если поведение ограничено только своим временем на ход.
+     * @return решение, принимаемое в фоне.
+     */
+    default DecisionHandle startDecision(Board board, DiskColor diskColor, long deadlineNanos) {
+        return DecisionHandle.completed(makeDecision(board, diskColor));
+    }
+
+    /**
+     * Начинает обдумывание в фоне, пока ходит противник. По умолчанию ничего не делает.
+     * Обдумывание заканчивается вызовом {@link #stopPondering()} или следующим
+     * {@link #makeDecision(Board, DiskColor)}.
+     * @param board доска, на которой ходит противник. Поведение не должно хранить ссылку на неё.
+     * @param diskColor цвет фишек этого игрока.
+     */
+    default void startPondering(Board board, DiskColor diskColor) {
+    }
+
+    /**
+     * Останавливает обдумывание и ждёт его окончания. По умолчанию ничего не делает.
+     */
+    default void stopPondering() {
+    }
+
+    /**
+     * Останавливает обдумывание и освобождает потоки поведения. После закрытия поведением пользоваться
+     * нельзя. По умолчанию ничего не делает.
+     */
+    default void close() {
+    }
 }
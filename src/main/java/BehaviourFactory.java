@@ -0,0 +1,75 @@
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.function.Supplier;
+
+/**
+ * Создание поведений ботов по текстовому названию, например из аргументов командной строки.
+ * Поддерживаемые названия:
+ * <ul>
+ *     <li>{@code easy} — {@link EasyBotBehaviour};</li>
+ *     <li>{@code hard} — {@link HardBotBehaviour};</li>
+ *     <li>{@code pattern[:файл весов]} — {@link HardBotBehaviour} с оценкой {@link PatternEvaluator}
+ *     с весами по умолчанию или из файла;</li>
+ *     <li>{@code search[:время[:потоки]]} — {@link SearchBotBehaviour} с временем на ход в миллисекундах;</li>
+ *     <li>{@code mcts[:время[:потоки]]} — {@link MctsBotBehaviour} с временем на ход в миллисекундах.</li>
+ * </ul>
+ */
+public class BehaviourFactory {
+    /**
+     * Возвращает фабрику поведений по названию.
+     * Каждый вызов фабрики создаёт новый объект, так что поведения с внутренним состоянием
+     * можно использовать в разных потоках. Если включены {@link Metrics}, поведения оборачиваются
+     * в {@link MeteredBehaviour}.
+     * @param name название поведения.
+     * @return фабрика поведений.
+     * @throws IllegalArgumentException если название неизвестно или файл весов не удалось прочитать.
+     */
+    public static Supplier<Behaviour> getFactory(String name) {
+        Supplier<Behaviour> factory = getUnmeteredFactory(name);
+        return Metrics.ENABLED ? () -> new MeteredBehaviour(factory.get()) : factory;
+    }
+
+    private static Supplier<Behaviour> getUnmeteredFactory(String name) {
+        String[] parts = name.split(":");
+        switch (parts[0]) {
+            case "easy":
+                return EasyBotBehaviour::new;
+            case "hard":
+                return HardBotBehaviour::new;
+            case "pattern":
+                PatternEvaluator evaluator = parts.length > 1 ? readWeights(Path.of(parts[1]))
+                        : PatternEvaluator.getDefault();
+                return () -> new HardBotBehaviour(EndgameSolver.DEFAULT_EMPTIES_THRESHOLD, evaluator);
+            case "search":
+                long timeBudgetMillis = parts.length > 1 ? Long.parseLong(parts[1])
+                        : SearchBotBehaviour.DEFAULT_TIME_BUDGET_MILLIS;
+                int threadsAmount = parts.length > 2 ? Integer.parseInt(parts[2]) : 1;
+                return () -> new SearchBotBehaviour(timeBudgetMillis, threadsAmount);
+            case "mcts":
+                long mctsTimeBudgetMillis = parts.length > 1 ? Long.parseLong(parts[1])
+                        : MctsBotBehaviour.DEFAULT_TIME_BUDGET_MILLIS;
+                int mctsThreadsAmount = parts.length > 2 ? Integer.parseInt(parts[2]) : 1;
+                return () -> new MctsBotBehaviour(mctsTimeBudgetMillis, mctsThreadsAmount);
+            default:
+                throw new IllegalArgumentException("Неизвестное поведение: " + name);
+        }
+    }
+
+    private static PatternEvaluator readWeights(Path path) {
+        try {
+            return PatternEvaluator.read(path);
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Cannot read pattern weights " + path + ": " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Создаёт поведение по названию.
+     * @param name название поведения.
+     * @return новое поведение.
+     * @throws IllegalArgumentException если название неизвестно.
+     */
+    public static Behaviour create(String name) {
+        return getFactory(name).get();
+    }
+}
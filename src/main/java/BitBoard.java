@@ -0,0 +1,265 @@
+/**
+ * Класс, представляющий доску 8x8 в виде двух битовых масок.
+ * Клетка с координатами (x, y) соответствует биту с номером {@code y * 8 + x}.
+ */
+public class BitBoard implements BoardEngine {
+    public static final int SIZE = 8;
+
+    private static final long NOT_FIRST_COLUMN = 0xfefefefefefefefeL;
+    private static final long NOT_LAST_COLUMN = 0x7f7f7f7f7f7f7f7fL;
+
+    /**
+     * Сдвиги для четырёх направлений: по горизонтали, по вертикали, по диагонали и по побочной диагонали.
+     */
+    private static final int[] SHIFTS = {1, 8, 9, 7};
+    /**
+     * Маски, отсекающие перенос битов через край доски при сдвиге влево ({@code <<}).
+     */
+    private static final long[] LEFT_MASKS = {NOT_FIRST_COLUMN, -1L, NOT_FIRST_COLUMN, NOT_LAST_COLUMN};
+    /**
+     * Маски, отсекающие перенос битов через край доски при сдвиге вправо ({@code >>>}).
+     */
+    private static final long[] RIGHT_MASKS = {NOT_LAST_COLUMN, -1L, NOT_LAST_COLUMN, NOT_FIRST_COLUMN};
+
+    private long black;
+    private long white;
+
+    /**
+     * Составляет битовое представление позиции на доске 8x8.
+     * @param board доска размера {@link #SIZE}.
+     * @return битовое представление позиции.
+     */
+    public static BitBoard fromBoard(Board board) {
+        BitBoard bitBoard = new BitBoard();
+        for (int i = 0; i < SIZE; ++i) {
+            for (int j = 0; j < SIZE; ++j) {
+                bitBoard.setDisk(i * SIZE + j, board.getCell(j, i).getDisk());
+            }
+        }
+
+        return bitBoard;
+    }
+
+    public long getBlack() {
+        return black;
+    }
+
+    public long getWhite() {
+        return white;
+    }
+
+    /**
+     * Возвращает маску фишек заданного цвета.
+     * @param diskColor цвет фишек.
+     * @return битовая маска фишек.
+     */
+    public long getDisks(DiskColor diskColor) {
+        return switch (diskColor) {
+            case BLACK -> black;
+            case WHITE -> white;
+            case NONE -> ~(black | white);
+        };
+    }
+
+    @Override
+    public void setDisk(int square, DiskColor diskColor) {
+        long bit = 1L << square;
+        black &= ~bit;
+        white &= ~bit;
+        if (diskColor == DiskColor.BLACK) {
+            black |= bit;
+        } else if (diskColor == DiskColor.WHITE) {
+            white |= bit;
+        }
+    }
+
+    @Override
+    public boolean isPossibleStep(int square, DiskColor diskColor) {
+        if (diskColor == DiskColor.NONE) {
+            return false;
+        }
+        return (getMoves(getDisks(diskColor), getDisks(diskColor.getOpposite())) & (1L << square)) != 0;
+    }
+
+    @Override
+    public int getAvailableSteps(DiskColor diskColor, int[] squares) {
+        if (diskColor == DiskColor.NONE) {
+            return 0;
+        }
+        return toSquares(getMoves(getDisks(diskColor), getDisks(diskColor.getOpposite())), squares);
+    }
+
+    @Override
+    public int getAvailableStepsAmount(DiskColor diskColor) {
+        if (diskColor == DiskColor.NONE) {
+            return 0;
+        }
+        return Long.bitCount(getMoves(getDisks(diskColor), getDisks(diskColor.getOpposite())));
+    }
+
+    @Override
+    public int getClosedCells(int square, DiskColor diskColor, int[] squares) {
+        if (diskColor == DiskColor.NONE) {
+            return 0;
+        }
+        return toSquares(getFlips(square, getDisks(diskColor), getDisks(diskColor.getOpposite())), squares);
+    }
+
+    @Override
+    public int getDiskAmount(DiskColor diskColor) {
+        return Long.bitCount(getDisks(diskColor));
+    }
+
+    @Override
+    public int getFrontierAmount(DiskColor diskColor) {
+        return Long.bitCount(getDisks(diskColor) & getNeighbours(~(black | white)));
+    }
+
+    /**
+     * Вычисляет маску клеток, соседних с клетками маски по горизонтали, вертикали или диагонали.
+     * @param mask битовая маска.
+     * @return маска соседних клеток.
+     */
+    public static long getNeighbours(long mask) {
+        long neighbours = 0;
+        for (int i = 0; i < SHIFTS.length; ++i) {
+            neighbours |= (mask << SHIFTS[i]) & LEFT_MASKS[i];
+            neighbours |= (mask >>> SHIFTS[i]) & RIGHT_MASKS[i];
+        }
+
+        return neighbours;
+    }
+
+    /**
+     * Вычисляет маску клеток, доступных для хода игроку.
+     * @param player фишки игрока, который делает ход.
+     * @param opponent фишки противника.
+     * @return маска клеток, доступных для хода.
+     */
+    public static long getMoves(long player, long opponent) {
+        long empty = ~(player | opponent);
+        long moves = 0;
+        for (int i = 0; i < SHIFTS.length; ++i) {
+            int shift = SHIFTS[i];
+
+            long leftOpponent = opponent & LEFT_MASKS[i];
+            long left = (player << shift) & leftOpponent;
+            for (int j = 0; j < 5; ++j) {
+                left |= (left << shift) & leftOpponent;
+            }
+            moves |= (left << shift) & LEFT_MASKS[i];
+
+            long rightOpponent = opponent & RIGHT_MASKS[i];
+            long right = (player >>> shift) & rightOpponent;
+            for (int j = 0; j < 5; ++j) {
+                right |= (right >>> shift) & rightOpponent;
+            }
+            moves |= (right >>> shift) & RIGHT_MASKS[i];
+        }
+
+        return moves & empty;
+    }
+
+    /**
+     * Вычисляет маску фишек противника, которые перевернутся после хода в заданную клетку.
+     * В каждом ряду фишки переворачиваются с обеих сторон от клетки.
+     * @param square индекс клетки, в которую делается ход.
+     * @param player фишки игрока, который делает ход.
+     * @param opponent фишки противника.
+     * @return маска переворачиваемых фишек.
+     */
+    public static long getFlips(int square, long player, long opponent) {
+        long move = 1L << square;
+        long flips = 0;
+        for (int i = 0; i < SHIFTS.length; ++i) {
+            int shift = SHIFTS[i];
+
+            long line = 0;
+            long cursor = (move >>> shift) & RIGHT_MASKS[i];
+            while ((cursor & opponent) != 0) {
+                line |= cursor;
+                cursor = (cursor >>> shift) & RIGHT_MASKS[i];
+            }
+            if ((cursor & player) != 0) {
+                flips |= line;
+            }
+
+            line = 0;
+            cursor = (move << shift) & LEFT_MASKS[i];
+            while ((cursor & opponent) != 0) {
+                line |= cursor;
+                cursor = (cursor << shift) & LEFT_MASKS[i];
+            }
+            if ((cursor & player) != 0) {
+                flips |= line;
+            }
+        }
+
+        return flips;
+    }
+
+    /**
+     * Применяет к маске одну из восьми симметрий доски. Симметрия с номером {@code 0} тождественная;
+     * бит {@code 4} номера отражает доску относительно главной диагонали, бит {@code 2} — относительно
+     * вертикальной оси, бит {@code 1} — относительно горизонтальной оси (в указанном порядке).
+     * @param mask битовая маска.
+     * @param symmetry номер симметрии от {@code 0} до {@code 7}.
+     * @return преобразованная маска.
+     */
+    public static long transform(long mask, int symmetry) {
+        if ((symmetry & 4) != 0) {
+            mask = flipDiagonal(mask);
+        }
+        if ((symmetry & 2) != 0) {
+            mask = mirrorHorizontal(mask);
+        }
+        if ((symmetry & 1) != 0) {
+            mask = Long.reverseBytes(mask);
+        }
+
+        return mask;
+    }
+
+    /**
+     * Отражает маску относительно вертикальной оси: клетка (x, y) переходит в (7 - x, y).
+     * @param mask битовая маска.
+     * @return отражённая маска.
+     */
+    private static long mirrorHorizontal(long mask) {
+        mask = ((mask >>> 1) & 0x5555555555555555L) | ((mask & 0x5555555555555555L) << 1);
+        mask = ((mask >>> 2) & 0x3333333333333333L) | ((mask & 0x3333333333333333L) << 2);
+        mask = ((mask >>> 4) & 0x0f0f0f0f0f0f0f0fL) | ((mask & 0x0f0f0f0f0f0f0f0fL) << 4);
+        return mask;
+    }
+
+    /**
+     * Отражает маску относительно главной диагонали: клетка (x, y) переходит в (y, x).
+     * @param mask битовая маска.
+     * @return отражённая маска.
+     */
+    private static long flipDiagonal(long mask) {
+        long swap = 0x0f0f0f0f00000000L & (mask ^ (mask << 28));
+        mask ^= swap ^ (swap >>> 28);
+        swap = 0x3333000033330000L & (mask ^ (mask << 14));
+        mask ^= swap ^ (swap >>> 14);
+        swap = 0x5500550055005500L & (mask ^ (mask << 7));
+        mask ^= swap ^ (swap >>> 7);
+        return mask;
+    }
+
+    /**
+     * Записывает индексы установленных битов маски в буфер.
+     * @param mask битовая маска.
+     * @param squares буфер для индексов.
+     * @return количество записанных индексов.
+     */
+    public static int toSquares(long mask, int[] squares) {
+        int count = 0;
+        while (mask != 0) {
+            squares[count++] = Long.numberOfTrailingZeros(mask);
+            mask &= mask - 1;
+        }
+
+        return count;
+    }
+}
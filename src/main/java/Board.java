@@ -1,6 +1,4 @@
 import java.util.ArrayList;
-import java.util.Comparator;
-import java.util.Stack;
 
 /**
  * Класс, представляющий доску для игры.
@@ -9,10 +7,48 @@ public class Board {
     private ArrayList<ArrayList<Cell>> board;
     /**
      * Поле для хранения истории ходов.
-     * @see BoardSnapshot
+     * @see StepHistory
      */
-    private Stack<BoardSnapshot> stepsHistory = new Stack<>();
+    private final StepHistory stepsHistory = new StepHistory();
     private final int size;
+    /**
+     * Быстрое представление доски, которому делегируется вычисление ходов: {@link BitBoard} для доски 8x8,
+     * {@link WideBitBoard} для больших досок и {@link RayBoard} для остальных размеров.
+     * @see BoardEngine
+     */
+    private final BoardEngine engine;
+    /**
+     * Буфер для индексов клеток, который заполняет {@link #engine}.
+     */
+    private final int[] squaresBuffer;
+    /**
+     * Доступные ходы чёрных и белых в текущей позиции, индексируемые {@link DiskColor#ordinal()}.
+     * Ходы цвета считаются вычисленными, пока их количество в {@link #availableStepsAmounts} неотрицательно;
+     * любое изменение клетки сбрасывает оба количества.
+     * <p>
+     * Сброс сделан целиком намеренно. Фишка влияет на ходы во всех клетках восьми линий через неё,
+     * а ход переворачивает несколько фишек сразу, так что поправить ходы по затронутым линиям стоит
+     * не меньше, чем вычислить их заново: {@link BitBoard} и {@link WideBitBoard} находят все ходы
+     * сдвигами, а {@link RayBoard} проверяет только пустые клетки рядом с фишками. Кэш убирает
+     * повторные вычисления в одной позиции, а не между позициями.
+     */
+    private final int[][] availableStepsCache;
+    private final int[] availableStepsAmounts = {-1, -1};
+    /**
+     * Количество чёрных фишек, белых фишек и пустых клеток, индексируемое {@link DiskColor#ordinal()}.
+     */
+    private final int[] diskAmounts = new int[DiskColor.values().length];
+    /**
+     * Хеш позиции по методу Зобриста, который обновляется при каждом изменении клетки.
+     * @see Zobrist
+     */
+    private long hash = 0;
+    private final long[] zobristKeys;
+    /**
+     * Троичные индексы экземпляров шаблонов для {@link PatternEvaluator} или {@code null},
+     * если доска не 8x8.
+     */
+    private final int[] patternIndices;
     private boolean isPossibleStepsDisplay = false;
 
     public boolean isRestoreAllowed() {
@@ -35,6 +71,12 @@ public class Board {
         this.isStepBackAllowed = isStepBackAllowed;
         board = new ArrayList<>();
         this.size = size;
+        engine = createEngine(size);
+        squaresBuffer = new int[size * size];
+        availableStepsCache = new int[2][size * size];
+        diskAmounts[DiskColor.NONE.ordinal()] = size * size;
+        zobristKeys = Zobrist.getKeys(size);
+        patternIndices = size == BitBoard.SIZE ? new int[PatternEvaluator.INSTANCES_AMOUNT] : null;
         for (int i = 0; i < size; ++i) {
             ArrayList<Cell> row = new ArrayList<>(size);
             for (int j = 0; j < size; ++j) {
@@ -44,14 +86,36 @@ public class Board {
         }
     }
 
+    private static BoardEngine createEngine(int size) {
+        if (size == BitBoard.SIZE) {
+            return new BitBoard();
+        }
+        if (size > BitBoard.SIZE && size <= WideBitBoard.MAX_SIZE) {
+            return new WideBitBoard(size);
+        }
+
+        return new RayBoard(size);
+    }
+
     /**
      * Инициализирует доску, устанавливая на неё фишки в соответствии с правилами игры.
      */
     public void initialize() {
-        getCell(size / 2, size / 2).setDisk(DiskColor.WHITE);
-        getCell(size / 2, size / 2 - 1).setDisk(DiskColor.BLACK);
-        getCell(size / 2 - 1, size / 2).setDisk(DiskColor.BLACK);
-        getCell(size / 2 - 1, size / 2 - 1).setDisk(DiskColor.WHITE);
+        setDisk(getCell(size / 2, size / 2), DiskColor.WHITE);
+        setDisk(getCell(size / 2, size / 2 - 1), DiskColor.BLACK);
+        setDisk(getCell(size / 2 - 1, size / 2), DiskColor.BLACK);
+        setDisk(getCell(size / 2 - 1, size / 2 - 1), DiskColor.WHITE);
+    }
+
+    /**
+     * Ставит фишку в клетку без переворотов и без записи в историю ходов, например чтобы загрузить
+     * сохранённую позицию. Вызывать нужно до первого хода.
+     * @param x координата клетки по горизонтали.
+     * @param y координата клетки по вертикали.
+     * @param diskColor цвет фишки или {@link DiskColor#NONE}, чтобы очистить клетку.
+     */
+    public void placeDisk(int x, int y, DiskColor diskColor) {
+        setDisk(getCell(x, y), diskColor);
     }
 
     /**
@@ -69,165 +133,126 @@ public class Board {
      * @param diskColor цвет фишки.
      */
     public void makeStep(int x, int y, DiskColor diskColor) {
-        makeSnapshot();
-        getCell(x, y).setDisk(diskColor);
+        stepsHistory.push(y * size + x);
+        setDisk(getCell(x, y), diskColor);
         update(getCell(x, y), diskColor);
     }
 
     /**
-     * Сохраняет снимок доски.
+     * Переворачивает фишку и записывает это в историю ходов.
+     * @param cell клетка с фишкой противника.
+     * @param diskColor новый цвет фишки.
      */
-    private void makeSnapshot() {
-        ArrayList<ArrayList<Cell>> snapshot = new ArrayList<>();
-        for (int i = 0; i < size; ++i) {
-            ArrayList<Cell> row = new ArrayList<>(size);
-            for (int j = 0; j < size; ++j) {
-                row.add(new Cell(j, i, getCell(j, i).getDisk()));
-            }
-            snapshot.add(row);
-        }
-        stepsHistory.add(new BoardSnapshot(snapshot));
+    private void flip(Cell cell, DiskColor diskColor) {
+        stepsHistory.addFlip(getSquare(cell));
+        setDisk(cell, diskColor);
     }
 
     /**
-     * Возвращает клетку по заданным координатам.
-     * @param x координата по оси x.
-     * @param y координата по оси y.
-     * @return клетка по заданным координатам.
+     * Устанавливает фишку в клетку, синхронно обновляя {@link #engine}.
+     * @param cell клетка.
+     * @param diskColor цвет фишки.
      */
-    public Cell getCell(int x, int y) {
-        return board.get(y).get(x);
+    private void setDisk(Cell cell, DiskColor diskColor) {
+        int square = getSquare(cell);
+        hash ^= getZobristKey(square, cell.getDisk()) ^ getZobristKey(square, diskColor);
+        if (patternIndices != null) {
+            PatternEvaluator.updateIndices(patternIndices, square, cell.getDisk(), diskColor);
+        }
+        --diskAmounts[cell.getDisk().ordinal()];
+        ++diskAmounts[diskColor.ordinal()];
+        cell.setDisk(diskColor);
+        engine.setDisk(square, diskColor);
+        availableStepsAmounts[DiskColor.BLACK.ordinal()] = -1;
+        availableStepsAmounts[DiskColor.WHITE.ordinal()] = -1;
     }
 
     /**
-     * Возвращает позицию замыкающей клетки относитльно ряда или {@code -1}, если клетка не была найдена.
-     * @param row ряд, в котором нужно найти замыкающую клетку.
-     * @param diskPosition позиция клетки с поставленной фишкой.
+     * Возвращает ключ Зобриста для фишки в клетке.
+     * @param square индекс клетки.
      * @param diskColor цвет фишки.
-     * @return позиция замыкающей клетки относитльно ряда или {@code -1}, если клетка не была найдена.
-     */
-    private int getClosingCellIndex(ArrayList<Cell> row, int diskPosition, DiskColor diskColor) {
-        int position = diskPosition - 1;
-        while (position >= 0) {
-            DiskColor diskColor1 = row.get(position).getDisk();
-            if (diskColor == diskColor1 && diskPosition - position > 1) {
-                return position;
-            } else if (diskColor1 == DiskColor.NONE || (diskColor == diskColor1 && diskPosition - position <= 1)) {
-                break;
-            } else {
-                position -= 1;
-            }
-        }
-
-        int rowSize = row.size();
-        position = diskPosition + 1;
-        while (position < rowSize) {
-            DiskColor diskColor1 = row.get(position).getDisk();
-            if (diskColor == diskColor1 && position - diskPosition > 1) {
-                return position;
-            } else if (diskColor1 == DiskColor.NONE || (diskColor == diskColor1 && position - diskPosition <= 1)) {
-                break;
-            } else {
-                position += 1;
-            }
-        }
+     * @return ключ или {@code 0} для пустой клетки.
+     */
+    private long getZobristKey(int square, DiskColor diskColor) {
+        return diskColor == DiskColor.NONE ? 0 : zobristKeys[square * 2 + diskColor.ordinal()];
+    }
 
-        return -1;
+    /**
+     * Возвращает хеш расположения фишек на доске. Не учитывает, чей сейчас ход.
+     * @return хеш позиции.
+     * @see Zobrist#getSideKey(DiskColor)
+     */
+    public long getHash() {
+        return hash;
     }
 
     /**
-     * Возвращает горизонтальный ряд доски по индексу.
-     * @param index индекс ряда.
-     * @return ряд с клетками.
+     * Возвращает троичный индекс экземпляра шаблона для доски 8x8.
+     * @param instance номер экземпляра шаблона.
+     * @return индекс в таблице весов шаблона.
+     * @see PatternEvaluator
      */
-    private ArrayList<Cell> getHorizontalRow(int index) {
-        return board.get(index);
+    public int getPatternIndex(int instance) {
+        return patternIndices[instance];
     }
 
     /**
-     * Возвращает вертикальный ряд доски по индексу.
-     * @param index индекс ряда.
-     * @return ряд с клетками.
+     * Возвращает индекс клетки при обходе доски по строкам.
+     * @param cell клетка.
+     * @return индекс клетки.
      */
-    private ArrayList<Cell> getVerticalRow(int index) {
-        ArrayList<Cell> verticalRow = new ArrayList<>();
-        for (int i = 0; i < size; ++i) {
-            verticalRow.add(getCell(index, i));
-        }
+    private int getSquare(Cell cell) {
+        return cell.getPositionY() * size + cell.getPositionX();
+    }
 
-        return verticalRow;
+    /**
+     * Возвращает клетку по её индексу при обходе доски по строкам.
+     * @param square индекс клетки.
+     * @return клетка.
+     */
+    private Cell getCell(int square) {
+        return getCell(square % size, square / size);
     }
 
     /**
-     * Восстанавливает доску к состоянию на шаг назад.
+     * Собирает клетки по индексам из {@link #squaresBuffer}.
+     * @param count количество индексов в буфере.
+     * @return список клеток.
      */
-    public void restorePreviousStep() {
-        if (!isStepBackAllowed || stepsHistory.isEmpty()) {
-            return;
+    private ArrayList<Cell> getCellsFromBuffer(int count) {
+        ArrayList<Cell> cells = new ArrayList<>(count);
+        for (int i = 0; i < count; ++i) {
+            cells.add(getCell(squaresBuffer[i]));
         }
 
-        var snapshot = stepsHistory.pop();
-        for (int i = 0; i < size; ++i) {
-            for (int j = 0; j < size; ++j) {
-                getCell(j, i).setDisk(snapshot.board.get(i).get(j).getDisk());
-            }
-        }
+        return cells;
     }
 
     /**
-     * Составляет ряд из клеток на диагонали по координатам одной клетки.
+     * Возвращает клетку по заданным координатам.
      * @param x координата по оси x.
      * @param y координата по оси y.
-     * @return ряд из клеток на диагонали.
-     */
-    private ArrayList<Cell> getDiagonalRow(int x, int y) {
-        ArrayList<Cell> diagonalRow = new ArrayList<>();
-        int startX = x - 1;
-        int startY = y - 1;
-        while (startY < size && startX < size && startX >= 0 && startY >= 0) {
-            diagonalRow.add(getCell(startX, startY));
-            --startX;
-            --startY;
-        }
-
-        startX = x;
-        startY = y;
-        while (startY < size && startX < size && startX >= 0 && startY >= 0) {
-            diagonalRow.add(getCell(startX, startY));
-            ++startX;
-            ++startY;
-        }
-
-        diagonalRow.sort(Comparator.comparingInt(Cell::getPositionY));
-        return diagonalRow;
+     * @return клетка по заданным координатам.
+     */
+    public Cell getCell(int x, int y) {
+        return board.get(y).get(x);
     }
 
     /**
-     * Составляет ряд из клеток на побочной диагонали по координатам одной клетки.
-     * @param x координата по оси x.
-     * @param y координата по оси y.
-     * @return ряд из клеток на побочной диагонали.
-     */
-    private ArrayList<Cell> getSideDiagonalRow(int x, int y) {
-        int startX = x;
-        int startY = y;
-        ArrayList<Cell> diagonalRow = new ArrayList<>();
-        while (startY < size && startX < size && startX >= 0 && startY >= 0) {
-            diagonalRow.add(getCell(startX, startY));
-            ++startX;
-            --startY;
+     * Восстанавливает доску к состоянию на шаг назад.
+     */
+    public void restorePreviousStep() {
+        if (!isStepBackAllowed || stepsHistory.isEmpty()) {
+            return;
         }
 
-        startX = x - 1;
-        startY = y + 1;
-        while (startY < size && startX < size && startX >= 0 && startY >= 0) {
-            diagonalRow.add(getCell(startX, startY));
-            --startX;
-            ++startY;
+        Cell placedCell = getCell(stepsHistory.getLastSquare());
+        DiskColor previousColor = placedCell.getDisk().getOpposite();
+        for (int i = stepsHistory.getLastFlipsStart(); i < stepsHistory.getLastFlipsEnd(); ++i) {
+            setDisk(getCell(stepsHistory.getFlip(i)), previousColor);
         }
-
-        diagonalRow.sort(Comparator.comparingInt(Cell::getPositionY));
-        return diagonalRow;
+        setDisk(placedCell, DiskColor.NONE);
+        stepsHistory.pop();
     }
 
     /**
@@ -237,134 +262,111 @@ public class Board {
      * @return клетки, которые замкнуты клеткой с фишкой заданного цвета.
      */
     public ArrayList<Cell> getClosedCells(Cell cell, DiskColor diskColor) {
-        ArrayList<Cell> closedCells = new ArrayList<>();
-        ArrayList<Cell> horizontalRow = getHorizontalRow(cell.getPositionY());
-        int horizontalIndex = cell.getPositionX();
-
-        ArrayList<Cell> verticalRow = getVerticalRow(cell.getPositionX());
-        int verticalIndex = cell.getPositionY();
-
-        ArrayList<Cell> diagonalRow = getDiagonalRow(cell.getPositionX(), cell.getPositionY());
-        int diagonalIndex = getIndexInRow(diagonalRow, cell);
-
-        ArrayList<Cell> sideDiagonalRow = getSideDiagonalRow(cell.getPositionX(), cell.getPositionY());
-        int sideDiagonalIndex = getIndexInRow(sideDiagonalRow, cell);
-
-        closedCells.addAll(getClosedCellsInRow(horizontalRow, horizontalIndex, diskColor));
-        closedCells.addAll(getClosedCellsInRow(verticalRow, verticalIndex, diskColor));
-        closedCells.addAll(getClosedCellsInRow(diagonalRow, diagonalIndex, diskColor));
-        closedCells.addAll(getClosedCellsInRow(sideDiagonalRow, sideDiagonalIndex, diskColor));
-
-
-        return closedCells;
+        return getCellsFromBuffer(engine.getClosedCells(getSquare(cell), diskColor, squaresBuffer));
     }
 
     /**
-     * Возвращает замкнутые клтеки в некотором ряду.
-     * @param row ряд,в котором нужно найти замкнутые клетки.
-     * @param index позиция клетки, которая с одной стороны замыкает другие клетки.
-     * @param diskColor цвет фишки, в клеткии на позции {@code index}
-     * @return замкнутые клтеки в некотором ряду
+     * Возвращает возможные ходы для фишки, заданного цвета.
+     * @param diskColor цвет фишки.
+     * @return набор клеток, доступных для хода.
      */
-    private ArrayList<Cell> getClosedCellsInRow(ArrayList<Cell> row, int index, DiskColor diskColor) {
-        ArrayList<Cell> closedCells = new ArrayList<>();
-        int closingCellIndex = getClosingCellIndex(row, index, diskColor);
-        if (closingCellIndex < 0) {
-            return closedCells;
-        }
-        int from = Math.min(index, closingCellIndex);
-        int to = Math.max(index, closingCellIndex);
-        int i = from + 1;
-        while (i != to) {
-            closedCells.add(row.get(i));
-            ++i;
+    public ArrayList<Cell> getAvailableSteps(DiskColor diskColor) {
+        if (diskColor == DiskColor.NONE) {
+            return new ArrayList<>();
         }
 
-        return closedCells;
+        int amount = getCachedAvailableSteps(diskColor);
+        System.arraycopy(availableStepsCache[diskColor.ordinal()], 0, squaresBuffer, 0, amount);
+        return getCellsFromBuffer(amount);
     }
 
     /**
-     * Возвращает индекс клетки в некотором ряду клеток.
-     * @param row ряд клеток.
-     * @param cell клетка, индекс которой нужно найти.
-     * @return позиция клетки или {@code -1}, если клетка не была найдена.
+     * Записывает в буфер индексы клеток, доступных для хода, не создавая новых объектов.
+     * Клетка с координатами (x, y) имеет индекс {@code y * size + x}.
+     * @param diskColor цвет фишки.
+     * @param squares буфер размером не меньше количества клеток доски.
+     * @return количество доступных ходов.
      */
-    private int getIndexInRow(ArrayList<Cell> row, Cell cell) {
-        int i = 0;
-        for (Cell cell1: row) {
-            if (cell1.getPositionX() == cell.getPositionX() && cell1.getPositionY() == cell.getPositionY()) {
-                return i;
-            }
-            ++i;
+    public int getAvailableSteps(DiskColor diskColor, int[] squares) {
+        if (diskColor == DiskColor.NONE) {
+            return 0;
         }
 
-        return -1;
-    }
-
-    private boolean isPossibleStep(Cell cell, DiskColor diskColor) {
-        ArrayList<Cell> horizontalRow = getHorizontalRow(cell.getPositionY());
-        int horizontalIndex = cell.getPositionX();
+        int amount = availableStepsAmounts[diskColor.ordinal()];
+        if (Metrics.ENABLED) {
+            Metrics.recordMoveGeneration(amount >= 0);
+        }
+        if (amount < 0) {
+            return engine.getAvailableSteps(diskColor, squares);
+        }
 
-        ArrayList<Cell> verticalRow = getVerticalRow(cell.getPositionX());
-        int verticalIndex = cell.getPositionY();
+        System.arraycopy(availableStepsCache[diskColor.ordinal()], 0, squares, 0, amount);
+        return amount;
+    }
 
-        ArrayList<Cell> diagonalRow = getDiagonalRow(cell.getPositionX(), cell.getPositionY());
-        int diagonalIndex = getIndexInRow(diagonalRow, cell);
+    /**
+     * Забывает запомненные ходы, как после изменения доски. Нужен замерам, которые много раз
+     * вычисляют ходы в одной и той же позиции.
+     */
+    void clearAvailableStepsCache() {
+        availableStepsAmounts[DiskColor.BLACK.ordinal()] = -1;
+        availableStepsAmounts[DiskColor.WHITE.ordinal()] = -1;
+    }
 
-        ArrayList<Cell> sideDiagonalRow = getSideDiagonalRow(cell.getPositionX(), cell.getPositionY());
-        int sideDiagonalIndex = getIndexInRow(sideDiagonalRow, cell);
+    /**
+     * Вычисляет доступные ходы и запоминает их до следующего изменения доски.
+     * Перебор в поиске сюда не обращается: там каждая позиция запрашивает ходы один раз,
+     * и запоминание только добавило бы копирование.
+     * @param diskColor цвет фишки, отличный от {@link DiskColor#NONE}.
+     * @return количество доступных ходов, записанных в {@link #availableStepsCache}.
+     */
+    private int getCachedAvailableSteps(DiskColor diskColor) {
+        int amount = availableStepsAmounts[diskColor.ordinal()];
+        if (Metrics.ENABLED) {
+            Metrics.recordMoveGeneration(amount >= 0);
+        }
+        if (amount < 0) {
+            amount = engine.getAvailableSteps(diskColor, availableStepsCache[diskColor.ordinal()]);
+            availableStepsAmounts[diskColor.ordinal()] = amount;
+        }
 
-        return getClosingCellIndex(horizontalRow, horizontalIndex, diskColor) != -1
-                || getClosingCellIndex(verticalRow, verticalIndex, diskColor) != -1
-                || getClosingCellIndex(diagonalRow, diagonalIndex, diskColor) != -1
-                || getClosingCellIndex(sideDiagonalRow, sideDiagonalIndex, diskColor) != -1;
+        return amount;
     }
 
     /**
-     * Возвращает возможные ходы для фишки, заданного цвета.
+     * Подсчитывает количество клеток, доступных для хода, не создавая новых объектов.
      * @param diskColor цвет фишки.
-     * @return набор клеток, доступных для хода.
+     * @return количество доступных ходов.
      */
-    public ArrayList<Cell> getAvailableSteps(DiskColor diskColor) {
-        ArrayList<Cell> available = new ArrayList<>();
+    public int getAvailableStepsAmount(DiskColor diskColor) {
         if (diskColor == DiskColor.NONE) {
-            return available;
+            return 0;
         }
 
-        for (int i = 0; i < size; ++i) {
-            for (int j = 0; j < size; ++j) {
-                if (getCell(j, i).getDisk() != DiskColor.NONE) {
-                    continue;
-                }
-                var cell = getCell(j, i);
-                if (isPossibleStep(cell, diskColor)) {
-                    available.add(cell);
-                }
-            }
+        int amount = availableStepsAmounts[diskColor.ordinal()];
+        if (Metrics.ENABLED) {
+            Metrics.recordMoveGeneration(amount >= 0);
         }
-
-        return available;
+        return amount < 0 ? engine.getAvailableStepsAmount(diskColor) : amount;
     }
 
     /**
-     * Переворачивает фишки в ряду.
-     * @param row ряд с клетками.
-     * @param diskPosition позиция клетки с фишкой, относительно переданного ряда.
-     * @param last фишка, которую поставили в клетку.
+     * Проверяет, есть ли у игрока ход. Найденные ходы запоминаются до следующего изменения доски,
+     * так что игровой цикл и бот, которые спрашивают о ходах в одной позиции, вычисляют их один раз.
+     * @param diskColor цвет фишки.
+     * @return {@code true}, если есть хотя бы один ход.
      */
-    private void updateRow(ArrayList<Cell> row, int diskPosition, DiskColor last) {
-        int closingCellIndex = getClosingCellIndex(row, diskPosition, last);
-        if (closingCellIndex < 0) {
-            return;
-        }
+    public boolean hasAvailableSteps(DiskColor diskColor) {
+        return diskColor != DiskColor.NONE && getCachedAvailableSteps(diskColor) > 0;
+    }
 
-        int from = Math.min(diskPosition, closingCellIndex);
-        int to = Math.max(diskPosition, closingCellIndex);
-        int i = from + 1;
-        while (i != to) {
-            row.get(i).setDisk(last);
-            ++i;
-        }
+    /**
+     * Подсчитывает количество фишек заданного цвета, соседних хотя бы с одной пустой клеткой.
+     * @param diskColor цвет фишек.
+     * @return количество фишек на границе с пустыми клетками.
+     */
+    public int getFrontierAmount(DiskColor diskColor) {
+        return engine.getFrontierAmount(diskColor);
     }
 
     /**
@@ -373,12 +375,10 @@ public class Board {
      * @param last фишка, которую поставили в клетку.
      */
     private void update(Cell cell, DiskColor last) {
-        updateRow(getHorizontalRow(cell.getPositionY()), cell.getPositionX(), last);
-        updateRow(getVerticalRow(cell.getPositionX()), cell.getPositionY(), last);
-        var diagonalRow = getDiagonalRow(cell.getPositionX(), cell.getPositionY());
-        updateRow(diagonalRow, getIndexInRow(diagonalRow, cell), last);
-        var sideDiagonalRow = getSideDiagonalRow(cell.getPositionX(), cell.getPositionY());
-        updateRow(sideDiagonalRow, getIndexInRow(sideDiagonalRow, cell), last);
+        int count = engine.getClosedCells(getSquare(cell), last, squaresBuffer);
+        for (int i = 0; i < count; ++i) {
+            flip(getCell(squaresBuffer[i]), last);
+        }
     }
 
     /**
@@ -392,22 +392,39 @@ public class Board {
         diskColorWithDisplayedSteps = diskColor;
     }
 
+    /**
+     * Возвращает цвет, для которого отображаются возможные ходы.
+     * @return цвет фишки или {@link DiskColor#NONE}, если ходы не отображаются.
+     */
+    public DiskColor getDisplayedStepsColor() {
+        return isPossibleStepsDisplay ? diskColorWithDisplayedSteps : DiskColor.NONE;
+    }
+
     /**
      * Подсчитывает количество фишек заданного цвета на доске.
      * @param diskColor цвет фишек.
      * @return количество фишек заданного цвета.
      */
     public int getDiskAmount(DiskColor diskColor) {
-        int amount = 0;
-        for (int i = 0; i < getSize(); ++i) {
-            for (int j = 0; j < getSize(); ++j) {
-                if (getCell(j, i).getDisk() == diskColor) {
-                    ++amount;
-                }
-            }
-        }
+        return diskAmounts[diskColor.ordinal()];
+    }
 
-        return amount;
+    /**
+     * Возвращает количество пустых клеток.
+     * @return количество пустых клеток.
+     */
+    public int getEmptyAmount() {
+        return diskAmounts[DiskColor.NONE.ordinal()];
+    }
+
+    /**
+     * Проверяет по счётчикам фишек, что ходов больше быть не может: доска заполнена
+     * или у одного из игроков не осталось фишек. Конец игры из-за того, что оба игрока
+     * пропустили ход, определяет игровой цикл.
+     * @return {@code true}, если ходов больше быть не может.
+     */
+    public boolean isFinalPosition() {
+        return getEmptyAmount() == 0 || getDiskAmount(DiskColor.BLACK) == 0 || getDiskAmount(DiskColor.WHITE) == 0;
     }
 
     /**
@@ -454,7 +471,7 @@ public class Board {
         Board boardCopy = new Board(getSize(), isStepBackAllowed);
         for (int i = 0; i < getSize(); ++i) {
             for (int j = 0; j < getSize(); ++j) {
-                boardCopy.getCell(j, i).setDisk(getCell(j, i).getDisk());
+                boardCopy.setDisk(boardCopy.getCell(j, i), getCell(j, i).getDisk());
             }
         }
 
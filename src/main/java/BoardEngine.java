@@ -0,0 +1,58 @@
+/**
+ * Интерфейс для внутреннего представления доски, которому {@link Board} делегирует вычисление ходов.
+ * Клетка с координатами (x, y) адресуется индексом {@code y * size + x}.
+ */
+public interface BoardEngine {
+    /**
+     * Устанавливает фишку в клетку.
+     * @param square индекс клетки.
+     * @param diskColor цвет фишки ({@link DiskColor#NONE}, чтобы очистить клетку).
+     */
+    void setDisk(int square, DiskColor diskColor);
+
+    /**
+     * Проверяет, можно ли поставить фишку в клетку.
+     * @param square индекс пустой клетки.
+     * @param diskColor цвет фишки.
+     * @return {@code true}, если ход возможен, иначе {@code false}.
+     */
+    boolean isPossibleStep(int square, DiskColor diskColor);
+
+    /**
+     * Записывает в буфер индексы клеток, доступных для хода, в порядке обхода доски по строкам.
+     * @param diskColor цвет фишки.
+     * @param squares буфер размером не меньше количества клеток доски.
+     * @return количество записанных клеток.
+     */
+    int getAvailableSteps(DiskColor diskColor, int[] squares);
+
+    /**
+     * Подсчитывает количество клеток, доступных для хода.
+     * @param diskColor цвет фишки.
+     * @return количество доступных ходов.
+     */
+    int getAvailableStepsAmount(DiskColor diskColor);
+
+    /**
+     * Записывает в буфер индексы клеток, которые замыкает фишка, поставленная в заданную клетку.
+     * @param square индекс замыкающей клетки.
+     * @param diskColor цвет фишки.
+     * @param squares буфер размером не меньше количества клеток доски.
+     * @return количество записанных клеток.
+     */
+    int getClosedCells(int square, DiskColor diskColor, int[] squares);
+
+    /**
+     * Подсчитывает количество фишек заданного цвета.
+     * @param diskColor цвет фишек.
+     * @return количество фишек заданного цвета.
+     */
+    int getDiskAmount(DiskColor diskColor);
+
+    /**
+     * Подсчитывает количество фишек заданного цвета, соседних с пустыми клетками.
+     * @param diskColor цвет фишек.
+     * @return количество фишек на границе с пустыми клетками.
+     */
+    int getFrontierAmount(DiskColor diskColor);
+}
@@ -0,0 +1,58 @@
+import java.io.BufferedOutputStream;
+import java.io.FileDescriptor;
+import java.io.FileOutputStream;
+import java.io.PrintStream;
+
+/**
+ * Вывод доски и игровых сообщений. Реализации копят вывод в буфере, поэтому перед ожиданием ввода
+ * пользователя или долгим ходом бота нужно вызывать {@link #flush()}.
+ */
+public interface BoardRenderer {
+    /**
+     * Отображает доску вместе с возможными ходами, заданными {@link Board#setDisplayPossibleSteps}.
+     * @param board доска для отображения.
+     */
+    void render(Board board);
+
+    /**
+     * Выводит строку сообщения под доской.
+     * @param message сообщение для вывода.
+     */
+    void println(String message);
+
+    /**
+     * Выводит приглашение к вводу под доской без перевода строки и сразу отправляет весь накопленный
+     * вывод на консоль. Строку завершает ввод пользователя.
+     * @param prompt приглашение.
+     */
+    void prompt(String prompt);
+
+    /**
+     * Отправляет накопленный вывод на консоль.
+     */
+    void flush();
+
+    /**
+     * Создаёт буферизованный поток стандартного вывода без автоматического сброса буфера.
+     * @return поток для вывода.
+     */
+    static PrintStream createConsoleStream() {
+        return new PrintStream(new BufferedOutputStream(new FileOutputStream(FileDescriptor.out), 1 << 16), false);
+    }
+
+    /**
+     * Создаёт отрисовщик по названию режима.
+     * @param name {@code text} — доска целиком, {@code ansi} — перерисовка изменившихся клеток,
+     *             {@code none} — без вывода.
+     * @return отрисовщик.
+     * @throws IllegalArgumentException если режим неизвестен.
+     */
+    static BoardRenderer create(String name) {
+        return switch (name) {
+            case "text" -> new TextBoardRenderer(createConsoleStream());
+            case "ansi" -> new AnsiBoardRenderer(createConsoleStream());
+            case "none" -> new SilentBoardRenderer();
+            default -> throw new IllegalArgumentException("Неизвестный режим вывода: " + name);
+        };
+    }
+}
@@ -0,0 +1,145 @@
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Решение, которое принимается в фоне. Пока поведение думает, объект хранит лучший ход, найденный
+ * к этому моменту, поэтому решение можно забрать в любой момент: дождавшись окончания,
+ * по истечении времени или отменив обдумывание.
+ * <p>
+ * Лучший ход с самого начала — допустимый ход или пас, так что после отмены игра всегда может продолжиться.
+ * @see Behaviour#startDecision(Board, DiskColor, long)
+ */
+public class DecisionHandle {
+    private final CompletableFuture<Decision> future = new CompletableFuture<>();
+    /**
+     * Действие, которое останавливает обдумывание, или {@code null}, если останавливать нечего.
+     */
+    private final Runnable canceller;
+    private volatile Decision bestDecision;
+
+    /**
+     * @param initialDecision решение, которое будет принято, если обдумывание отменят до первого результата.
+     * @param canceller действие, которое просит поведение прекратить обдумывание. Вызывается из потока,
+     *                  который отменяет решение, и не должно ждать окончания обдумывания.
+     */
+    public DecisionHandle(Decision initialDecision, Runnable canceller) {
+        bestDecision = initialDecision;
+        this.canceller = canceller;
+    }
+
+    /**
+     * Создаёт уже принятое решение.
+     * @param decision решение.
+     * @return завершённое решение.
+     */
+    public static DecisionHandle completed(Decision decision) {
+        DecisionHandle handle = new DecisionHandle(decision, null);
+        handle.complete(decision);
+        return handle;
+    }
+
+    /**
+     * Выбирает ход, не думая: допустимый ход на клетке с наибольшим приоритетом или пас, если ходов нет.
+     * Подходит как начальное решение для {@link #DecisionHandle(Decision, Runnable)}.
+     * @param board доска, на которой проходит игра.
+     * @param diskColor цвет фишки, которой нужно совершить ход.
+     * @return решение.
+     * @see MoveOrdering#getSquarePriorities(int)
+     */
+    public static Decision getQuickDecision(Board board, DiskColor diskColor) {
+        int size = board.getSize();
+        int[] steps = new int[size * size];
+        int count = board.getAvailableSteps(diskColor, steps);
+        if (count == 0) {
+            return new Decision(Action.SKIP);
+        }
+
+        int[] priorities = MoveOrdering.getSquarePriorities(size);
+        int best = steps[0];
+        for (int i = 1; i < count; ++i) {
+            if (priorities[steps[i]] > priorities[best]) {
+                best = steps[i];
+            }
+        }
+        return new Decision(Action.STEP, best % size, best / size);
+    }
+
+    /**
+     * Возвращает лучшее решение, найденное к этому моменту, или окончательное, если обдумывание закончено.
+     * @return решение.
+     */
+    public Decision getBestDecision() {
+        return future.isDone() ? future.join() : bestDecision;
+    }
+
+    public boolean isDone() {
+        return future.isDone();
+    }
+
+    /**
+     * Возвращает будущий результат, чтобы подписаться на окончание обдумывания.
+     * @return результат, который завершается окончательным решением.
+     */
+    public CompletableFuture<Decision> getFuture() {
+        return future;
+    }
+
+    /**
+     * Сообщает о новом лучшем ходе. После окончания обдумывания ничего не делает.
+     * Вызывается поведением.
+     * @param decision лучшее решение на данный момент.
+     */
+    public void update(Decision decision) {
+        bestDecision = decision;
+    }
+
+    /**
+     * Заканчивает обдумывание окончательным решением. Если решение уже отменено, ничего не делает.
+     * Вызывается поведением.
+     * @param decision окончательное решение.
+     */
+    public void complete(Decision decision) {
+        bestDecision = decision;
+        future.complete(decision);
+    }
+
+    /**
+     * Отменяет обдумывание: окончательным становится лучшее решение на данный момент. Метод не ждёт,
+     * пока поведение остановится, и его можно вызывать из любого потока.
+     * @return окончательное решение.
+     */
+    public Decision cancel() {
+        if (future.complete(bestDecision) && canceller != null) {
+            canceller.run();
+        }
+        return future.join();
+    }
+
+    /**
+     * Ждёт окончания обдумывания, но не дольше заданного момента; если время вышло, отменяет его.
+     * @param deadlineNanos момент по {@link System#nanoTime()}, к которому нужно решение,
+     *                      или {@link Long#MAX_VALUE}, чтобы ждать без ограничения.
+     * @return окончательное решение.
+     * @throws InterruptedException если ожидание было прервано. Обдумывание в этом случае отменяется.
+     */
+    public Decision await(long deadlineNanos) throws InterruptedException {
+        try {
+            if (deadlineNanos == Long.MAX_VALUE) {
+                return future.get();
+            }
+            return future.get(Math.max(0, deadlineNanos - System.nanoTime()), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            return cancel();
+        } catch (InterruptedException e) {
+            cancel();
+            throw e;
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+}
@@ -4,5 +4,17 @@
 public enum DiskColor {
     BLACK,
     WHITE,
-    NONE
+    NONE;
+
+    /**
+     * Возвращает цвет фишек противника.
+     * @return цвет фишек противника или {@link #NONE}, если цвет не задан.
+     */
+    public DiskColor getOpposite() {
+        return switch (this) {
+            case BLACK -> WHITE;
+            case WHITE -> BLACK;
+            case NONE -> NONE;
+        };
+    }
 }
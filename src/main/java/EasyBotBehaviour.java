@@ -4,6 +4,23 @@ import java.util.Hashtable;
  * Класс, описывающий поведения бота уровня новичка.
  */
 public class EasyBotBehaviour implements Behaviour {
+    /**
+     * Оценка позиций по шаблонам или {@code null}, если бот оценивает ходы по перевёрнутым фишкам.
+     */
+    protected final PatternEvaluator evaluator;
+
+    public EasyBotBehaviour() {
+        this(null);
+    }
+
+    /**
+     * Конструирует бота, который на доске 8x8 выбирает ход по оценке получившейся позиции.
+     * @param evaluator оценка позиций по шаблонам или {@code null}.
+     */
+    public EasyBotBehaviour(PatternEvaluator evaluator) {
+        this.evaluator = evaluator;
+    }
+
     /**
      * Метод для принятия решения о следующем ходе для бота уровня новичка.
      * @param board доска, на которой проходит игра.
@@ -18,6 +35,20 @@ public class EasyBotBehaviour implements Behaviour {
             return new Decision(Action.SKIP);
         }
 
+        if (isEvaluatorUsed(board)) {
+            Board boardCopy = getBoardCopy(board);
+            Cell bestStep = possibleSteps.get(0);
+            double maxRate = Double.NEGATIVE_INFINITY;
+            for (Cell possibleStep : possibleSteps) {
+                double rate = getEvaluatedRate(boardCopy, possibleStep, diskColor);
+                if (rate > maxRate) {
+                    bestStep = possibleStep;
+                    maxRate = rate;
+                }
+            }
+            return new Decision(Action.STEP, bestStep.getPositionX(), bestStep.getPositionY());
+        }
+
         Hashtable<Cell, Double> rates = new Hashtable<>();
         for (Cell possibleStep : possibleSteps) {
 
@@ -27,26 +58,69 @@ public class EasyBotBehaviour implements Behaviour {
             }
         }
 
-        Cell bestStep = getCellWithMaxRate(rates);
+        Cell bestStep = getCellWithMaxRate(board, rates);
         bestStep = bestStep == null ? possibleSteps.get(0) : bestStep;
 
         return new Decision(Action.STEP, bestStep.getPositionX(), bestStep.getPositionY());
     }
 
     /**
-     * Возвращает клетку с самым выской эффективностью хода в неё.
+     * Проверяет, нужно ли оценивать ходы по шаблонам на этой доске.
+     * @param board доска, на которой проходит игра.
+     * @return {@code true}, если у бота есть оценка по шаблонам и она подходит для доски.
+     */
+    protected boolean isEvaluatorUsed(Board board) {
+        return evaluator != null && PatternEvaluator.isSupported(board);
+    }
+
+    /**
+     * Возвращает копию доски, на которой можно делать и отменять ходы.
+     * @param board доска, на которой проходит игра.
+     * @return копия доски.
+     */
+    protected Board getBoardCopy(Board board) {
+        Board boardCopy = board.getBoardCopy();
+        boardCopy.setStepBackAllowed(true);
+        return boardCopy;
+    }
+
+    /**
+     * Возвращает оценку позиции после хода в указанную клетку.
+     * @param boardCopy копия доски, на которой разрешена отмена хода. После вызова не изменяется.
+     * @param cell клетка, в которую делается ход.
+     * @param diskColor цвет фишки.
+     * @return оценка позиции после хода с точки зрения фишки {@code diskColor}.
+     */
+    protected double getEvaluatedRate(Board boardCopy, Cell cell, DiskColor diskColor) {
+        boardCopy.makeStep(cell.getPositionX(), cell.getPositionY(), diskColor);
+        double rate = evaluator.evaluate(boardCopy, diskColor);
+        boardCopy.restorePreviousStep();
+        return rate;
+    }
+
+    /**
+     * Возвращает клетку с самым выской эффективностью хода в неё. Из клеток с одинаковой эффективностью
+     * выбирается клетка с большим приоритетом {@link MoveOrdering#getSquarePriorities(int)}, а при равных
+     * приоритетах — с меньшим индексом, так что результат не зависит от порядка ключей в таблице.
+     * @param board доска, на которой располагаются клетки.
      * @param rates эффективности всех клеток.
      * @return клетка с самой высокой эффективностью.
      */
-    protected Cell getCellWithMaxRate(Hashtable<Cell, Double> rates) {
+    protected Cell getCellWithMaxRate(Board board, Hashtable<Cell, Double> rates) {
+        int size = board.getSize();
+        int[] priorities = MoveOrdering.getSquarePriorities(size);
         Cell bestStep = null;
         double maxCost = 0;
-        var keys = rates.keys();
-        while (keys.hasMoreElements()) {
-            Cell possibleStep = keys.nextElement();
-            if (rates.get(possibleStep) > maxCost) {
-                bestStep = possibleStep;
-                maxCost = rates.get(possibleStep);
+        int bestSquare = -1;
+        for (var entry : rates.entrySet()) {
+            double cost = entry.getValue();
+            int square = entry.getKey().getPositionY() * size + entry.getKey().getPositionX();
+            if (cost > maxCost || (bestStep != null && cost == maxCost
+                    && (priorities[square] > priorities[bestSquare]
+                    || (priorities[square] == priorities[bestSquare] && square < bestSquare)))) {
+                bestStep = entry.getKey();
+                maxCost = cost;
+                bestSquare = square;
             }
         }
 
@@ -0,0 +1,359 @@
+/**
+ * Класс, который находит точный результат игры на доске 8x8 перебором до конца партии.
+ * Подходит для позиций, в которых осталось около 20 пустых клеток или меньше.
+ * Оценка позиции — разница в количестве фишек игрока, который делает ход, и его противника в конце игры.
+ */
+public class EndgameSolver {
+    /**
+     * Количество пустых клеток, начиная с которого боты переходят на точный перебор.
+     */
+    public static final int DEFAULT_EMPTIES_THRESHOLD = 14;
+
+    private static final int INFINITY = 65;
+    /**
+     * Начиная с этого количества пустых клеток ходы сортируются по подвижности противника.
+     */
+    private static final int FASTEST_FIRST_EMPTIES = 7;
+    private static final long[] QUADRANT_MASKS = {
+            0x000000000f0f0f0fL, 0x00000000f0f0f0f0L, 0x0f0f0f0f00000000L, 0xf0f0f0f000000000L
+    };
+    /**
+     * Маски клеток в квадрантах доски, для каждого набора битов чётности.
+     */
+    private static final long[] PARITY_MASKS = new long[16];
+
+    static {
+        for (int parity = 0; parity < PARITY_MASKS.length; ++parity) {
+            for (int quadrant = 0; quadrant < QUADRANT_MASKS.length; ++quadrant) {
+                if ((parity & (1 << quadrant)) != 0) {
+                    PARITY_MASKS[parity] |= QUADRANT_MASKS[quadrant];
+                }
+            }
+        }
+    }
+
+    private final boolean isWinLossDrawOnly;
+    /**
+     * Буферы для сортировки ходов на каждом количестве пустых клеток.
+     */
+    private final int[][] orderedSquares = new int[BitBoard.SIZE * BitBoard.SIZE + 1][BitBoard.SIZE * BitBoard.SIZE];
+    private final int[][] orderKeys = new int[BitBoard.SIZE * BitBoard.SIZE + 1][BitBoard.SIZE * BitBoard.SIZE];
+    private long nodes;
+    private int lastScore;
+
+    public EndgameSolver() {
+        this(false);
+    }
+
+    /**
+     * Конструирует решатель.
+     * @param isWinLossDrawOnly {@code true}, если нужно определить только исход игры (выигрыш, проигрыш или ничья),
+     *                          что быстрее, чем поиск точной разницы фишек.
+     */
+    public EndgameSolver(boolean isWinLossDrawOnly) {
+        this.isWinLossDrawOnly = isWinLossDrawOnly;
+    }
+
+    /**
+     * Возвращает количество узлов, просмотренных при последнем поиске.
+     * @return количество узлов.
+     */
+    public long getNodes() {
+        return nodes;
+    }
+
+    /**
+     * Возвращает оценку лучшего хода, найденного при последнем поиске. В режиме исхода игры
+     * значение имеет только знак оценки.
+     * @return разница фишек в конце игры с точки зрения игрока, который делал ход.
+     */
+    public int getLastScore() {
+        return lastScore;
+    }
+
+    /**
+     * Находит лучший ход для фишки заданного цвета.
+     * @param board доска размера {@link BitBoard#SIZE}.
+     * @param diskColor цвет фишки, которой нужно совершить ход.
+     * @return индекс клетки {@code y * 8 + x} или {@code -1}, если ходов нет.
+     */
+    public int findBestStep(Board board, DiskColor diskColor) {
+        BitBoard bitBoard = BitBoard.fromBoard(board);
+        long player = bitBoard.getDisks(diskColor);
+        long opponent = bitBoard.getDisks(diskColor.getOpposite());
+        nodes = 0;
+
+        long moves = BitBoard.getMoves(player, opponent);
+        if (moves == 0) {
+            return -1;
+        }
+
+        long empty = ~(player | opponent);
+        int empties = Long.bitCount(empty);
+        int parity = getParity(empty);
+        int alpha = isWinLossDrawOnly ? -1 : -INFINITY;
+        int beta = isWinLossDrawOnly ? 1 : INFINITY;
+        int bestStep = Long.numberOfTrailingZeros(moves);
+        int bestScore = -INFINITY;
+        for (int pass = 0; pass < 2 && alpha < beta; ++pass) {
+            long candidates = moves & (pass == 0 ? PARITY_MASKS[parity] : ~PARITY_MASKS[parity]);
+            while (candidates != 0 && alpha < beta) {
+                int square = Long.numberOfTrailingZeros(candidates);
+                candidates &= candidates - 1;
+                int score = searchStep(player, opponent, square, alpha, beta, empties, parity);
+                if (score > bestScore) {
+                    bestScore = score;
+                    bestStep = square;
+                    alpha = Math.max(alpha, score);
+                }
+            }
+        }
+        lastScore = bestScore;
+
+        return bestStep;
+    }
+
+    /**
+     * Находит точный результат игры.
+     * @param player фишки игрока, который делает ход.
+     * @param opponent фишки противника.
+     * @return разница фишек в конце игры с точки зрения игрока, который делает ход.
+     */
+    public int solve(long player, long opponent) {
+        nodes = 0;
+        long empty = ~(player | opponent);
+        int alpha = isWinLossDrawOnly ? -1 : -INFINITY;
+        int beta = isWinLossDrawOnly ? 1 : INFINITY;
+        return search(player, opponent, alpha, beta, Long.bitCount(empty), getParity(empty));
+    }
+
+    /**
+     * Перебирает позицию с альфа-бета отсечением.
+     * @param player фишки игрока, который делает ход.
+     * @param opponent фишки противника.
+     * @param alpha нижняя граница оценки.
+     * @param beta верхняя граница оценки.
+     * @param empties количество пустых клеток.
+     * @param parity биты квадрантов с нечётным количеством пустых клеток.
+     * @return оценка позиции с точки зрения игрока, который делает ход.
+     */
+    private int search(long player, long opponent, int alpha, int beta, int empties, int parity) {
+        if (empties <= 3) {
+            return searchShallow(player, opponent, alpha, beta, empties, parity);
+        }
+        ++nodes;
+
+        long moves = BitBoard.getMoves(player, opponent);
+        if (moves == 0) {
+            if (BitBoard.getMoves(opponent, player) == 0) {
+                return getFinalScore(player, opponent);
+            }
+            return -search(opponent, player, -beta, -alpha, empties, parity);
+        }
+
+        int bestScore = -INFINITY;
+        if (empties >= FASTEST_FIRST_EMPTIES) {
+            int count = sortSteps(player, opponent, moves, empties, parity);
+            int[] squares = orderedSquares[empties];
+            for (int i = 0; i < count; ++i) {
+                int score = searchStep(player, opponent, squares[i], alpha, beta, empties, parity);
+                if (score > bestScore) {
+                    bestScore = score;
+                    if (score > alpha) {
+                        alpha = score;
+                        if (alpha >= beta) {
+                            break;
+                        }
+                    }
+                }
+            }
+            return bestScore;
+        }
+
+        for (int pass = 0; pass < 2; ++pass) {
+            long candidates = moves & (pass == 0 ? PARITY_MASKS[parity] : ~PARITY_MASKS[parity]);
+            while (candidates != 0) {
+                int square = Long.numberOfTrailingZeros(candidates);
+                candidates &= candidates - 1;
+                int score = searchStep(player, opponent, square, alpha, beta, empties, parity);
+                if (score > bestScore) {
+                    bestScore = score;
+                    if (score > alpha) {
+                        alpha = score;
+                        if (alpha >= beta) {
+                            return bestScore;
+                        }
+                    }
+                }
+            }
+        }
+
+        return bestScore;
+    }
+
+    /**
+     * Делает ход и оценивает получившуюся позицию.
+     * @param player фишки игрока, который делает ход.
+     * @param opponent фишки противника.
+     * @param square клетка, в которую делается ход.
+     * @param alpha нижняя граница оценки.
+     * @param beta верхняя граница оценки.
+     * @param empties количество пустых клеток до хода.
+     * @param parity биты чётности до хода.
+     * @return оценка хода с точки зрения игрока, который его делает.
+     */
+    private int searchStep(long player, long opponent, int square, int alpha, int beta, int empties, int parity) {
+        long flips = BitBoard.getFlips(square, player, opponent);
+        return -search(opponent & ~flips, player | flips | (1L << square), -beta, -alpha,
+                empties - 1, parity ^ (1 << getQuadrant(square)));
+    }
+
+    /**
+     * Перебирает позиции с тремя пустыми клетками или меньше, не вычисляя маску доступных ходов.
+     * @param player фишки игрока, который делает ход.
+     * @param opponent фишки противника.
+     * @param alpha нижняя граница оценки.
+     * @param beta верхняя граница оценки.
+     * @param empties количество пустых клеток.
+     * @param parity биты квадрантов с нечётным количеством пустых клеток.
+     * @return оценка позиции с точки зрения игрока, который делает ход.
+     */
+    private int searchShallow(long player, long opponent, int alpha, int beta, int empties, int parity) {
+        ++nodes;
+        if (empties == 0) {
+            return getFinalScore(player, opponent);
+        }
+        if (empties == 1) {
+            return solveLastSquare(player, opponent);
+        }
+
+        long empty = ~(player | opponent);
+        int bestScore = -INFINITY;
+        for (int pass = 0; pass < 2; ++pass) {
+            long candidates = empty & (pass == 0 ? PARITY_MASKS[parity] : ~PARITY_MASKS[parity]);
+            while (candidates != 0) {
+                int square = Long.numberOfTrailingZeros(candidates);
+                candidates &= candidates - 1;
+                long flips = BitBoard.getFlips(square, player, opponent);
+                if (flips == 0) {
+                    continue;
+                }
+                int score = -searchShallow(opponent & ~flips, player | flips | (1L << square), -beta, -alpha,
+                        empties - 1, parity ^ (1 << getQuadrant(square)));
+                if (score > bestScore) {
+                    bestScore = score;
+                    if (score > alpha) {
+                        alpha = score;
+                        if (alpha >= beta) {
+                            return bestScore;
+                        }
+                    }
+                }
+            }
+        }
+        if (bestScore != -INFINITY) {
+            return bestScore;
+        }
+
+        long candidates = empty;
+        while (candidates != 0) {
+            int square = Long.numberOfTrailingZeros(candidates);
+            candidates &= candidates - 1;
+            if (BitBoard.getFlips(square, opponent, player) != 0) {
+                return -searchShallow(opponent, player, -beta, -alpha, empties, parity);
+            }
+        }
+
+        return getFinalScore(player, opponent);
+    }
+
+    /**
+     * Находит результат игры, когда осталась одна пустая клетка.
+     * @param player фишки игрока, который делает ход.
+     * @param opponent фишки противника.
+     * @return оценка позиции с точки зрения игрока, который делает ход.
+     */
+    private int solveLastSquare(long player, long opponent) {
+        int square = Long.numberOfTrailingZeros(~(player | opponent));
+        int difference = Long.bitCount(player) - Long.bitCount(opponent);
+
+        int flipped = Long.bitCount(BitBoard.getFlips(square, player, opponent));
+        if (flipped != 0) {
+            return difference + 2 * flipped + 1;
+        }
+        flipped = Long.bitCount(BitBoard.getFlips(square, opponent, player));
+        if (flipped != 0) {
+            return difference - 2 * flipped - 1;
+        }
+
+        return difference;
+    }
+
+    /**
+     * Сортирует ходы так, чтобы первыми шли ходы, после которых у противника меньше всего ответов,
+     * а при равенстве — ходы в квадранты с нечётным количеством пустых клеток.
+     * @param player фишки игрока, который делает ход.
+     * @param opponent фишки противника.
+     * @param moves маска доступных ходов.
+     * @param empties количество пустых клеток, по которому выбирается буфер.
+     * @param parity биты квадрантов с нечётным количеством пустых клеток.
+     * @return количество ходов в буфере {@code orderedSquares[empties]}.
+     */
+    private int sortSteps(long player, long opponent, long moves, int empties, int parity) {
+        int[] squares = orderedSquares[empties];
+        int[] keys = orderKeys[empties];
+        long oddMask = PARITY_MASKS[parity];
+        int count = 0;
+        while (moves != 0) {
+            int square = Long.numberOfTrailingZeros(moves);
+            long bit = moves & -moves;
+            moves &= moves - 1;
+
+            long flips = BitBoard.getFlips(square, player, opponent);
+            int key = 2 * Long.bitCount(BitBoard.getMoves(opponent & ~flips, player | flips | bit));
+            if ((bit & oddMask) == 0) {
+                ++key;
+            }
+
+            int i = count++;
+            while (i > 0 && keys[i - 1] > key) {
+                squares[i] = squares[i - 1];
+                keys[i] = keys[i - 1];
+                --i;
+            }
+            squares[i] = square;
+            keys[i] = key;
+        }
+
+        return count;
+    }
+
+    private static int getFinalScore(long player, long opponent) {
+        return Long.bitCount(player) - Long.bitCount(opponent);
+    }
+
+    /**
+     * Возвращает номер квадранта доски 4x4, в котором находится клетка.
+     * @param square индекс клетки.
+     * @return номер квадранта от {@code 0} до {@code 3}.
+     */
+    private static int getQuadrant(int square) {
+        return ((square >> 2) & 1) | ((square >> 4) & 2);
+    }
+
+    /**
+     * Вычисляет биты квадрантов с нечётным количеством пустых клеток.
+     * @param empty маска пустых клеток.
+     * @return биты чётности.
+     */
+    private static int getParity(long empty) {
+        int parity = 0;
+        for (int quadrant = 0; quadrant < QUADRANT_MASKS.length; ++quadrant) {
+            if ((Long.bitCount(empty & QUADRANT_MASKS[quadrant]) & 1) != 0) {
+                parity |= 1 << quadrant;
+            }
+        }
+
+        return parity;
+    }
+}
@@ -0,0 +1,425 @@
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+/**
+ * Настройка весов {@link PatternEvaluator} по партиям из файла записей (Texel tuning). Вероятность
+ * победы чёрных в позиции моделируется как {@code sigmoid(K * оценка)}, и веса подбираются логистической
+ * регрессией: градиентным спуском по мини-выборкам с шагом AdaGrad, минимизируя логарифмическую
+ * функцию потерь относительно исхода партии (победа — 1, ничья — 0.5, поражение — 0).
+ * <p>
+ * Позиции не загружаются в память целиком: на каждой эпохе отдельный поток читает партии из файла,
+ * воспроизводит их и складывает признаки позиций в выборки, а основной поток считает градиент каждой
+ * выборки параллельно на пуле потоков. Очередь выборок ограничена, поэтому размер файла не важен.
+ * Каждая {@value #VALIDATION_INTERVAL}-я партия не участвует в обучении: по ней считается
+ * проверочная ошибка, чтобы было видно переобучение.
+ * <p>
+ * Коэффициент {@code K} подбирается до обучения по начальным весам, так что оценка остаётся
+ * в прежнем масштабе и веса можно сравнивать с исходными.
+ */
+public class EvaluationTuner {
+    public static final int DEFAULT_BATCH_SIZE = 8192;
+    public static final double DEFAULT_LEARNING_RATE = 2;
+
+    private static final int VALIDATION_INTERVAL = 10;
+    /**
+     * Признаки позиции: троичные индексы всех экземпляров шаблонов, разность подвижности и разность
+     * количества фишек на границе.
+     */
+    private static final int FEATURES_AMOUNT = PatternEvaluator.INSTANCES_AMOUNT + 2;
+    private static final int MOBILITY_FEATURE = PatternEvaluator.INSTANCES_AMOUNT;
+    private static final int FRONTIER_FEATURE = PatternEvaluator.INSTANCES_AMOUNT + 1;
+    /**
+     * Количество выборок, которые могут ждать обучения в очереди.
+     */
+    private static final int QUEUE_CAPACITY = 4;
+    /**
+     * Кандидаты для {@code K}: от {@code 1/25} с шагом в {@code sqrt(2)}.
+     */
+    private static final int SCALE_CANDIDATES = 12;
+    private static final double ADAGRAD_EPSILON = 1e-8;
+
+    private final int threadsAmount;
+    private final int batchSize;
+    private final double learningRate;
+    private final ForkJoinPool pool;
+    /**
+     * Настраиваемые параметры: таблицы весов шаблонов, затем вес подвижности и вес границы.
+     */
+    private final double[][] weights;
+    /**
+     * Суммы квадратов градиентов для шага AdaGrad, по одной на каждый параметр.
+     */
+    private final double[][] squaredGradients;
+    private final int[] tableLengths;
+    private double scale;
+
+    /**
+     * @param initial оценка, с весов которой начинается настройка.
+     * @param threadsAmount количество потоков для расчёта градиента.
+     * @param batchSize количество позиций в выборке.
+     * @param learningRate начальный шаг AdaGrad в единицах оценки.
+     */
+    public EvaluationTuner(PatternEvaluator initial, int threadsAmount, int batchSize, double learningRate) {
+        this.threadsAmount = Math.max(1, threadsAmount);
+        this.batchSize = Math.max(1, batchSize);
+        this.learningRate = learningRate;
+        pool = new ForkJoinPool(this.threadsAmount);
+
+        weights = new double[PatternEvaluator.FAMILIES_AMOUNT + 1][];
+        squaredGradients = new double[weights.length][];
+        tableLengths = new int[weights.length];
+        for (int family = 0; family < PatternEvaluator.FAMILIES_AMOUNT; ++family) {
+            int[] table = initial.getWeights(family);
+            weights[family] = new double[table.length];
+            for (int index = 0; index < table.length; ++index) {
+                weights[family][index] = table[index];
+            }
+        }
+        // Последняя «таблица» — веса подвижности и границы.
+        weights[PatternEvaluator.FAMILIES_AMOUNT] = new double[] {initial.getMobilityWeight(),
+                initial.getFrontierWeight()};
+        for (int table = 0; table < weights.length; ++table) {
+            tableLengths[table] = weights[table].length;
+            squaredGradients[table] = new double[tableLengths[table]];
+        }
+    }
+
+    /**
+     * Возвращает подобранный коэффициент {@code K}.
+     * @return множитель оценки перед сигмоидой.
+     */
+    public double getScale() {
+        return scale;
+    }
+
+    /**
+     * Настраивает веса по партиям из файла.
+     * @param records файл записей партий {@link GameRecordWriter}.
+     * @param epochsAmount количество проходов по файлу.
+     * @param out поток для вывода ошибок по эпохам или {@code null}.
+     * @return оценка с настроенными весами.
+     * @throws IOException если файл не удалось прочитать.
+     */
+    public PatternEvaluator fit(Path records, int epochsAmount, PrintStream out) throws IOException {
+        try {
+            scale = findScale(records);
+            if (out != null) {
+                out.printf("K = %.6f%n", scale);
+            }
+
+            for (int epoch = 1; epoch <= epochsAmount; ++epoch) {
+                double[] losses = new double[4];
+                stream(records, batch -> train(batch, losses));
+                if (out != null) {
+                    out.printf("epoch %d: train loss %.5f (%d positions), validation loss %.5f (%d positions)%n",
+                            epoch, losses[0] / Math.max(1, losses[1]), (long) losses[1],
+                            losses[2] / Math.max(1, losses[3]), (long) losses[3]);
+                }
+            }
+        } finally {
+            pool.shutdown();
+        }
+
+        return toEvaluator();
+    }
+
+    /**
+     * Выборка позиций: признаки подряд по {@link #FEATURES_AMOUNT} на позицию, исход партии
+     * и признак проверочной позиции.
+     */
+    private static class Batch {
+        private final int[] features;
+        private final double[] results;
+        private final boolean[] isValidation;
+        private int size;
+
+        private Batch(int capacity) {
+            features = new int[capacity * FEATURES_AMOUNT];
+            results = new double[capacity];
+            isValidation = new boolean[capacity];
+        }
+
+        private boolean isFull() {
+            return size == results.length;
+        }
+    }
+
+    private interface BatchConsumer {
+        void accept(Batch batch) throws InterruptedException, ExecutionException;
+    }
+
+    /**
+     * Читает партии в отдельном потоке и передаёт выборки позиций получателю в текущем потоке.
+     */
+    private void stream(Path records, BatchConsumer consumer) throws IOException {
+        ArrayBlockingQueue<Batch> batches = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+        Batch end = new Batch(0);
+        IOException[] readError = new IOException[1];
+
+        Thread reader = new Thread(() -> {
+            try {
+                readBatches(records, batches);
+            } catch (IOException e) {
+                readError[0] = e;
+            } catch (RuntimeException e) {
+                readError[0] = new IOException("Cannot read games: " + e.getMessage(), e);
+            } catch (InterruptedException e) {
+                return;
+            }
+            try {
+                batches.put(end);
+            } catch (InterruptedException ignored) {
+            }
+        }, "tuner-reader");
+        reader.start();
+
+        try {
+            Batch batch;
+            while ((batch = batches.take()) != end) {
+                consumer.accept(batch);
+            }
+            reader.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Настройка была прервана", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new IllegalStateException(e.getCause());
+        } finally {
+            reader.interrupt();
+        }
+
+        if (readError[0] != null) {
+            throw readError[0];
+        }
+    }
+
+    private void readBatches(Path records, ArrayBlockingQueue<Batch> batches) throws IOException, InterruptedException {
+        try (GameRecordReader reader = GameRecordReader.open(records)) {
+            Batch batch = new Batch(batchSize);
+            GameRecord record;
+            long gameIndex = 0;
+            while ((record = reader.read()) != null) {
+                if (record.getSize() != BitBoard.SIZE) {
+                    continue;
+                }
+                double result = record.getBlackScore() > record.getWhiteScore() ? 1
+                        : record.getBlackScore() == record.getWhiteScore() ? 0.5 : 0;
+                boolean isValidation = gameIndex++ % VALIDATION_INTERVAL == VALIDATION_INTERVAL - 1;
+                GameReplayer replayer = new GameReplayer(record);
+                while (replayer.hasNextStep()) {
+                    addPosition(batch, replayer.getBoard(), result, isValidation);
+                    if (batch.isFull()) {
+                        batches.put(batch);
+                        batch = new Batch(batchSize);
+                    }
+                    replayer.nextStep();
+                }
+            }
+            if (batch.size > 0) {
+                batches.put(batch);
+            }
+        }
+    }
+
+    private static void addPosition(Batch batch, Board board, double result, boolean isValidation) {
+        int offset = batch.size * FEATURES_AMOUNT;
+        for (int instance = 0; instance < PatternEvaluator.INSTANCES_AMOUNT; ++instance) {
+            batch.features[offset + instance] = board.getPatternIndex(instance);
+        }
+        batch.features[offset + MOBILITY_FEATURE] = board.getAvailableStepsAmount(DiskColor.BLACK)
+                - board.getAvailableStepsAmount(DiskColor.WHITE);
+        batch.features[offset + FRONTIER_FEATURE] = board.getFrontierAmount(DiskColor.BLACK)
+                - board.getFrontierAmount(DiskColor.WHITE);
+        batch.results[batch.size] = result;
+        batch.isValidation[batch.size] = isValidation;
+        ++batch.size;
+    }
+
+    private double evaluate(int[] features, int offset) {
+        double score = 0;
+        for (int instance = 0; instance < PatternEvaluator.INSTANCES_AMOUNT; ++instance) {
+            score += weights[PatternEvaluator.getFamily(instance)][features[offset + instance]];
+        }
+        double[] linear = weights[PatternEvaluator.FAMILIES_AMOUNT];
+        return score + linear[0] * features[offset + MOBILITY_FEATURE]
+                + linear[1] * features[offset + FRONTIER_FEATURE];
+    }
+
+    /**
+     * Подбирает {@code K} с наименьшей ошибкой на обучающих позициях при начальных весах.
+     */
+    private double findScale(Path records) throws IOException {
+        double[] candidates = new double[SCALE_CANDIDATES];
+        for (int i = 0; i < SCALE_CANDIDATES; ++i) {
+            candidates[i] = 1 / (25 * Math.pow(2, i / 2.0));
+        }
+        double[] losses = new double[SCALE_CANDIDATES];
+        stream(records, batch -> {
+            for (int i = 0; i < batch.size; ++i) {
+                if (!batch.isValidation[i]) {
+                    double score = evaluate(batch.features, i * FEATURES_AMOUNT);
+                    for (int k = 0; k < SCALE_CANDIDATES; ++k) {
+                        losses[k] += getLoss(sigmoid(candidates[k] * score), batch.results[i]);
+                    }
+                }
+            }
+        });
+
+        int best = 0;
+        for (int k = 1; k < SCALE_CANDIDATES; ++k) {
+            if (losses[k] < losses[best]) {
+                best = k;
+            }
+        }
+        return candidates[best];
+    }
+
+    /**
+     * Считает градиент выборки параллельно и делает шаг AdaGrad.
+     * @param losses суммы ошибок и количества обучающих и проверочных позиций.
+     */
+    private void train(Batch batch, double[] losses) throws InterruptedException, ExecutionException {
+        int chunk = (batch.size + threadsAmount - 1) / threadsAmount;
+        ArrayList<Callable<GradientPart>> parts = new ArrayList<>(threadsAmount);
+        for (int from = 0; from < batch.size; from += chunk) {
+            int start = from;
+            int end = Math.min(batch.size, from + chunk);
+            parts.add(() -> computeGradient(batch, start, end));
+        }
+
+        double[][] gradient = null;
+        long trainAmount = 0;
+        for (Future<GradientPart> future : pool.invokeAll(parts)) {
+            GradientPart part = future.get();
+            losses[0] += part.trainLoss;
+            losses[1] += part.trainAmount;
+            losses[2] += part.validationLoss;
+            losses[3] += part.validationAmount;
+            trainAmount += part.trainAmount;
+            if (gradient == null) {
+                gradient = part.gradient;
+            } else {
+                for (int table = 0; table < gradient.length; ++table) {
+                    for (int index = 0; index < gradient[table].length; ++index) {
+                        gradient[table][index] += part.gradient[table][index];
+                    }
+                }
+            }
+        }
+        if (trainAmount == 0) {
+            return;
+        }
+
+        for (int table = 0; table < weights.length; ++table) {
+            for (int index = 0; index < tableLengths[table]; ++index) {
+                double g = gradient[table][index] / trainAmount;
+                if (g != 0) {
+                    squaredGradients[table][index] += g * g;
+                    weights[table][index] -= learningRate * g
+                            / (Math.sqrt(squaredGradients[table][index]) + ADAGRAD_EPSILON);
+                }
+            }
+        }
+    }
+
+    /**
+     * Градиент и ошибки части выборки, посчитанные одним потоком.
+     */
+    private static class GradientPart {
+        private final double[][] gradient;
+        private double trainLoss;
+        private long trainAmount;
+        private double validationLoss;
+        private long validationAmount;
+
+        private GradientPart(int[] tableLengths) {
+            gradient = new double[tableLengths.length][];
+            for (int table = 0; table < tableLengths.length; ++table) {
+                gradient[table] = new double[tableLengths[table]];
+            }
+        }
+    }
+
+    private GradientPart computeGradient(Batch batch, int from, int to) {
+        GradientPart part = new GradientPart(tableLengths);
+        double[] linear = part.gradient[PatternEvaluator.FAMILIES_AMOUNT];
+        for (int i = from; i < to; ++i) {
+            int offset = i * FEATURES_AMOUNT;
+            double probability = sigmoid(scale * evaluate(batch.features, offset));
+            double loss = getLoss(probability, batch.results[i]);
+            if (batch.isValidation[i]) {
+                part.validationLoss += loss;
+                ++part.validationAmount;
+                continue;
+            }
+            part.trainLoss += loss;
+            ++part.trainAmount;
+
+            // Производная логарифмической функции потерь по оценке, множитель K входит в шаг.
+            double error = probability - batch.results[i];
+            for (int instance = 0; instance < PatternEvaluator.INSTANCES_AMOUNT; ++instance) {
+                part.gradient[PatternEvaluator.getFamily(instance)][batch.features[offset + instance]] += error;
+            }
+            linear[0] += error * batch.features[offset + MOBILITY_FEATURE];
+            linear[1] += error * batch.features[offset + FRONTIER_FEATURE];
+        }
+
+        return part;
+    }
+
+    private static double sigmoid(double x) {
+        return 1 / (1 + Math.exp(-x));
+    }
+
+    private static double getLoss(double probability, double result) {
+        double p = Math.min(1 - 1e-12, Math.max(1e-12, probability));
+        return -(result * Math.log(p) + (1 - result) * Math.log(1 - p));
+    }
+
+    private PatternEvaluator toEvaluator() {
+        int[][] tables = new int[PatternEvaluator.FAMILIES_AMOUNT][];
+        for (int family = 0; family < PatternEvaluator.FAMILIES_AMOUNT; ++family) {
+            tables[family] = new int[tableLengths[family]];
+            for (int index = 0; index < tableLengths[family]; ++index) {
+                tables[family][index] = (int) Math.round(weights[family][index]);
+            }
+        }
+        double[] linear = weights[PatternEvaluator.FAMILIES_AMOUNT];
+        return new PatternEvaluator(tables, (int) Math.round(linear[0]), (int) Math.round(linear[1]));
+    }
+
+    /**
+     * Аргументы: файл записей партий, файл для настроенных весов, количество эпох, количество потоков,
+     * размер выборки и начальный шаг. Настройка начинается с весов по умолчанию, поэтому её можно
+     * продолжать, указав прежний файл весов в {@link PatternEvaluator#PATH_PROPERTY}.
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.out.println("Usage: EvaluationTuner <records> <weights> [epochs] [threads] [batch size]"
+                    + " [learning rate]");
+            return;
+        }
+
+        int epochsAmount = args.length > 2 ? Integer.parseInt(args[2]) : 10;
+        int threadsAmount = args.length > 3 ? Integer.parseInt(args[3]) : Runtime.getRuntime().availableProcessors();
+        int batchSize = args.length > 4 ? Integer.parseInt(args[4]) : DEFAULT_BATCH_SIZE;
+        double learningRate = args.length > 5 ? Double.parseDouble(args[5]) : DEFAULT_LEARNING_RATE;
+
+        EvaluationTuner tuner = new EvaluationTuner(PatternEvaluator.getDefault(), threadsAmount, batchSize,
+                learningRate);
+        long start = System.nanoTime();
+        PatternEvaluator evaluator = tuner.fit(Path.of(args[0]), epochsAmount, System.out);
+        evaluator.write(Path.of(args[1]));
+        System.out.printf("weights written to %s in %.1f s%n", args[1], (System.nanoTime() - start) / 1e9);
+    }
+}
@@ -0,0 +1,134 @@
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.SplittableRandom;
+
+/**
+ * Клиент для проверки {@link GameServer} под нагрузкой: открывает много соединений из одного потока
+ * с селектором и в каждом играет несколько партий случайными ходами.
+ */
+public class GameClient {
+    private final String host;
+    private final int port;
+    private final String botName;
+    private final SplittableRandom random = new SplittableRandom();
+    private int finishedGames;
+    private int errors;
+
+    /**
+     * @param host адрес сервера.
+     * @param port порт сервера.
+     * @param botName название бота, против которого играть.
+     */
+    public GameClient(String host, int port, String botName) {
+        this.host = host;
+        this.port = port;
+        this.botName = botName;
+    }
+
+    /**
+     * Играет партии и ждёт, пока все соединения их доиграют.
+     * @param connectionsAmount количество одновременных соединений.
+     * @param gamesPerConnection количество партий в каждом соединении.
+     * @return количество доигранных партий.
+     * @throws IOException если соединения не удалось открыть.
+     */
+    public int run(int connectionsAmount, int gamesPerConnection) throws IOException {
+        try (Selector selector = Selector.open()) {
+            for (int i = 0; i < connectionsAmount; ++i) {
+                SocketChannel channel = SocketChannel.open(new InetSocketAddress(host, port));
+                channel.configureBlocking(false);
+                channel.register(selector, SelectionKey.OP_READ,
+                        new ClientConnection(new LineConnection(channel), gamesPerConnection));
+            }
+
+            ArrayList<String> lines = new ArrayList<>();
+            int activeConnections = connectionsAmount;
+            while (activeConnections > 0) {
+                selector.select();
+                Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+                while (keys.hasNext()) {
+                    SelectionKey key = keys.next();
+                    keys.remove();
+                    ClientConnection client = (ClientConnection) key.attachment();
+                    lines.clear();
+                    boolean isOpen = client.connection.read(lines);
+                    for (String line : lines) {
+                        client.handleLine(line);
+                    }
+                    client.connection.flush();
+                    if (!isOpen || client.gamesLeft == 0) {
+                        key.cancel();
+                        client.connection.close();
+                        --activeConnections;
+                    }
+                }
+            }
+        }
+
+        return finishedGames;
+    }
+
+    public int getErrors() {
+        return errors;
+    }
+
+    /**
+     * Соединение, в котором играется несколько партий подряд.
+     */
+    private class ClientConnection {
+        private final LineConnection connection;
+        private int gamesLeft;
+        private boolean isWhite;
+
+        private ClientConnection(LineConnection connection, int gamesLeft) {
+            this.connection = connection;
+            this.gamesLeft = gamesLeft;
+        }
+
+        private void handleLine(String line) {
+            String[] parts = line.split(" ");
+            switch (parts[0]) {
+                case "HELLO" -> startGame();
+                case "YOUR_MOVE" -> connection.send("MOVE " + parts[1 + random.nextInt(parts.length - 1)]);
+                case "END" -> {
+                    ++finishedGames;
+                    if (--gamesLeft > 0) {
+                        startGame();
+                    } else {
+                        connection.send("QUIT");
+                    }
+                }
+                case "ERROR" -> ++errors;
+                default -> { }
+            }
+        }
+
+        private void startGame() {
+            connection.send("NEW " + botName + " " + (isWhite ? "white" : "black"));
+            isWhite = !isWhite;
+        }
+    }
+
+    /**
+     * Аргументы: адрес, порт, количество соединений, количество партий в соединении и название бота.
+     */
+    public static void main(String[] args) throws IOException {
+        String host = args.length > 0 ? args[0] : "localhost";
+        int port = args.length > 1 ? Integer.parseInt(args[1]) : GameServer.DEFAULT_PORT;
+        int connectionsAmount = args.length > 2 ? Integer.parseInt(args[2]) : 100;
+        int gamesPerConnection = args.length > 3 ? Integer.parseInt(args[3]) : 1;
+        String botName = args.length > 4 ? args[4] : GameServer.DEFAULT_BOT;
+
+        GameClient client = new GameClient(host, port, botName);
+        long start = System.nanoTime();
+        int games = client.run(connectionsAmount, gamesPerConnection);
+        double seconds = (System.nanoTime() - start) / 1e9;
+        System.out.printf("%d games in %.1f s (%.1f games/s), %d errors%n", games, seconds, games / seconds,
+                client.getErrors());
+    }
+}
@@ -0,0 +1,66 @@
+import java.util.Arrays;
+
+/**
+ * Запись сыгранной партии: размер доски, ходы по порядку и итоговый счёт.
+ * Пропуски ходов не записываются: при воспроизведении игрок, у которого нет ходов, пропускает ход сам.
+ * Партия всегда начинается с начальной позиции {@link Board#initialize()} ходом чёрных.
+ * @see GameRecordWriter формат файла
+ */
+public class GameRecord {
+    private final int size;
+    private final int[] steps;
+    private final int blackScore;
+    private final int whiteScore;
+
+    /**
+     * Конструирует запись партии.
+     * @param size размер доски.
+     * @param steps индексы клеток {@code y * size + x} в порядке ходов. Копируются.
+     * @param stepsAmount количество ходов.
+     * @param blackScore количество чёрных фишек в конце партии.
+     * @param whiteScore количество белых фишек в конце партии.
+     */
+    public GameRecord(int size, int[] steps, int stepsAmount, int blackScore, int whiteScore) {
+        this.size = size;
+        this.steps = Arrays.copyOf(steps, stepsAmount);
+        this.blackScore = blackScore;
+        this.whiteScore = whiteScore;
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    public int getStepsAmount() {
+        return steps.length;
+    }
+
+    /**
+     * Возвращает ход партии.
+     * @param index номер хода, начиная с {@code 0}.
+     * @return индекс клетки {@code y * size + x}.
+     */
+    public int getStep(int index) {
+        return steps[index];
+    }
+
+    public int getBlackScore() {
+        return blackScore;
+    }
+
+    public int getWhiteScore() {
+        return whiteScore;
+    }
+
+    /**
+     * Восстанавливает позицию после заданного количества ходов.
+     * @param stepsAmount количество ходов от начала партии.
+     * @return новая доска с позицией.
+     * @see GameReplayer пошаговое воспроизведение всей партии
+     */
+    public Board replay(int stepsAmount) {
+        GameReplayer replayer = new GameReplayer(this);
+        replayer.seek(stepsAmount);
+        return replayer.getBoard();
+    }
+}
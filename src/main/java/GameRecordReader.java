@@ -0,0 +1,98 @@
+import java.io.BufferedInputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.function.Consumer;
+
+/**
+ * Последовательно читает записи партий из файла в формате {@link GameRecordWriter}.
+ * Файл читается потоком через буфер, поэтому размер файла не ограничен памятью.
+ */
+public class GameRecordReader implements Closeable {
+    private final DataInputStream in;
+    private int[] stepsBuffer = new int[BitBoard.SIZE * BitBoard.SIZE];
+    private byte[] bytesBuffer = new byte[2 * BitBoard.SIZE * BitBoard.SIZE];
+
+    private GameRecordReader(DataInputStream in) {
+        this.in = in;
+    }
+
+    /**
+     * Открывает файл записей партий и проверяет его заголовок.
+     * @param path путь к файлу.
+     * @return объект для чтения партий.
+     * @throws IOException если файл не удалось открыть или это не файл записей партий.
+     */
+    public static GameRecordReader open(Path path) throws IOException {
+        var in = new DataInputStream(new BufferedInputStream(Files.newInputStream(path), 1 << 16));
+        try {
+            GameRecordWriter.checkHeader(in);
+        } catch (IOException e) {
+            in.close();
+            throw e;
+        }
+        return new GameRecordReader(in);
+    }
+
+    /**
+     * Читает все партии из файла.
+     * @param path путь к файлу.
+     * @param consumer обработчик, который вызывается для каждой партии по порядку.
+     * @return количество прочитанных партий.
+     * @throws IOException если файл не удалось прочитать или он повреждён.
+     */
+    public static long readAll(Path path, Consumer<GameRecord> consumer) throws IOException {
+        long recordsAmount = 0;
+        try (GameRecordReader reader = open(path)) {
+            GameRecord record;
+            while ((record = reader.read()) != null) {
+                consumer.accept(record);
+                ++recordsAmount;
+            }
+        }
+        return recordsAmount;
+    }
+
+    /**
+     * Читает следующую партию.
+     * @return запись партии или {@code null}, если файл закончился.
+     * @throws IOException если файл не удалось прочитать или последняя запись обрезана.
+     */
+    public GameRecord read() throws IOException {
+        int size = in.read();
+        if (size < 0) {
+            return null;
+        }
+
+        try {
+            int stepsAmount = in.readUnsignedShort();
+            int blackScore = in.readUnsignedShort();
+            int whiteScore = in.readUnsignedShort();
+            int stepBytes = size <= GameRecordWriter.MAX_BYTE_STEP_SIZE ? 1 : 2;
+            if (stepsAmount > stepsBuffer.length) {
+                stepsBuffer = new int[stepsAmount];
+            }
+            if (stepsAmount * stepBytes > bytesBuffer.length) {
+                bytesBuffer = new byte[stepsAmount * stepBytes];
+            }
+
+            // Ходы читаются одним вызовом, а не побайтно через DataInputStream.
+            in.readFully(bytesBuffer, 0, stepsAmount * stepBytes);
+            for (int i = 0; i < stepsAmount; ++i) {
+                stepsBuffer[i] = stepBytes == 1 ? bytesBuffer[i] & 0xff
+                        : ((bytesBuffer[2 * i] & 0xff) << 8) | (bytesBuffer[2 * i + 1] & 0xff);
+            }
+            return new GameRecord(size, stepsBuffer, stepsAmount, blackScore, whiteScore);
+        } catch (EOFException e) {
+            throw new IOException("Game record file is truncated", e);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        in.close();
+    }
+}
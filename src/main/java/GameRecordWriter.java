@@ -0,0 +1,109 @@
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Дописывает записи партий в конец файла.
+ * <p>
+ * Файл начинается с заголовка: сигнатура ({@code int}) и версия формата ({@code int}). Дальше записи партий
+ * подряд: размер доски ({@code byte}), количество ходов, чёрных и белых фишек в конце партии
+ * (по {@code short} без знака) и ходы — индексы клеток {@code y * size + x}, по одному байту на ход
+ * для досок до 16x16 и по два байта для досок больше. Пропуски ходов не записываются.
+ * Записи не выравниваются, поэтому партия на доске 8x8 из 60 ходов занимает 67 байт.
+ */
+public class GameRecordWriter implements Closeable {
+    static final int MAGIC = 0x52564752;
+    static final int VERSION = 1;
+    /**
+     * Наибольший размер доски, ходы на которой записываются одним байтом.
+     */
+    static final int MAX_BYTE_STEP_SIZE = 16;
+
+    private final DataOutputStream out;
+    private long recordsAmount;
+
+    private GameRecordWriter(DataOutputStream out) {
+        this.out = out;
+    }
+
+    /**
+     * Открывает файл для дописывания записей. Если файла нет или он пуст, записывается заголовок.
+     * @param path путь к файлу.
+     * @return объект для записи партий.
+     * @throws IOException если файл не удалось открыть или это не файл записей партий.
+     */
+    public static GameRecordWriter open(Path path) throws IOException {
+        boolean isNew = !Files.exists(path) || Files.size(path) == 0;
+        if (!isNew) {
+            try (var in = new DataInputStream(Files.newInputStream(path))) {
+                checkHeader(in);
+            }
+        }
+
+        var out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(path,
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND), 1 << 16));
+        if (isNew) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+        }
+        return new GameRecordWriter(out);
+    }
+
+    /**
+     * Проверяет заголовок файла записей партий.
+     * @param in поток, стоящий в начале файла.
+     * @throws IOException если заголовок неверный.
+     */
+    static void checkHeader(DataInputStream in) throws IOException {
+        if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+            throw new IOException("Not a game record file");
+        }
+    }
+
+    /**
+     * Возвращает количество партий, записанных через этот объект.
+     * @return количество партий.
+     */
+    public long getRecordsAmount() {
+        return recordsAmount;
+    }
+
+    /**
+     * Дописывает партию.
+     * @param record запись партии.
+     * @throws IOException если запись не удалась.
+     */
+    public void append(GameRecord record) throws IOException {
+        out.writeByte(record.getSize());
+        out.writeShort(record.getStepsAmount());
+        out.writeShort(record.getBlackScore());
+        out.writeShort(record.getWhiteScore());
+        boolean isByteStep = record.getSize() <= MAX_BYTE_STEP_SIZE;
+        for (int i = 0; i < record.getStepsAmount(); ++i) {
+            if (isByteStep) {
+                out.writeByte(record.getStep(i));
+            } else {
+                out.writeShort(record.getStep(i));
+            }
+        }
+        ++recordsAmount;
+    }
+
+    /**
+     * Сбрасывает буфер на диск, не закрывая файл.
+     * @throws IOException если запись не удалась.
+     */
+    public void flush() throws IOException {
+        out.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        out.close();
+    }
+}
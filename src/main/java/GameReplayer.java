@@ -0,0 +1,98 @@
+/**
+ * Пошаговое воспроизведение записанной партии на одной доске без истории ходов.
+ * Ходы делаются через {@link Board#makeStep(int, int, DiskColor)}, пропуски ходов определяются по позиции.
+ */
+public class GameReplayer {
+    private final GameRecord record;
+    private Board board;
+    private DiskColor diskColor;
+    private int stepIndex;
+
+    /**
+     * @param record запись партии. Воспроизведение начинается с начальной позиции.
+     */
+    public GameReplayer(GameRecord record) {
+        this.record = record;
+        reset();
+    }
+
+    /**
+     * Возвращает доску с текущей позицией. Доска меняется при следующих ходах.
+     * @return доска.
+     */
+    public Board getBoard() {
+        return board;
+    }
+
+    /**
+     * Возвращает цвет игрока, который делает следующий записанный ход. В конце партии —
+     * цвет противника игрока, сделавшего последний ход.
+     * @return цвет фишки.
+     */
+    public DiskColor getDiskColor() {
+        return diskColor;
+    }
+
+    /**
+     * Возвращает количество сделанных ходов.
+     * @return номер следующего хода.
+     */
+    public int getStepIndex() {
+        return stepIndex;
+    }
+
+    public boolean hasNextStep() {
+        return stepIndex < record.getStepsAmount();
+    }
+
+    /**
+     * Делает следующий записанный ход.
+     * @throws IllegalStateException если ходы закончились или ход невозможен в текущей позиции.
+     */
+    public void nextStep() {
+        if (!hasNextStep()) {
+            throw new IllegalStateException("Ходы партии закончились");
+        }
+
+        int size = board.getSize();
+        int square = record.getStep(stepIndex);
+        if (square < 0 || square >= size * size
+                || board.getCell(square % size, square / size).getDisk() != DiskColor.NONE) {
+            throw new IllegalStateException("Невозможный ход " + square + " в записи партии");
+        }
+        board.makeStep(square % size, square / size, diskColor);
+        ++stepIndex;
+        diskColor = diskColor.getOpposite();
+        skipPass();
+    }
+
+    /**
+     * Переходит к позиции после заданного количества ходов. Переход назад воспроизводит партию заново.
+     * @param stepsAmount количество ходов от начала партии.
+     */
+    public void seek(int stepsAmount) {
+        if (stepsAmount < stepIndex) {
+            reset();
+        }
+        int target = Math.min(stepsAmount, record.getStepsAmount());
+        while (stepIndex < target) {
+            nextStep();
+        }
+    }
+
+    private void reset() {
+        board = new Board(record.getSize(), false);
+        board.initialize();
+        diskColor = DiskColor.BLACK;
+        stepIndex = 0;
+    }
+
+    /**
+     * Передаёт ход противнику, если у текущего игрока нет ходов, а партия не окончена.
+     */
+    private void skipPass() {
+        if (hasNextStep() && !board.hasAvailableSteps(diskColor)) {
+            diskColor = diskColor.getOpposite();
+        }
+    }
+}
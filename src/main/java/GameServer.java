@@ -0,0 +1,465 @@
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.file.Path;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Сервер, на котором одновременно идёт много партий игроков против ботов.
+ * Все соединения обслуживает один поток с селектором, а ходы ботов считаются на пуле потоков
+ * ограниченного размера с ограниченной очередью. Пока бот думает, партию никто, кроме него, не трогает;
+ * готовый ход возвращается в поток селектора через очередь завершённых задач.
+ * <p>
+ * Протокол строковый, клетки записываются как в {@link StepNotation}:
+ * <pre>
+ * сервер: HELLO reversi 1
+ * клиент: NEW [бот [black|white [размер]]]   сервер: START &lt;цвет клиента&gt;
+ * сервер: YOUR_MOVE &lt;клетки через пробел&gt;  клиент: MOVE &lt;клетка&gt;
+ * сервер: BOT &lt;клетка&gt;                     — ход бота
+ * сервер: PASS &lt;цвет&gt;                      — игрок этого цвета пропускает ход
+ * сервер: END &lt;чёрные&gt; &lt;белые&gt;            — партия окончена, можно начать новую
+ * клиент: QUIT
+ * сервер: ERROR &lt;текст&gt;
+ * </pre>
+ * Названия ботов описаны в {@link BehaviourFactory}.
+ */
+public class GameServer implements Closeable {
+    public static final int DEFAULT_PORT = 5555;
+    public static final int DEFAULT_QUEUE_CAPACITY = 10_000;
+    public static final String DEFAULT_BOT = "hard";
+
+    private final Selector selector;
+    private final ServerSocketChannel serverChannel;
+    private final ThreadPoolExecutor computePool;
+    /**
+     * Боты каждого потока пула по названиям: поведения хранят состояние поиска и не потокобезопасны.
+     */
+    private final ThreadLocal<HashMap<String, Behaviour>> behaviours = ThreadLocal.withInitial(HashMap::new);
+    /**
+     * Все созданные боты всех потоков пула, чтобы закрыть их вместе с сервером.
+     */
+    private final ConcurrentLinkedQueue<Behaviour> createdBehaviours = new ConcurrentLinkedQueue<>();
+    /**
+     * Действия, которые потоки пула передают потоку селектора.
+     */
+    private final ConcurrentLinkedQueue<Runnable> completions = new ConcurrentLinkedQueue<>();
+    /**
+     * Партии, ход бота в которых не поместился в очередь пула.
+     */
+    private final ArrayDeque<Session> waitingSessions = new ArrayDeque<>();
+    /**
+     * Файл, в который записываются доигранные партии, или {@code null}, если партии не записываются.
+     * Используется только потоком селектора.
+     */
+    private GameRecordWriter recordWriter;
+    private volatile boolean isStopped;
+
+    /**
+     * Открывает серверный сокет.
+     * @param port порт или {@code 0}, чтобы выбрать свободный.
+     * @param computeThreads количество потоков для ходов ботов.
+     * @param queueCapacity наибольшее количество ходов ботов, ожидающих свободного потока.
+     * @throws IOException если сокет не удалось открыть.
+     */
+    public GameServer(int port, int computeThreads, int queueCapacity) throws IOException {
+        selector = Selector.open();
+        serverChannel = ServerSocketChannel.open();
+        serverChannel.bind(new InetSocketAddress(port), 1024);
+        serverChannel.configureBlocking(false);
+        serverChannel.register(selector, SelectionKey.OP_ACCEPT);
+        computePool = new ThreadPoolExecutor(computeThreads, computeThreads, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity));
+    }
+
+    /**
+     * Включает запись доигранных партий. Файл закрывается вместе с сервером.
+     * @param recordWriter файл для записи партий.
+     */
+    public void setRecordWriter(GameRecordWriter recordWriter) {
+        this.recordWriter = recordWriter;
+    }
+
+    public int getPort() {
+        return serverChannel.socket().getLocalPort();
+    }
+
+    /**
+     * Обслуживает соединения, пока не будет вызван {@link #stop()}.
+     * @throws IOException если селектор перестал работать.
+     */
+    public void run() throws IOException {
+        ArrayList<String> lines = new ArrayList<>();
+        while (!isStopped) {
+            selector.select();
+            runCompletions();
+
+            Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+            while (keys.hasNext()) {
+                SelectionKey key = keys.next();
+                keys.remove();
+                if (!key.isValid()) {
+                    continue;
+                }
+                if (key.isAcceptable()) {
+                    accept();
+                    continue;
+                }
+
+                Session session = (Session) key.attachment();
+                try {
+                    if (key.isReadable()) {
+                        lines.clear();
+                        boolean isOpen = session.connection.read(lines);
+                        for (int i = 0; i < lines.size() && !session.isClosed; ++i) {
+                            session.handleLine(lines.get(i));
+                        }
+                        if (!isOpen) {
+                            session.close();
+                        }
+                    }
+                    if (key.isValid() && key.isWritable()) {
+                        session.flush();
+                    }
+                } catch (IOException e) {
+                    session.close();
+                }
+            }
+        }
+    }
+
+    /**
+     * Останавливает обслуживание соединений. Метод можно вызывать из любого потока.
+     */
+    public void stop() {
+        isStopped = true;
+        selector.wakeup();
+    }
+
+    /**
+     * Останавливает пул потоков, закрывает ботов и все соединения.
+     * @throws IOException если сокет не удалось закрыть.
+     */
+    @Override
+    public void close() throws IOException {
+        computePool.shutdownNow();
+        createdBehaviours.forEach(Behaviour::close);
+        for (SelectionKey key : selector.keys()) {
+            key.channel().close();
+        }
+        selector.close();
+        if (recordWriter != null) {
+            recordWriter.close();
+        }
+    }
+
+    /**
+     * Принимает все ожидающие соединения. Ошибка одного соединения закрывает только его,
+     * а ошибка самого серверного сокета (например, кончились дескрипторы) откладывает приём
+     * до следующего выбора селектора.
+     */
+    private void accept() {
+        while (true) {
+            SocketChannel channel;
+            try {
+                channel = serverChannel.accept();
+            } catch (IOException e) {
+                System.err.println("Cannot accept connection: " + e.getMessage());
+                return;
+            }
+            if (channel == null) {
+                return;
+            }
+
+            try {
+                channel.configureBlocking(false);
+                channel.socket().setTcpNoDelay(true);
+                Session session = new Session(new LineConnection(channel));
+                session.key = channel.register(selector, SelectionKey.OP_READ, session);
+                session.send("HELLO reversi 1");
+            } catch (IOException e) {
+                try {
+                    channel.close();
+                } catch (IOException ignored) {
+                }
+            }
+        }
+    }
+
+    private void runCompletions() {
+        Runnable completion;
+        while ((completion = completions.poll()) != null) {
+            completion.run();
+        }
+        while (!waitingSessions.isEmpty() && submitBotStep(waitingSessions.peek())) {
+            waitingSessions.poll();
+        }
+    }
+
+    private Behaviour createBehaviour(String name) {
+        Behaviour behaviour = BehaviourFactory.create(name);
+        createdBehaviours.add(behaviour);
+        return behaviour;
+    }
+
+    /**
+     * Отдаёт ход бота пулу потоков.
+     * @return {@code false}, если очередь пула заполнена.
+     */
+    private boolean submitBotStep(Session session) {
+        Board board = session.board;
+        DiskColor diskColor = session.currentColor;
+        String botName = session.botName;
+        try {
+            computePool.execute(() -> {
+                Decision decision;
+                try {
+                    decision = behaviours.get().computeIfAbsent(botName, this::createBehaviour)
+                            .makeDecision(board, diskColor);
+                } catch (RuntimeException e) {
+                    decision = new Decision(Action.SKIP);
+                }
+                Decision botDecision = decision;
+                completions.add(() -> session.onBotDecision(botDecision));
+                selector.wakeup();
+            });
+            return true;
+        } catch (RejectedExecutionException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Соединение с игроком и партия, которую он играет.
+     */
+    private class Session {
+        private final LineConnection connection;
+        private final RemoteBehaviour remoteBehaviour = new RemoteBehaviour();
+        private SelectionKey key;
+        private Board board;
+        private String botName;
+        private DiskColor remoteColor;
+        private DiskColor currentColor;
+        /**
+         * Ходы текущей партии для записи в {@link #recordWriter}.
+         */
+        private int[] steps;
+        private int stepsAmount;
+        /**
+         * Ход бота отдан пулу потоков, и доска до его окончания принадлежит пулу.
+         */
+        private boolean isBotThinking;
+        private boolean isClosed;
+
+        private Session(LineConnection connection) {
+            this.connection = connection;
+        }
+
+        private void handleLine(String line) {
+            String[] parts = line.trim().split("\\s+");
+            switch (parts[0].toUpperCase()) {
+                case "NEW" -> startGame(parts);
+                case "MOVE" -> receiveStep(parts);
+                case "QUIT" -> close();
+                case "" -> { }
+                default -> send("ERROR unknown command " + parts[0]);
+            }
+        }
+
+        private void startGame(String[] parts) {
+            if (board != null) {
+                send("ERROR game in progress");
+                return;
+            }
+
+            String name = parts.length > 1 ? parts[1] : DEFAULT_BOT;
+            try {
+                BehaviourFactory.getFactory(name);
+            } catch (IllegalArgumentException e) {
+                send("ERROR unknown bot " + name);
+                return;
+            }
+            int size;
+            try {
+                size = parts.length > 3 ? Integer.parseInt(parts[3]) : BitBoard.SIZE;
+            } catch (NumberFormatException e) {
+                size = -1;
+            }
+            if (size < 4 || size > 26 || size % 2 != 0) {
+                send("ERROR bad board size");
+                return;
+            }
+
+            botName = name;
+            remoteColor = parts.length > 2 && parts[2].equalsIgnoreCase("white") ? DiskColor.WHITE : DiskColor.BLACK;
+            currentColor = DiskColor.BLACK;
+            board = new Board(size, false);
+            board.initialize();
+            steps = new int[size * size];
+            stepsAmount = 0;
+            send("START " + remoteColor.name().toLowerCase());
+            advance();
+        }
+
+        private void receiveStep(String[] parts) {
+            if (board == null || isBotThinking || currentColor != remoteColor) {
+                send("ERROR not your turn");
+                return;
+            }
+
+            int square = parts.length > 1 ? StepNotation.parse(parts[1], board.getSize()) : -1;
+            remoteBehaviour.receiveStep(Math.max(square, 0), board.getSize());
+            Decision decision = square < 0 ? new Decision(Action.SKIP)
+                    : new Player(remoteBehaviour, remoteColor).makeStep(board);
+            if (decision.getAction() != Action.STEP) {
+                send("ERROR illegal move");
+                return;
+            }
+
+            steps[stepsAmount++] = square;
+            currentColor = currentColor.getOpposite();
+            advance();
+        }
+
+        private void onBotDecision(Decision decision) {
+            isBotThinking = false;
+            if (isClosed) {
+                return;
+            }
+            if (decision.getAction() != Action.STEP) {
+                send("ERROR bot failed");
+                board = null;
+                return;
+            }
+
+            int square = decision.getCoordinateY() * board.getSize() + decision.getCoordinateX();
+            board.makeStep(decision.getCoordinateX(), decision.getCoordinateY(), currentColor);
+            steps[stepsAmount++] = square;
+            send("BOT " + StepNotation.format(square, board.getSize()));
+            currentColor = currentColor.getOpposite();
+            advance();
+        }
+
+        /**
+         * Продвигает партию до хода удалённого игрока, хода бота или конца партии.
+         */
+        private void advance() {
+            while (true) {
+                if (board.isFinalPosition() || (!board.hasAvailableSteps(currentColor)
+                        && !board.hasAvailableSteps(currentColor.getOpposite()))) {
+                    send("END " + board.getDiskAmount(DiskColor.BLACK) + " " + board.getDiskAmount(DiskColor.WHITE));
+                    record();
+                    board = null;
+                    return;
+                }
+                if (!board.hasAvailableSteps(currentColor)) {
+                    send("PASS " + currentColor.name().toLowerCase());
+                    currentColor = currentColor.getOpposite();
+                    continue;
+                }
+
+                if (currentColor == remoteColor) {
+                    int[] steps = new int[board.getSize() * board.getSize()];
+                    int stepsAmount = board.getAvailableSteps(currentColor, steps);
+                    StringBuilder message = new StringBuilder("YOUR_MOVE");
+                    for (int i = 0; i < stepsAmount; ++i) {
+                        message.append(' ').append(StepNotation.format(steps[i], board.getSize()));
+                    }
+                    send(message.toString());
+                } else {
+                    isBotThinking = true;
+                    if (!submitBotStep(this)) {
+                        waitingSessions.add(this);
+                    }
+                }
+                return;
+            }
+        }
+
+        private void record() {
+            if (recordWriter == null) {
+                return;
+            }
+            try {
+                recordWriter.append(new GameRecord(board.getSize(), steps, stepsAmount,
+                        board.getDiskAmount(DiskColor.BLACK), board.getDiskAmount(DiskColor.WHITE)));
+            } catch (IOException e) {
+                System.err.println("Cannot record game, recording is stopped: " + e.getMessage());
+                try {
+                    recordWriter.close();
+                } catch (IOException ignored) {
+                }
+                recordWriter = null;
+            }
+        }
+
+        private void send(String line) {
+            if (isClosed) {
+                return;
+            }
+            connection.send(line);
+            try {
+                flush();
+            } catch (IOException e) {
+                close();
+            }
+        }
+
+        private void flush() throws IOException {
+            boolean isFlushed = connection.flush();
+            if (key.isValid()) {
+                key.interestOps(isFlushed ? SelectionKey.OP_READ : SelectionKey.OP_READ | SelectionKey.OP_WRITE);
+            }
+        }
+
+        private void close() {
+            if (isClosed) {
+                return;
+            }
+            isClosed = true;
+            waitingSessions.remove(this);
+            key.cancel();
+            try {
+                connection.close();
+            } catch (IOException ignored) {
+            }
+        }
+    }
+
+    /**
+     * Аргументы: порт, количество потоков для ходов ботов, размер очереди ходов ботов
+     * и путь к файлу для записи партий.
+     */
+    public static void main(String[] args) throws IOException {
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_PORT;
+        int computeThreads = args.length > 1 ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+        int queueCapacity = args.length > 2 ? Integer.parseInt(args[2]) : DEFAULT_QUEUE_CAPACITY;
+        try (GameServer server = new GameServer(port, computeThreads, queueCapacity)) {
+            if (args.length > 3) {
+                server.setRecordWriter(GameRecordWriter.open(Path.of(args[3])));
+            }
+            // При остановке процесса сервер закрывается в основном потоке, чтобы дописать файл партий.
+            Thread mainThread = Thread.currentThread();
+            Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+                server.stop();
+                try {
+                    mainThread.join();
+                } catch (InterruptedException ignored) {
+                }
+            }));
+            System.out.println("Listening on port " + server.getPort());
+            server.run();
+        }
+    }
+}
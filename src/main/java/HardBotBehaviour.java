@@ -4,6 +4,34 @@ import java.util.Hashtable;
  * Класс, описывающий поведения бота уровня профессионала.
  */
 public class HardBotBehaviour extends EasyBotBehaviour implements Behaviour {
+    private final EndgameSolver endgameSolver = new EndgameSolver();
+    /**
+     * Количество пустых клеток, начиная с которого бот перебирает ходы до конца игры.
+     */
+    private final int endgameEmpties;
+
+    public HardBotBehaviour() {
+        this(EndgameSolver.DEFAULT_EMPTIES_THRESHOLD);
+    }
+
+    /**
+     * Конструирует бота, который переходит на точный перебор в конце игры.
+     * @param endgameEmpties количество пустых клеток, начиная с которого используется точный перебор.
+     */
+    public HardBotBehaviour(int endgameEmpties) {
+        this(endgameEmpties, null);
+    }
+
+    /**
+     * Конструирует бота, который на доске 8x8 сравнивает ходы по оценке позиции после лучшего ответа противника.
+     * @param endgameEmpties количество пустых клеток, начиная с которого используется точный перебор.
+     * @param evaluator оценка позиций по шаблонам или {@code null}.
+     */
+    public HardBotBehaviour(int endgameEmpties, PatternEvaluator evaluator) {
+        super(evaluator);
+        this.endgameEmpties = endgameEmpties;
+    }
+
     /**
      * Метод для принятия решения о следующем ходе для бота уровня профессионала.
      * @param board доска, на которой проходит игра.
@@ -13,8 +41,18 @@ public class HardBotBehaviour extends EasyBotBehaviour implements Behaviour {
      */
     @Override
     public Decision makeDecision(Board board, DiskColor diskColor) {
-        Board boardCopy = board.getBoardCopy();
-        boardCopy.setStepBackAllowed(true);
+        if (board.getSize() == BitBoard.SIZE && board.getEmptyAmount() <= endgameEmpties) {
+            int step = endgameSolver.findBestStep(board, diskColor);
+            if (step >= 0) {
+                return new Decision(Action.STEP, step % BitBoard.SIZE, step / BitBoard.SIZE);
+            }
+        }
+
+        if (isEvaluatorUsed(board)) {
+            return makeEvaluatedDecision(board, diskColor);
+        }
+
+        Board boardCopy = getBoardCopy(board);
 
         Hashtable<Cell, Double> rates = new Hashtable<>();
         var possibleSteps = board.getAvailableSteps(diskColor);
@@ -33,7 +71,7 @@ public class HardBotBehaviour extends EasyBotBehaviour implements Behaviour {
             }
 
             // Находим maxR_1(x_1, y_1)
-            Cell bestOtherStep = getCellWithMaxRate(otherRates);
+            Cell bestOtherStep = getCellWithMaxRate(boardCopy, otherRates);
             double otherMaxRate = bestOtherStep == null ? 0.0 : getRate(boardCopy, bestOtherStep, otherDiskColor);
 
             // Вычисляем для данного возможного шага R(x,y) - maxR_1(x_1, y_1)
@@ -44,9 +82,48 @@ public class HardBotBehaviour extends EasyBotBehaviour implements Behaviour {
             boardCopy.restorePreviousStep();
         }
 
-        Cell bestStep = getCellWithMaxRate(rates);
+        Cell bestStep = getCellWithMaxRate(board, rates);
         bestStep = bestStep == null ? possibleSteps.get(0) : bestStep;
 
         return new Decision(Action.STEP, bestStep.getPositionX(), bestStep.getPositionY());
     }
+
+    /**
+     * Выбирает ход, после которого оценка позиции при лучшем ответе противника максимальна.
+     * @param board доска, на которой проходит игра.
+     * @param diskColor цвет фишки, которой нужно совершить ход.
+     * @return объект-решение, которое было принято.
+     */
+    private Decision makeEvaluatedDecision(Board board, DiskColor diskColor) {
+        var possibleSteps = board.getAvailableSteps(diskColor);
+        if (possibleSteps.isEmpty()) {
+            return new Decision(Action.SKIP);
+        }
+
+        Board boardCopy = getBoardCopy(board);
+        DiskColor otherDiskColor = diskColor.getOpposite();
+        Cell bestStep = possibleSteps.get(0);
+        double maxRate = Double.NEGATIVE_INFINITY;
+        for (var step : possibleSteps) {
+            boardCopy.makeStep(step.getPositionX(), step.getPositionY(), diskColor);
+            double rate = evaluator.evaluate(boardCopy, diskColor);
+
+            // Противник выбирает ответ, после которого наша оценка минимальна.
+            var otherPossibleSteps = boardCopy.getAvailableSteps(otherDiskColor);
+            if (!otherPossibleSteps.isEmpty()) {
+                rate = Double.POSITIVE_INFINITY;
+                for (var otherStep : otherPossibleSteps) {
+                    rate = Math.min(rate, -getEvaluatedRate(boardCopy, otherStep, otherDiskColor));
+                }
+            }
+            boardCopy.restorePreviousStep();
+
+            if (rate > maxRate) {
+                bestStep = step;
+                maxRate = rate;
+            }
+        }
+
+        return new Decision(Action.STEP, bestStep.getPositionX(), bestStep.getPositionY());
+    }
 }
@@ -6,6 +6,25 @@ import java.util.Scanner;
  * Класс, который описывает поведение человека.
  */
 public class HumanBehaviour implements Behaviour {
+    /**
+     * Вывод подсказок и сообщений об ошибках ввода.
+     */
+    private final BoardRenderer renderer;
+
+    /**
+     * Конструирует поведение человека, которое пишет подсказки прямо в стандартный вывод.
+     */
+    public HumanBehaviour() {
+        this(new TextBoardRenderer(System.out));
+    }
+
+    /**
+     * @param renderer отрисовщик партии, через который выводятся подсказки, чтобы они не сдвигали доску.
+     */
+    public HumanBehaviour(BoardRenderer renderer) {
+        this.renderer = renderer;
+    }
+
     /**
      * Метод для принятия решения о следующем ходе для пользователя.
      * @param board доска, на которой проходит игра.
@@ -27,13 +46,13 @@ public class HumanBehaviour implements Behaviour {
         do {
             printAvailableSteps(possibleSteps);
             if (board.isRestoreAllowed()) {
-                System.out.println("To undo a step enter \"R\". To specify the cell," +
+                renderer.println("To undo a step enter \"R\". To specify the cell," +
                         " in which you want to put the disk, enter cell coordinates. Example: 5H.");
             }
             else {
-                System.out.println("Specify the cell in which you want to put the disk. Example: 5H.");
+                renderer.println("Specify the cell in which you want to put the disk. Example: 5H.");
             }
-            System.out.print(">> ");
+            renderer.prompt(">> ");
             String input;
             Scanner scanner = new Scanner(System.in);
 
@@ -42,10 +61,10 @@ public class HumanBehaviour implements Behaviour {
             try {
                 input = scanner.next(pattern).toLowerCase();
             } catch (NoSuchElementException ex) {
-                System.out.println("The cell was entered in the wrong format. Try again.");
+                renderer.println("The cell was entered in the wrong format. Try again.");
                 continue;
             } catch (IllegalStateException ex) {
-                System.out.println("Something goes wrong. Please, try again.");
+                renderer.println("Something goes wrong. Please, try again.");
                 continue;
             }
 
@@ -66,7 +85,7 @@ public class HumanBehaviour implements Behaviour {
             }
 
             if (!isCorrectStep) {
-                System.out.println("You cannot place a disk in this cell. Try to specify a different one.");
+                renderer.println("You cannot place a disk in this cell. Try to specify a different one.");
             }
         } while (!isCorrectStep);
 
@@ -86,6 +105,6 @@ public class HumanBehaviour implements Behaviour {
             representations.add(String.format("%c%c", y, x));
         }
         sb.append(String.join(", ", representations));
-        System.out.println(sb);
+        renderer.println(sb.toString());
     }
 }
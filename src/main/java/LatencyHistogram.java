@@ -0,0 +1,94 @@
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Гистограмма длительностей с корзинами по степеням двойки микросекунд. Запись не использует блокировок:
+ * каждая корзина — отдельный {@link LongAdder}, поэтому потоки, пишущие одновременно, почти не мешают
+ * друг другу. Процентили определяются с точностью до корзины, то есть до двух раз.
+ */
+public class LatencyHistogram {
+    private static final int BUCKETS_AMOUNT = 64;
+
+    /**
+     * Корзина {@code i} считает длительности от {@code 2^(i-1)} до {@code 2^i - 1} микросекунд,
+     * корзина {@code 0} — длительности меньше микросекунды.
+     */
+    private final LongAdder[] buckets = new LongAdder[BUCKETS_AMOUNT];
+    private final LongAdder count = new LongAdder();
+    private final LongAdder totalNanos = new LongAdder();
+    private final LongAccumulator maxNanos = new LongAccumulator(Math::max, 0);
+
+    public LatencyHistogram() {
+        for (int i = 0; i < BUCKETS_AMOUNT; ++i) {
+            buckets[i] = new LongAdder();
+        }
+    }
+
+    /**
+     * Записывает длительность.
+     * @param nanos длительность в наносекундах.
+     */
+    public void record(long nanos) {
+        long micros = Math.max(0, nanos / 1000);
+        buckets[Long.SIZE - Long.numberOfLeadingZeros(micros)].increment();
+        count.increment();
+        totalNanos.add(nanos);
+        maxNanos.accumulate(nanos);
+    }
+
+    public long getCount() {
+        return count.sum();
+    }
+
+    /**
+     * @return средняя длительность в микросекундах или {@code 0}, если записей нет.
+     */
+    public long getMeanMicros() {
+        long amount = count.sum();
+        return amount == 0 ? 0 : totalNanos.sum() / amount / 1000;
+    }
+
+    public long getMaxMicros() {
+        return maxNanos.get() / 1000;
+    }
+
+    /**
+     * Возвращает процентиль длительности.
+     * @param percentile процентиль от {@code 0} до {@code 100}.
+     * @return верхняя граница корзины, в которую попадает процентиль, в микросекундах,
+     *         или {@code 0}, если записей нет.
+     */
+    public long getPercentileMicros(double percentile) {
+        long[] counts = new long[BUCKETS_AMOUNT];
+        long amount = 0;
+        for (int i = 0; i < BUCKETS_AMOUNT; ++i) {
+            counts[i] = buckets[i].sum();
+            amount += counts[i];
+        }
+        if (amount == 0) {
+            return 0;
+        }
+
+        long rank = (long) Math.ceil(amount * percentile / 100);
+        long seen = 0;
+        for (int i = 0; i < BUCKETS_AMOUNT; ++i) {
+            seen += counts[i];
+            if (seen >= rank) {
+                return i == 0 ? 0 : Math.min((1L << i) - 1, getMaxMicros());
+            }
+        }
+        return getMaxMicros();
+    }
+
+    /**
+     * Обнуляет гистограмму. Записи, сделанные одновременно со сбросом, могут учесться частично.
+     */
+    public void reset() {
+        for (LongAdder bucket : buckets) {
+            bucket.reset();
+        }
+        count.reset();
+        totalNanos.reset();
+        maxNanos.reset();
+    }
+}
@@ -0,0 +1,95 @@
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.List;
+
+/**
+ * Неблокирующее соединение, по которому передаются текстовые строки, завершённые символом {@code '\n'}.
+ * Входящие байты накапливаются, пока не соберётся строка; исходящие строки стоят в очереди,
+ * пока канал не сможет их принять. Объект используется только из потока селектора.
+ */
+public class LineConnection implements Closeable {
+    public static final int MAX_LINE_LENGTH = 1024;
+
+    private final SocketChannel channel;
+    private final ByteBuffer readBuffer = ByteBuffer.allocate(MAX_LINE_LENGTH);
+    private final StringBuilder line = new StringBuilder();
+    private final ArrayDeque<ByteBuffer> writeQueue = new ArrayDeque<>();
+
+    public LineConnection(SocketChannel channel) {
+        this.channel = channel;
+    }
+
+    public SocketChannel getChannel() {
+        return channel;
+    }
+
+    /**
+     * Читает доступные байты и добавляет в список полностью полученные строки без символов конца строки.
+     * @param lines список для полученных строк.
+     * @return {@code false}, если собеседник закрыл соединение.
+     * @throws IOException если чтение не удалось или строка длиннее {@link #MAX_LINE_LENGTH}.
+     */
+    public boolean read(List<String> lines) throws IOException {
+        int read;
+        while ((read = channel.read(readBuffer)) > 0) {
+            readBuffer.flip();
+            while (readBuffer.hasRemaining()) {
+                char symbol = (char) (readBuffer.get() & 0xff);
+                if (symbol == '\n') {
+                    int length = line.length();
+                    if (length > 0 && line.charAt(length - 1) == '\r') {
+                        line.setLength(length - 1);
+                    }
+                    lines.add(line.toString());
+                    line.setLength(0);
+                } else if (line.length() < MAX_LINE_LENGTH) {
+                    line.append(symbol);
+                } else {
+                    throw new IOException("Строка длиннее " + MAX_LINE_LENGTH + " символов");
+                }
+            }
+            readBuffer.clear();
+        }
+
+        return read >= 0;
+    }
+
+    /**
+     * Ставит строку в очередь на отправку. Строка отправится при следующем вызове {@link #flush()}.
+     * @param text строка без символа конца строки.
+     */
+    public void send(String text) {
+        writeQueue.add(ByteBuffer.wrap((text + '\n').getBytes(StandardCharsets.US_ASCII)));
+    }
+
+    /**
+     * Отправляет столько строк из очереди, сколько примет канал.
+     * @return {@code true}, если очередь опустела.
+     * @throws IOException если запись не удалась.
+     */
+    public boolean flush() throws IOException {
+        while (!writeQueue.isEmpty()) {
+            ByteBuffer buffer = writeQueue.peek();
+            channel.write(buffer);
+            if (buffer.hasRemaining()) {
+                return false;
+            }
+            writeQueue.poll();
+        }
+
+        return true;
+    }
+
+    public boolean hasPendingWrites() {
+        return !writeQueue.isEmpty();
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
@@ -1,6 +1,43 @@
+import java.io.IOException;
+import java.util.Arrays;
+import javax.management.JMException;
+
 public class Main {
-    public static void main(String[] args) {
-        ReversiGame game = new ReversiGame();
+    public static void main(String[] args) throws IOException {
+        if (Metrics.ENABLED) {
+            try {
+                Metrics.register();
+            } catch (JMException e) {
+                System.err.println("Cannot register metrics MBean: " + e.getMessage());
+            }
+            Metrics.startDump(System.err, Long.getLong(Metrics.ENABLED_PROPERTY + ".period", 60));
+        }
+
+        if (args.length > 0 && args[0].equals("tournament")) {
+            Tournament.main(Arrays.copyOfRange(args, 1, args.length));
+            return;
+        }
+        if (args.length > 0 && args[0].equals("analyze")) {
+            BatchAnalyzer.main(Arrays.copyOfRange(args, 1, args.length));
+            return;
+        }
+        if (args.length > 0 && args[0].equals("selfplay")) {
+            SelfPlayGenerator.main(Arrays.copyOfRange(args, 1, args.length));
+            return;
+        }
+        if (args.length > 0 && args[0].equals("tune")) {
+            EvaluationTuner.main(Arrays.copyOfRange(args, 1, args.length));
+            return;
+        }
+        if (args.length > 0 && args[0].equals("server")) {
+            GameServer.main(Arrays.copyOfRange(args, 1, args.length));
+            return;
+        }
+
+        // Режим вывода: text, ansi или none (см. BoardRenderer.create) и контроль времени ход[:партия]
+        // в секундах (см. TimeControl.parse).
+        ReversiGame game = new ReversiGame(BoardRenderer.create(args.length > 0 ? args[0] : "text"),
+                TimeControl.parse(args.length > 1 ? args[1] : "0"));
         game.run();
     }
 }
@@ -0,0 +1,535 @@
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.ArrayList;
+import java.util.SplittableRandom;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Бот, который выбирает ход поиском по дереву методом Монте-Карло (MCTS) с формулой UCT.
+ * Позиции в узлах и случайные доигрывания используют битовое представление {@link BitBoard},
+ * поэтому доигрывание не создаёт объектов; на досках другого размера решение принимает
+ * {@link HardBotBehaviour}.
+ * <p>
+ * Дерево общее для всех потоков поиска (tree parallelism). Счётчики узла — количество посещений
+ * и сумма результатов — упакованы в одно {@code long} и меняются атомарным сложением без блокировок.
+ * Проходя узел, поток добавляет ему виртуальный проигрыш, чтобы другие потоки выбирали иные ветви,
+ * и снимает его, когда записывает настоящий результат.
+ * <p>
+ * После хода дерево сохраняется: в следующем решении корнем становится узел текущей позиции,
+ * если он есть в дереве, и накопленная статистика продолжает использоваться.
+ */
+public class MctsBotBehaviour implements Behaviour {
+    public static final long DEFAULT_TIME_BUDGET_MILLIS = 1000;
+
+    /**
+     * Коэффициент исследования в формуле UCT для результатов от {@code 0} до {@code 1}.
+     */
+    private static final double EXPLORATION = 1.0;
+    private static final int VIRTUAL_LOSS = 3;
+    /**
+     * Сколько раз нужно посетить лист, чтобы создать его потомков.
+     */
+    private static final int EXPANSION_VISITS = 2;
+    /**
+     * Наибольшее количество узлов дерева; после него листья только доигрываются.
+     */
+    private static final long MAX_NODES = 2_000_000;
+    /**
+     * Результат доигрывания: выигрыш, ничья и проигрыш записываются как {@code 2}, {@code 1} и {@code 0}.
+     */
+    private static final int WIN = 2;
+    /**
+     * Глубина пути в дереве: ходов не больше, чем клеток, и между ходами бывает не больше одного паса.
+     */
+    private static final int MAX_PATH = 2 * BitBoard.SIZE * BitBoard.SIZE + 2;
+    /**
+     * Через сколько доигрываний поток проверяет, не истекло ли время. Должно быть степенью двойки.
+     */
+    private static final int TIME_CHECK_INTERVAL = 64;
+    /**
+     * Через сколько доигрываний решение в фоне сообщает о лучшем ходе. Должно быть степенью двойки.
+     */
+    private static final int PUBLISH_INTERVAL = 1024;
+
+    private final long timeBudgetMillis;
+    private final long maxPlayouts;
+    private final int threadsAmount;
+    /**
+     * Пул потоков для параллельного поиска или {@code null}, если поиск однопоточный.
+     */
+    private final ForkJoinPool pool;
+    private final Behaviour fallback = new HardBotBehaviour();
+    private final AtomicLong playouts = new AtomicLong();
+    private final AtomicLong nodesAmount = new AtomicLong();
+    private Node root;
+    private long reusedVisits;
+    private long deadline;
+    /**
+     * Флаг остановки текущего поиска. У каждого решения свой флаг, поэтому отмена одного решения
+     * не задевает следующее.
+     */
+    private AtomicBoolean stopFlag;
+    /**
+     * Решение в фоне, о лучшем ходе которого сообщает поиск, или {@code null}.
+     */
+    private DecisionHandle handle;
+    /**
+     * Поток для решений в фоне; создаётся при первом использовании.
+     */
+    private ExecutorService executor;
+    /**
+     * Текущее решение в фоне или {@code null}, если его нет.
+     */
+    private Future<?> backgroundTask;
+    /**
+     * Флаг остановки поиска в {@link #backgroundTask}.
+     */
+    private AtomicBoolean backgroundStopFlag;
+
+    public MctsBotBehaviour() {
+        this(DEFAULT_TIME_BUDGET_MILLIS, 1);
+    }
+
+    /**
+     * @param timeBudgetMillis время на выбор хода в миллисекундах.
+     * @param threadsAmount количество потоков поиска.
+     */
+    public MctsBotBehaviour(long timeBudgetMillis, int threadsAmount) {
+        this(timeBudgetMillis, Long.MAX_VALUE, threadsAmount);
+    }
+
+    /**
+     * @param timeBudgetMillis время на выбор хода в миллисекундах.
+     * @param maxPlayouts наибольшее количество доигрываний на ход.
+     * @param threadsAmount количество потоков поиска.
+     */
+    public MctsBotBehaviour(long timeBudgetMillis, long maxPlayouts, int threadsAmount) {
+        this.timeBudgetMillis = timeBudgetMillis;
+        this.maxPlayouts = maxPlayouts;
+        this.threadsAmount = Math.max(1, threadsAmount);
+        pool = this.threadsAmount > 1 ? new ForkJoinPool(this.threadsAmount) : null;
+    }
+
+    /**
+     * Возвращает количество доигрываний при последнем решении.
+     * @return количество доигрываний.
+     */
+    public long getPlayouts() {
+        return playouts.get();
+    }
+
+    /**
+     * Возвращает количество посещений корня до начала последнего решения, то есть сколько
+     * доигрываний досталось от предыдущих ходов.
+     * @return количество унаследованных посещений.
+     */
+    public long getReusedVisits() {
+        return reusedVisits;
+    }
+
+    @Override
+    public Decision makeDecision(Board board, DiskColor diskColor) {
+        stopPondering();
+        if (board.getSize() != BitBoard.SIZE) {
+            return fallback.makeDecision(board, diskColor);
+        }
+        return decide(board, diskColor, Long.MAX_VALUE, null, new AtomicBoolean());
+    }
+
+    /**
+     * Ищет ход в фоновом потоке. Самый посещённый ход из корня периодически становится лучшим решением;
+     * отмена останавливает поиск.
+     * @param board доска, на которой проходит игра. Не изменяется.
+     * @param diskColor цвет фишки, которой нужно совершить ход.
+     * @param deadlineNanos момент, к которому нужно решение; поиск заканчивается не позже него.
+     * @return решение, принимаемое в фоне.
+     */
+    @Override
+    public DecisionHandle startDecision(Board board, DiskColor diskColor, long deadlineNanos) {
+        stopPondering();
+        if (board.getSize() != BitBoard.SIZE) {
+            return fallback.startDecision(board, diskColor, deadlineNanos);
+        }
+
+        AtomicBoolean stopFlag = new AtomicBoolean();
+        DecisionHandle handle = new DecisionHandle(DecisionHandle.getQuickDecision(board, diskColor),
+                () -> stopFlag.set(true));
+        Board boardCopy = board.getBoardCopy();
+        if (executor == null) {
+            executor = Executors.newSingleThreadExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "mcts-bot");
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+        backgroundStopFlag = stopFlag;
+        backgroundTask = executor.submit(() -> {
+            if (!handle.isDone()) {
+                handle.complete(decide(boardCopy, diskColor, deadlineNanos, handle, stopFlag));
+            }
+        });
+
+        return handle;
+    }
+
+    /**
+     * Останавливает отменённое решение в фоне, если оно ещё не закончилось, и ждёт окончания.
+     */
+    @Override
+    public void stopPondering() {
+        if (backgroundTask == null) {
+            return;
+        }
+
+        backgroundStopFlag.set(true);
+        boolean isInterrupted = false;
+        while (!backgroundTask.isDone()) {
+            try {
+                backgroundTask.get();
+            } catch (ExecutionException ignored) {
+            } catch (InterruptedException e) {
+                isInterrupted = true;
+            }
+        }
+        backgroundTask = null;
+        backgroundStopFlag = null;
+        if (isInterrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Останавливает поиск в фоне и потоки бота.
+     */
+    @Override
+    public void close() {
+        stopPondering();
+        if (executor != null) {
+            executor.shutdownNow();
+            executor = null;
+        }
+        if (pool != null) {
+            pool.shutdownNow();
+        }
+        fallback.close();
+    }
+
+    private Decision decide(Board board, DiskColor diskColor, long deadlineNanos, DecisionHandle handle,
+                            AtomicBoolean stopFlag) {
+        BitBoard bitBoard = BitBoard.fromBoard(board);
+        long player = bitBoard.getDisks(diskColor);
+        long opponent = bitBoard.getDisks(diskColor.getOpposite());
+        long moves = BitBoard.getMoves(player, opponent);
+        if (moves == 0) {
+            return new Decision(Action.SKIP);
+        }
+        if (Long.bitCount(moves) == 1) {
+            int square = Long.numberOfTrailingZeros(moves);
+            return new Decision(Action.STEP, square % BitBoard.SIZE, square / BitBoard.SIZE);
+        }
+
+        root = findReusableRoot(player, opponent);
+        reusedVisits = root.getVisits();
+        this.handle = handle;
+        this.stopFlag = stopFlag;
+        try {
+            search(deadlineNanos);
+        } finally {
+            this.handle = null;
+        }
+
+        Node best = getMostVisitedChild(root);
+        // Ход сделан, дальше нужно только поддерево выбранного хода.
+        root = best;
+        return toDecision(best);
+    }
+
+    private static Node getMostVisitedChild(Node node) {
+        Node best = null;
+        for (Node child : node.children) {
+            if (best == null || child.getVisits() > best.getVisits()) {
+                best = child;
+            }
+        }
+
+        return best;
+    }
+
+    private static Decision toDecision(Node node) {
+        return new Decision(Action.STEP, node.square % BitBoard.SIZE, node.square / BitBoard.SIZE);
+    }
+
+    /**
+     * Ищет узел позиции среди потомков сохранённого корня на глубине до двух полуходов и паса.
+     * @return найденный узел или новый корень.
+     */
+    private Node findReusableRoot(long player, long opponent) {
+        Node found = root == null ? null : findNode(root, player, opponent, 3);
+        if (found == null) {
+            nodesAmount.set(1);
+            return new Node(player, opponent, -1);
+        }
+
+        nodesAmount.set(countNodes(found));
+        return found;
+    }
+
+    private Node findNode(Node node, long player, long opponent, int depth) {
+        if (node.player == player && node.opponent == opponent) {
+            return node;
+        }
+        Node[] children = node.children;
+        if (depth == 0 || children == null) {
+            return null;
+        }
+        for (Node child : children) {
+            Node found = findNode(child, player, opponent, depth - 1);
+            if (found != null) {
+                return found;
+            }
+        }
+
+        return null;
+    }
+
+    private static long countNodes(Node node) {
+        long amount = 1;
+        Node[] children = node.children;
+        if (children != null) {
+            for (Node child : children) {
+                amount += countNodes(child);
+            }
+        }
+
+        return amount;
+    }
+
+    private void search(long deadlineNanos) {
+        deadline = Math.min(System.nanoTime() + timeBudgetMillis * 1_000_000, deadlineNanos);
+        playouts.set(0);
+        if (root.children == null) {
+            expand(root);
+        }
+
+        if (pool == null) {
+            new SearchWorker(0).call();
+        } else {
+            ArrayList<SearchWorker> workers = new ArrayList<>(threadsAmount);
+            for (int id = 0; id < threadsAmount; ++id) {
+                workers.add(new SearchWorker(id));
+            }
+            pool.invokeAll(workers);
+        }
+    }
+
+    /**
+     * Создаёт потомков узла, если этого ещё не сделал другой поток. Ходы упорядочены по приоритету клеток,
+     * чтобы из непосещённых первыми выбирались углы.
+     * @return потомки узла; пустой массив, если игра окончена.
+     */
+    private Node[] expand(Node node) {
+        Node[] children = node.children;
+        if (children != null) {
+            return children;
+        }
+
+        long moves = BitBoard.getMoves(node.player, node.opponent);
+        if (moves == 0) {
+            children = BitBoard.getMoves(node.opponent, node.player) == 0 ? new Node[0]
+                    : new Node[] {new Node(node.opponent, node.player, -1)};
+        } else {
+            int[] priorities = MoveOrdering.getSquarePriorities(BitBoard.SIZE);
+            children = new Node[Long.bitCount(moves)];
+            int count = 0;
+            for (int priority = 4; priority >= 0; --priority) {
+                for (long rest = moves; rest != 0; rest &= rest - 1) {
+                    int square = Long.numberOfTrailingZeros(rest);
+                    if (priorities[square] == priority) {
+                        long flips = BitBoard.getFlips(square, node.player, node.opponent);
+                        children[count++] = new Node(node.opponent & ~flips, node.player | flips | (1L << square),
+                                square);
+                    }
+                }
+            }
+        }
+
+        if (Node.CHILDREN.compareAndSet(node, null, children)) {
+            nodesAmount.addAndGet(children.length);
+            return children;
+        }
+        return node.children;
+    }
+
+    /**
+     * Узел дерева: позиция с точки зрения игрока, который в ней ходит, и статистика с точки зрения
+     * игрока, который сделал ход в этот узел.
+     */
+    private static class Node {
+        private static final VarHandle STATS;
+        private static final VarHandle CHILDREN;
+
+        static {
+            try {
+                MethodHandles.Lookup lookup = MethodHandles.lookup();
+                STATS = lookup.findVarHandle(Node.class, "stats", long.class);
+                CHILDREN = lookup.findVarHandle(Node.class, "children", Node[].class);
+            } catch (ReflectiveOperationException e) {
+                throw new ExceptionInInitializerError(e);
+            }
+        }
+
+        private final long player;
+        private final long opponent;
+        /**
+         * Ход, который привёл в узел, или {@code -1} для паса и корня.
+         */
+        private final int square;
+        /**
+         * Количество посещений в старших 32 битах и сумма результатов в младших.
+         */
+        private volatile long stats;
+        private volatile Node[] children;
+
+        private Node(long player, long opponent, int square) {
+            this.player = player;
+            this.opponent = opponent;
+            this.square = square;
+        }
+
+        private int getVisits() {
+            return (int) (stats >>> 32);
+        }
+
+        private void add(int visits, int score) {
+            STATS.getAndAdd(this, ((long) visits << 32) + score);
+        }
+    }
+
+    /**
+     * Поток поиска со своим генератором случайных чисел и буфером пути.
+     */
+    private class SearchWorker implements Callable<Void> {
+        private final int id;
+        private final SplittableRandom random;
+        private final Node[] path = new Node[MAX_PATH];
+
+        private SearchWorker(int id) {
+            this.id = id;
+            random = new SplittableRandom(System.nanoTime() + id);
+        }
+
+        @Override
+        public Void call() {
+            while (!stopFlag.get()) {
+                long playout = playouts.incrementAndGet();
+                if (playout > maxPlayouts
+                        || ((playout & (TIME_CHECK_INTERVAL - 1)) == 0 && System.nanoTime() > deadline)) {
+                    stopFlag.set(true);
+                    break;
+                }
+                iterate();
+                if (handle != null && id == 0 && (playout & (PUBLISH_INTERVAL - 1)) == 0) {
+                    handle.update(toDecision(getMostVisitedChild(root)));
+                }
+            }
+
+            return null;
+        }
+
+        /**
+         * Спускается по дереву, доигрывает лист и записывает результат во все узлы пути.
+         */
+        private void iterate() {
+            Node node = root;
+            int length = 0;
+            path[length++] = node;
+            while (true) {
+                Node[] children = node.children;
+                if (children == null) {
+                    if (node.getVisits() < EXPANSION_VISITS || nodesAmount.get() >= MAX_NODES) {
+                        break;
+                    }
+                    children = expand(node);
+                }
+                if (children.length == 0) {
+                    break;
+                }
+                node = select(node, children);
+                node.add(VIRTUAL_LOSS, 0);
+                path[length++] = node;
+            }
+
+            // Результат для игрока, который сделал ход в последний узел пути.
+            int score = WIN - playout(node.player, node.opponent);
+            for (int i = length - 1; i > 0; --i) {
+                path[i].add(1 - VIRTUAL_LOSS, score);
+                score = WIN - score;
+            }
+            root.add(1, score);
+        }
+
+        private Node select(Node parent, Node[] children) {
+            double logVisits = Math.log(Math.max(1, parent.getVisits()));
+            Node best = children[0];
+            double bestValue = Double.NEGATIVE_INFINITY;
+            for (Node child : children) {
+                long stats = child.stats;
+                int visits = (int) (stats >>> 32);
+                if (visits == 0) {
+                    return child;
+                }
+                double value = (int) stats / (double) (WIN * visits) + EXPLORATION * Math.sqrt(logVisits / visits);
+                if (value > bestValue) {
+                    bestValue = value;
+                    best = child;
+                }
+            }
+
+            return best;
+        }
+
+        /**
+         * Доигрывает партию случайными ходами без создания объектов.
+         * @return {@link #WIN}, {@code 1} или {@code 0} — результат для игрока, который ходит первым.
+         */
+        private int playout(long player, long opponent) {
+            boolean isSwapped = false;
+            boolean isPassed = false;
+            while (true) {
+                long moves = BitBoard.getMoves(player, opponent);
+                if (moves == 0) {
+                    if (isPassed) {
+                        break;
+                    }
+                    isPassed = true;
+                } else {
+                    isPassed = false;
+                    for (int skip = random.nextInt(Long.bitCount(moves)); skip > 0; --skip) {
+                        moves &= moves - 1;
+                    }
+                    int square = Long.numberOfTrailingZeros(moves);
+                    long flips = BitBoard.getFlips(square, player, opponent);
+                    player |= flips | (1L << square);
+                    opponent &= ~flips;
+                }
+                long swap = player;
+                player = opponent;
+                opponent = swap;
+                isSwapped = !isSwapped;
+            }
+
+            int difference = Long.bitCount(player) - Long.bitCount(opponent);
+            if (isSwapped) {
+                difference = -difference;
+            }
+            return difference > 0 ? WIN : difference == 0 ? 1 : 0;
+        }
+    }
+}
@@ -4,6 +4,7 @@
 public enum MenuAction {
     PLAY_EASY_BOT,
     PLAY_HARD_BOT,
+    PLAY_EXPERT_BOT,
     PLAY_HUMAN,
     PRINT_BEST_SCORE,
     EXIT
@@ -0,0 +1,70 @@
+import java.lang.management.ManagementFactory;
+
+/**
+ * Поведение-обёртка, которое записывает в {@link Metrics} время каждого решения и память,
+ * выделенную за это время потоком, который принимал решение. Память, выделенная вспомогательными
+ * потоками многопоточного перебора, не учитывается.
+ */
+public class MeteredBehaviour implements Behaviour {
+    /**
+     * Расширение HotSpot для измерения выделенной памяти или {@code null}, если оно недоступно.
+     */
+    private static final com.sun.management.ThreadMXBean THREADS = getThreadBean();
+
+    private final Behaviour behaviour;
+
+    /**
+     * @param behaviour поведение, решения которого измеряются.
+     */
+    public MeteredBehaviour(Behaviour behaviour) {
+        this.behaviour = behaviour;
+    }
+
+    @Override
+    public Decision makeDecision(Board board, DiskColor diskColor) {
+        long allocatedBefore = THREADS == null ? -1 : THREADS.getCurrentThreadAllocatedBytes();
+        long start = System.nanoTime();
+        Decision decision = behaviour.makeDecision(board, diskColor);
+        long nanos = System.nanoTime() - start;
+        long allocated = allocatedBefore < 0 ? -1 : THREADS.getCurrentThreadAllocatedBytes() - allocatedBefore;
+        Metrics.recordDecision(nanos, allocated);
+
+        return decision;
+    }
+
+    /**
+     * Записывает время от начала решения до его окончания или отмены. Память не измеряется:
+     * решение принимается в другом потоке.
+     */
+    @Override
+    public DecisionHandle startDecision(Board board, DiskColor diskColor, long deadlineNanos) {
+        long start = System.nanoTime();
+        DecisionHandle handle = behaviour.startDecision(board, diskColor, deadlineNanos);
+        handle.getFuture().thenRun(() -> Metrics.recordDecision(System.nanoTime() - start, -1));
+        return handle;
+    }
+
+    @Override
+    public void startPondering(Board board, DiskColor diskColor) {
+        behaviour.startPondering(board, diskColor);
+    }
+
+    @Override
+    public void stopPondering() {
+        behaviour.stopPondering();
+    }
+
+    @Override
+    public void close() {
+        behaviour.close();
+    }
+
+    private static com.sun.management.ThreadMXBean getThreadBean() {
+        if (ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean threads
+                && threads.isThreadAllocatedMemorySupported()) {
+            threads.setThreadAllocatedMemoryEnabled(true);
+            return threads;
+        }
+        return null;
+    }
+}
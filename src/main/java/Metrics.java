@@ -0,0 +1,211 @@
+import java.io.PrintStream;
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import javax.management.JMException;
+import javax.management.ObjectName;
+
+/**
+ * Показатели работы ботов: время и выделенная память на решение, узлы и глубина перебора,
+ * генерация ходов на доске и попадания в таблицу транспозиций.
+ * <p>
+ * Показатели собираются, только если JVM запущена со свойством {@code -Dreversi.metrics=true}.
+ * Флаг {@link #ENABLED} — константа, поэтому при выключенных показателях JIT убирает проверки
+ * из горячих методов доски и перебора целиком. Запись идёт в {@link LongAdder} без блокировок,
+ * чтобы измерение не замедляло то, что измеряется.
+ */
+public class Metrics implements MetricsMBean {
+    public static final String ENABLED_PROPERTY = "reversi.metrics";
+    public static final boolean ENABLED = Boolean.getBoolean(ENABLED_PROPERTY);
+    public static final String OBJECT_NAME = "reversi:type=Metrics";
+
+    private static final Metrics INSTANCE = new Metrics();
+
+    private final LatencyHistogram decisionLatency = new LatencyHistogram();
+    private final LongAdder allocatedBytes = new LongAdder();
+    private final LongAdder measuredAllocations = new LongAdder();
+    private final LongAdder searches = new LongAdder();
+    private final LongAdder searchNodes = new LongAdder();
+    private final LongAdder searchNanos = new LongAdder();
+    private final LongAdder searchDepths = new LongAdder();
+    private final LongAdder moveGenerations = new LongAdder();
+    private final LongAdder moveCacheHits = new LongAdder();
+    private final LongAdder tableProbes = new LongAdder();
+    private final LongAdder tableHits = new LongAdder();
+
+    private Metrics() {
+    }
+
+    public static Metrics getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Записывает решение бота.
+     * @param nanos время решения в наносекундах.
+     * @param allocatedBytes количество байт, выделенных потоком бота, или {@code -1}, если оно неизвестно.
+     */
+    public static void recordDecision(long nanos, long allocatedBytes) {
+        INSTANCE.decisionLatency.record(nanos);
+        if (allocatedBytes >= 0) {
+            INSTANCE.allocatedBytes.add(allocatedBytes);
+            INSTANCE.measuredAllocations.increment();
+        }
+    }
+
+    /**
+     * Записывает завершённый перебор.
+     * @param nodes количество узлов.
+     * @param depth глубина последней завершённой итерации.
+     * @param nanos время перебора в наносекундах.
+     */
+    public static void recordSearch(long nodes, int depth, long nanos) {
+        INSTANCE.searches.increment();
+        INSTANCE.searchNodes.add(nodes);
+        INSTANCE.searchNanos.add(nanos);
+        INSTANCE.searchDepths.add(depth);
+    }
+
+    /**
+     * Записывает запрос ходов у доски.
+     * @param isCached {@code true}, если ходы взяты из запомненных, а не вычислены заново.
+     */
+    public static void recordMoveGeneration(boolean isCached) {
+        (isCached ? INSTANCE.moveCacheHits : INSTANCE.moveGenerations).increment();
+    }
+
+    /**
+     * Записывает обращение к таблице транспозиций.
+     * @param isHit {@code true}, если позиция нашлась.
+     */
+    public static void recordTableProbe(boolean isHit) {
+        INSTANCE.tableProbes.increment();
+        if (isHit) {
+            INSTANCE.tableHits.increment();
+        }
+    }
+
+    /**
+     * Регистрирует показатели на платформенном сервере JMX под именем {@link #OBJECT_NAME}.
+     * @throws JMException если регистрация не удалась.
+     */
+    public static void register() throws JMException {
+        ObjectName name = new ObjectName(OBJECT_NAME);
+        var server = ManagementFactory.getPlatformMBeanServer();
+        if (!server.isRegistered(name)) {
+            server.registerMBean(INSTANCE, name);
+        }
+    }
+
+    /**
+     * Запускает периодический вывод показателей в фоновом потоке.
+     * @param out поток для вывода.
+     * @param periodSeconds период вывода в секундах.
+     */
+    public static void startDump(PrintStream out, long periodSeconds) {
+        ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "metrics-dump");
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.scheduleAtFixedRate(() -> out.println(INSTANCE), periodSeconds, periodSeconds, TimeUnit.SECONDS);
+    }
+
+    @Override
+    public long getDecisionsAmount() {
+        return decisionLatency.getCount();
+    }
+
+    @Override
+    public long getLatencyMeanMicros() {
+        return decisionLatency.getMeanMicros();
+    }
+
+    @Override
+    public long getLatencyP50Micros() {
+        return decisionLatency.getPercentileMicros(50);
+    }
+
+    @Override
+    public long getLatencyP90Micros() {
+        return decisionLatency.getPercentileMicros(90);
+    }
+
+    @Override
+    public long getLatencyP99Micros() {
+        return decisionLatency.getPercentileMicros(99);
+    }
+
+    @Override
+    public long getLatencyMaxMicros() {
+        return decisionLatency.getMaxMicros();
+    }
+
+    @Override
+    public long getAllocatedBytesPerDecision() {
+        long amount = measuredAllocations.sum();
+        return amount == 0 ? -1 : allocatedBytes.sum() / amount;
+    }
+
+    @Override
+    public long getSearchNodes() {
+        return searchNodes.sum();
+    }
+
+    @Override
+    public long getSearchNodesPerSecond() {
+        long nanos = searchNanos.sum();
+        return nanos == 0 ? 0 : (long) (searchNodes.sum() * 1e9 / nanos);
+    }
+
+    @Override
+    public double getSearchDepthMean() {
+        long amount = searches.sum();
+        return amount == 0 ? 0 : (double) searchDepths.sum() / amount;
+    }
+
+    @Override
+    public long getMoveGenerations() {
+        return moveGenerations.sum();
+    }
+
+    @Override
+    public double getMoveCacheHitRate() {
+        long hits = moveCacheHits.sum();
+        long total = hits + moveGenerations.sum();
+        return total == 0 ? 0 : (double) hits / total;
+    }
+
+    @Override
+    public long getTableProbes() {
+        return tableProbes.sum();
+    }
+
+    @Override
+    public double getTableHitRate() {
+        long probes = tableProbes.sum();
+        return probes == 0 ? 0 : (double) tableHits.sum() / probes;
+    }
+
+    @Override
+    public void reset() {
+        decisionLatency.reset();
+        for (LongAdder adder : new LongAdder[] {allocatedBytes, measuredAllocations, searches, searchNodes,
+                searchNanos, searchDepths, moveGenerations, moveCacheHits, tableProbes, tableHits}) {
+            adder.reset();
+        }
+    }
+
+    @Override
+    public String toString() {
+        return String.format("decisions %d, latency us mean %d p50 %d p90 %d p99 %d max %d, %d bytes/decision, "
+                        + "nodes %d (%d/s, depth %.1f), move generations %d (cache hits %.1f%%), "
+                        + "table probes %d (hits %.1f%%)",
+                getDecisionsAmount(), getLatencyMeanMicros(), getLatencyP50Micros(), getLatencyP90Micros(),
+                getLatencyP99Micros(), getLatencyMaxMicros(), getAllocatedBytesPerDecision(), getSearchNodes(),
+                getSearchNodesPerSecond(), getSearchDepthMean(), getMoveGenerations(), 100 * getMoveCacheHitRate(),
+                getTableProbes(), 100 * getTableHitRate());
+    }
+}
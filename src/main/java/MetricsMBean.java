@@ -0,0 +1,45 @@
+/**
+ * Показатели ботов, доступные через JMX.
+ * @see Metrics
+ */
+public interface MetricsMBean {
+    long getDecisionsAmount();
+
+    long getLatencyMeanMicros();
+
+    long getLatencyP50Micros();
+
+    long getLatencyP90Micros();
+
+    long getLatencyP99Micros();
+
+    long getLatencyMaxMicros();
+
+    /**
+     * @return среднее количество байт, выделенных потоком, который принимал решение, или {@code -1},
+     *         если JVM не умеет его измерять.
+     */
+    long getAllocatedBytesPerDecision();
+
+    long getSearchNodes();
+
+    long getSearchNodesPerSecond();
+
+    double getSearchDepthMean();
+
+    long getMoveGenerations();
+
+    /**
+     * @return доля запросов ходов, на которые доска ответила из запомненных ходов.
+     */
+    double getMoveCacheHitRate();
+
+    long getTableProbes();
+
+    double getTableHitRate();
+
+    /**
+     * Обнуляет все показатели.
+     */
+    void reset();
+}
@@ -0,0 +1,201 @@
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Упорядочивание ходов для перебора с альфа-бета отсечением: чем раньше рассмотрен лучший ход,
+ * тем больше ветвей отсекается. Ходы ранжируются так:
+ * <ol>
+ *     <li>лучший ход из таблицы транспозиций;</li>
+ *     <li>ходы-убийцы — два последних хода, вызвавших отсечение на том же расстоянии от корня;</li>
+ *     <li>остальные ходы по таблице истории (насколько часто ход вызывал отсечения в других позициях)
+ *     и по статическому приоритету клетки: углы первыми, клетки по диагонали от углов последними.</li>
+ * </ol>
+ * Объект хранит состояние одного перебора и не потокобезопасен: каждому потоку поиска нужен свой.
+ */
+public class MoveOrdering {
+    private static final int TABLE_STEP_KEY = Integer.MAX_VALUE;
+    private static final int FIRST_KILLER_KEY = 1 << 29;
+    private static final int SECOND_KILLER_KEY = FIRST_KILLER_KEY - 1;
+    /**
+     * Вес приоритета клетки относительно значений таблицы истории.
+     */
+    private static final int PRIORITY_WEIGHT = 64;
+    /**
+     * При превышении этого значения таблица истории уменьшается вдвое, чтобы ключи не переполнялись.
+     */
+    private static final int HISTORY_LIMIT = 1 << 24;
+    private static final ConcurrentHashMap<Integer, int[]> PRIORITIES = new ConcurrentHashMap<>();
+
+    private final int size;
+    private final int maxPly;
+    private final int[] squarePriorities;
+    /**
+     * Два хода-убийцы для каждого расстояния от корня, {@code -1}, если хода нет.
+     */
+    private final int[][] killers;
+    /**
+     * Таблица истории для каждого цвета фишек.
+     */
+    private final int[][] history;
+    /**
+     * Буферы ключей сортировки для каждого расстояния от корня.
+     */
+    private final int[][] keys;
+
+    /**
+     * @param size размер доски.
+     * @param maxPly наибольшее расстояние от корня, на котором упорядочиваются ходы.
+     */
+    public MoveOrdering(int size, int maxPly) {
+        this.size = size;
+        this.maxPly = maxPly;
+        squarePriorities = getSquarePriorities(size);
+        killers = new int[maxPly + 1][2];
+        history = new int[2][size * size];
+        keys = new int[maxPly + 1][size * size];
+        for (int[] plyKillers : killers) {
+            Arrays.fill(plyKillers, -1);
+        }
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    public int getMaxPly() {
+        return maxPly;
+    }
+
+    /**
+     * Возвращает статические приоритеты клеток: {@code 4} — угол, {@code 3} — край доски,
+     * {@code 2} — внутренняя клетка, {@code 1} — клетка рядом с краем или край рядом с углом,
+     * {@code 0} — клетка по диагонали от угла.
+     * @param size размер доски.
+     * @return приоритеты клеток по индексам {@code y * size + x}; массив общий, изменять его нельзя.
+     */
+    public static int[] getSquarePriorities(int size) {
+        return PRIORITIES.computeIfAbsent(size, MoveOrdering::createSquarePriorities);
+    }
+
+    private static int[] createSquarePriorities(int size) {
+        int[] priorities = new int[size * size];
+        int last = size - 1;
+        for (int y = 0; y < size; ++y) {
+            for (int x = 0; x < size; ++x) {
+                // Расстояния до ближайшего края по горизонтали и по вертикали.
+                int edgeX = Math.min(x, last - x);
+                int edgeY = Math.min(y, last - y);
+                int priority;
+                if (edgeX == 0 && edgeY == 0) {
+                    priority = 4;
+                } else if (edgeX == 1 && edgeY == 1) {
+                    priority = 0;
+                } else if ((edgeX == 0 && edgeY == 1) || (edgeX == 1 && edgeY == 0)) {
+                    priority = 1;
+                } else if (edgeX == 0 || edgeY == 0) {
+                    priority = 3;
+                } else if (edgeX == 1 || edgeY == 1) {
+                    priority = 1;
+                } else {
+                    priority = 2;
+                }
+                priorities[y * size + x] = priority;
+            }
+        }
+
+        return priorities;
+    }
+
+    /**
+     * Готовит упорядочивание к новому перебору: забывает ходы-убийцы и уменьшает вдвое таблицу истории,
+     * чтобы опыт прошлых позиций влиял, но не преобладал.
+     */
+    public void startSearch() {
+        for (int[] plyKillers : killers) {
+            Arrays.fill(plyKillers, -1);
+        }
+        ageHistory();
+    }
+
+    /**
+     * Сортирует ходы от лучшего к худшему. Ходы с одинаковым ключом сохраняют исходный порядок.
+     * @param steps ходы.
+     * @param count количество ходов.
+     * @param tableStep лучший ход из таблицы транспозиций или {@code -1}.
+     * @param ply расстояние от корня.
+     * @param diskColor цвет фишки, которой делается ход.
+     */
+    public void order(int[] steps, int count, int tableStep, int ply, DiskColor diskColor) {
+        int[] plyKeys = keys[ply];
+        int[] plyKillers = killers[ply];
+        int[] colorHistory = history[diskColor.ordinal()];
+        for (int i = 0; i < count; ++i) {
+            int step = steps[i];
+            if (step == tableStep) {
+                plyKeys[i] = TABLE_STEP_KEY;
+            } else if (step == plyKillers[0]) {
+                plyKeys[i] = FIRST_KILLER_KEY;
+            } else if (step == plyKillers[1]) {
+                plyKeys[i] = SECOND_KILLER_KEY;
+            } else {
+                plyKeys[i] = colorHistory[step] + PRIORITY_WEIGHT * squarePriorities[step];
+            }
+        }
+
+        // Ходов мало, поэтому сортировка вставками быстрее универсальной.
+        for (int i = 1; i < count; ++i) {
+            int step = steps[i];
+            int key = plyKeys[i];
+            int j = i - 1;
+            while (j >= 0 && plyKeys[j] < key) {
+                steps[j + 1] = steps[j];
+                plyKeys[j + 1] = plyKeys[j];
+                --j;
+            }
+            steps[j + 1] = step;
+            plyKeys[j + 1] = key;
+        }
+    }
+
+    /**
+     * Забывает всё, что накоплено прошлыми переборами: ходы-убийцы и таблицу истории.
+     * После этого порядок ходов зависит только от позиции.
+     */
+    public void clear() {
+        for (int[] plyKillers : killers) {
+            Arrays.fill(plyKillers, -1);
+        }
+        for (int[] colorHistory : history) {
+            Arrays.fill(colorHistory, 0);
+        }
+    }
+
+    /**
+     * Запоминает ход, который вызвал отсечение.
+     * @param step ход.
+     * @param ply расстояние от корня.
+     * @param depth оставшаяся глубина перебора: отсечения ближе к корню экономят больше.
+     * @param diskColor цвет фишки, которой сделан ход.
+     */
+    public void recordCutoff(int step, int ply, int depth, DiskColor diskColor) {
+        int[] plyKillers = killers[ply];
+        if (plyKillers[0] != step) {
+            plyKillers[1] = plyKillers[0];
+            plyKillers[0] = step;
+        }
+
+        int[] colorHistory = history[diskColor.ordinal()];
+        colorHistory[step] += depth * depth;
+        if (colorHistory[step] > HISTORY_LIMIT) {
+            ageHistory();
+        }
+    }
+
+    private void ageHistory() {
+        for (int[] colorHistory : history) {
+            for (int i = 0; i < colorHistory.length; ++i) {
+                colorHistory[i] >>= 1;
+            }
+        }
+    }
+}
@@ -0,0 +1,228 @@
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * Книга дебютов для доски 8x8, которая хранится в файле и отображается в память.
+ * <p>
+ * Позиция записывается с точки зрения игрока, который делает ход, и приводится к каноническому виду:
+ * из восьми симметричных вариантов выбирается наименьший. Файл содержит заголовок и записи по 16 байт,
+ * отсортированные по ключу канонической позиции: ключ ({@code long}), ход в канонической позиции
+ * ({@code byte}), глубина анализа ({@code byte}), два байта резерва и оценка хода ({@code int}).
+ * Записи не загружаются в память, поиск идёт двоичным поиском прямо по отображённому файлу.
+ */
+public class OpeningBook {
+    public static final String DEFAULT_PATH = "opening-book.bin";
+    /**
+     * Системное свойство, в котором можно указать путь к книге дебютов.
+     */
+    public static final String PATH_PROPERTY = "reversi.book";
+
+    private static final int MAGIC = 0x52564f42;
+    private static final int VERSION = 1;
+    private static final int HEADER_BYTES = 12;
+    private static final int ENTRY_BYTES = 16;
+
+    private final MappedByteBuffer buffer;
+    private final int entriesAmount;
+
+    private OpeningBook(MappedByteBuffer buffer) throws IOException {
+        if (buffer.capacity() < HEADER_BYTES || buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION) {
+            throw new IOException("Not an opening book file");
+        }
+        entriesAmount = buffer.getInt(8);
+        if ((long) HEADER_BYTES + (long) entriesAmount * ENTRY_BYTES > buffer.capacity()) {
+            throw new IOException("Opening book file is truncated");
+        }
+        this.buffer = buffer;
+    }
+
+    /**
+     * Открывает книгу дебютов.
+     * @param path путь к файлу книги.
+     * @return книга дебютов.
+     * @throws IOException если файл не удалось прочитать или он имеет неверный формат.
+     */
+    public static OpeningBook open(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            return new OpeningBook(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        }
+    }
+
+    /**
+     * Возвращает книгу дебютов по умолчанию из файла {@link #DEFAULT_PATH} или из файла,
+     * указанного в системном свойстве {@link #PATH_PROPERTY}.
+     * @return книга дебютов или {@code null}, если файла нет.
+     */
+    public static OpeningBook getDefault() {
+        return DefaultHolder.BOOK;
+    }
+
+    public int getEntriesAmount() {
+        return entriesAmount;
+    }
+
+    /**
+     * Ищет ход в книге дебютов.
+     * @param board доска размера {@link BitBoard#SIZE}.
+     * @param diskColor цвет фишки, которой нужно совершить ход.
+     * @return индекс клетки {@code y * 8 + x} с лучшей оценкой или {@code -1}, если позиции нет в книге.
+     */
+    public int findStep(Board board, DiskColor diskColor) {
+        if (board.getSize() != BitBoard.SIZE) {
+            return -1;
+        }
+
+        BitBoard bitBoard = BitBoard.fromBoard(board);
+        long player = bitBoard.getDisks(diskColor);
+        long opponent = bitBoard.getDisks(diskColor.getOpposite());
+        int symmetry = getCanonicalSymmetry(player, opponent);
+        long key = getKey(BitBoard.transform(player, symmetry), BitBoard.transform(opponent, symmetry));
+
+        int index = findFirstEntry(key);
+        if (index < 0) {
+            return -1;
+        }
+        int canonicalStep = -1;
+        int bestScore = Integer.MIN_VALUE;
+        for (; index < entriesAmount && getEntryKey(index) == key; ++index) {
+            int position = HEADER_BYTES + index * ENTRY_BYTES;
+            int score = buffer.getInt(position + 12);
+            if (score > bestScore) {
+                bestScore = score;
+                canonicalStep = buffer.get(position + 8);
+            }
+        }
+
+        // Переводим ход из канонической позиции обратно в позицию на доске.
+        long moves = BitBoard.getMoves(player, opponent);
+        while (moves != 0) {
+            int square = Long.numberOfTrailingZeros(moves);
+            moves &= moves - 1;
+            if (BitBoard.transform(1L << square, symmetry) == 1L << canonicalStep) {
+                return square;
+            }
+        }
+
+        return -1;
+    }
+
+    /**
+     * Находит первую запись с заданным ключом двоичным поиском.
+     * @param key ключ канонической позиции.
+     * @return номер записи или {@code -1}, если записи нет.
+     */
+    private int findFirstEntry(long key) {
+        int left = 0;
+        int right = entriesAmount;
+        while (left < right) {
+            int middle = (left + right) >>> 1;
+            if (getEntryKey(middle) < key) {
+                left = middle + 1;
+            } else {
+                right = middle;
+            }
+        }
+
+        return left < entriesAmount && getEntryKey(left) == key ? left : -1;
+    }
+
+    private long getEntryKey(int index) {
+        return buffer.getLong(HEADER_BYTES + index * ENTRY_BYTES);
+    }
+
+    /**
+     * Возвращает номер симметрии, которая переводит позицию в канонический вид.
+     * @param player фишки игрока, который делает ход.
+     * @param opponent фишки противника.
+     * @return номер симметрии для {@link BitBoard#transform(long, int)}.
+     */
+    public static int getCanonicalSymmetry(long player, long opponent) {
+        int bestSymmetry = 0;
+        long bestPlayer = player;
+        long bestOpponent = opponent;
+        for (int symmetry = 1; symmetry < 8; ++symmetry) {
+            long transformedPlayer = BitBoard.transform(player, symmetry);
+            long transformedOpponent = BitBoard.transform(opponent, symmetry);
+            int comparison = Long.compareUnsigned(transformedPlayer, bestPlayer);
+            if (comparison < 0 || (comparison == 0 && Long.compareUnsigned(transformedOpponent, bestOpponent) < 0)) {
+                bestSymmetry = symmetry;
+                bestPlayer = transformedPlayer;
+                bestOpponent = transformedOpponent;
+            }
+        }
+
+        return bestSymmetry;
+    }
+
+    /**
+     * Вычисляет ключ позиции.
+     * @param player фишки игрока, который делает ход.
+     * @param opponent фишки противника.
+     * @return ключ позиции.
+     */
+    public static long getKey(long player, long opponent) {
+        long key = player ^ Long.rotateLeft(opponent * 0x9e3779b97f4a7c15L, 32);
+        key = (key ^ (key >>> 33)) * 0xff51afd7ed558ccdL;
+        key = (key ^ (key >>> 33)) * 0xc4ceb9fe1a85ec53L;
+        return key ^ (key >>> 33);
+    }
+
+    /**
+     * Записывает книгу дебютов в файл. Записи сортируются по ключу.
+     * @param path путь к файлу.
+     * @param keys ключи канонических позиций.
+     * @param steps ходы в канонических позициях.
+     * @param depths глубины анализа.
+     * @param scores оценки ходов.
+     * @param amount количество записей.
+     * @throws IOException если файл не удалось записать.
+     */
+    public static void write(Path path, long[] keys, int[] steps, int[] depths, int[] scores, int amount)
+            throws IOException {
+        Integer[] order = new Integer[amount];
+        for (int i = 0; i < amount; ++i) {
+            order[i] = i;
+        }
+        Arrays.sort(order, (first, second) -> Long.compare(keys[first], keys[second]));
+
+        try (var out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(path)))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(amount);
+            for (int i : order) {
+                out.writeLong(keys[i]);
+                out.writeByte(steps[i]);
+                out.writeByte(Math.min(depths[i], 0xff));
+                out.writeShort(0);
+                out.writeInt(scores[i]);
+            }
+        }
+    }
+
+    /**
+     * Ленивая загрузка книги по умолчанию при первом обращении.
+     */
+    private static class DefaultHolder {
+        private static final OpeningBook BOOK = openDefault();
+
+        private static OpeningBook openDefault() {
+            Path path = Path.of(System.getProperty(PATH_PROPERTY, DEFAULT_PATH));
+            if (!Files.isRegularFile(path)) {
+                return null;
+            }
+            try {
+                return open(path);
+            } catch (IOException ex) {
+                System.err.println("Cannot open opening book " + path + ": " + ex.getMessage());
+                return null;
+            }
+        }
+    }
+}
@@ -0,0 +1,149 @@
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.HashSet;
+
+/**
+ * Программа для построения книги дебютов анализом перебором.
+ * Из начальной позиции оцениваются все ходы, после чего дерево продолжается лучшими ходами обеих сторон,
+ * пока не будет достигнута заданная глубина. Симметричные позиции и транспозиции анализируются один раз.
+ * Аргументы: путь к файлу книги, количество ходов от начала игры, глубина анализа и количество
+ * лучших ходов, которые продолжаются в каждой позиции.
+ */
+public class OpeningBookBuilder {
+    private static final long SEARCH_TIME_MILLIS = 600_000;
+
+    private final int maxPly;
+    private final int searchDepth;
+    private final int branching;
+    private final SearchEngine searchEngine;
+    private final HashSet<Long> visited = new HashSet<>();
+
+    private long[] keys = new long[1024];
+    private int[] steps = new int[1024];
+    private int[] depths = new int[1024];
+    private int[] scores = new int[1024];
+    private int amount = 0;
+
+    public OpeningBookBuilder(int maxPly, int searchDepth, int branching) {
+        this.maxPly = maxPly;
+        this.searchDepth = searchDepth;
+        this.branching = branching;
+        searchEngine = new SearchEngine(SEARCH_TIME_MILLIS, searchDepth, new TranspositionTable(),
+                Runtime.getRuntime().availableProcessors());
+    }
+
+    public static void main(String[] args) throws IOException {
+        Path path = Path.of(args.length > 0 ? args[0] : OpeningBook.DEFAULT_PATH);
+        int maxPly = args.length > 1 ? Integer.parseInt(args[1]) : 10;
+        int searchDepth = args.length > 2 ? Integer.parseInt(args[2]) : 8;
+        int branching = args.length > 3 ? Integer.parseInt(args[3]) : 2;
+
+        OpeningBookBuilder builder = new OpeningBookBuilder(maxPly, searchDepth, branching);
+        Board board = new Board(BitBoard.SIZE, true);
+        board.initialize();
+        builder.expand(board, DiskColor.BLACK, 0);
+        builder.write(path);
+        System.out.println("Opening book with " + builder.amount + " moves in " + builder.visited.size()
+                + " positions is written to " + path);
+    }
+
+    /**
+     * Оценивает все ходы в позиции и продолжает анализ лучшими из них.
+     * @param board доска с позицией.
+     * @param diskColor цвет фишки, которой нужно совершить ход.
+     * @param ply количество ходов от начала игры.
+     */
+    private void expand(Board board, DiskColor diskColor, int ply) {
+        if (ply >= maxPly) {
+            return;
+        }
+
+        var possibleSteps = board.getAvailableSteps(diskColor);
+        if (possibleSteps.isEmpty()) {
+            if (!board.getAvailableSteps(diskColor.getOpposite()).isEmpty()) {
+                expand(board, diskColor.getOpposite(), ply);
+            }
+            return;
+        }
+
+        BitBoard bitBoard = BitBoard.fromBoard(board);
+        long player = bitBoard.getDisks(diskColor);
+        long opponent = bitBoard.getDisks(diskColor.getOpposite());
+        int symmetry = OpeningBook.getCanonicalSymmetry(player, opponent);
+        long key = OpeningBook.getKey(BitBoard.transform(player, symmetry), BitBoard.transform(opponent, symmetry));
+        if (!visited.add(key)) {
+            return;
+        }
+
+        int[] stepScores = new int[possibleSteps.size()];
+        for (int i = 0; i < possibleSteps.size(); ++i) {
+            Cell step = possibleSteps.get(i);
+            board.makeStep(step.getPositionX(), step.getPositionY(), diskColor);
+            stepScores[i] = getScoreAfterStep(board, diskColor);
+            board.restorePreviousStep();
+
+            int square = step.getPositionY() * BitBoard.SIZE + step.getPositionX();
+            add(key, Long.numberOfTrailingZeros(BitBoard.transform(1L << square, symmetry)), stepScores[i]);
+        }
+
+        Integer[] order = new Integer[possibleSteps.size()];
+        for (int i = 0; i < order.length; ++i) {
+            order[i] = i;
+        }
+        Arrays.sort(order, (first, second) -> Integer.compare(stepScores[second], stepScores[first]));
+        for (int i = 0; i < Math.min(branching, order.length); ++i) {
+            Cell step = possibleSteps.get(order[i]);
+            board.makeStep(step.getPositionX(), step.getPositionY(), diskColor);
+            expand(board, diskColor.getOpposite(), ply + 1);
+            board.restorePreviousStep();
+        }
+    }
+
+    /**
+     * Оценивает позицию после хода перебором. Вынужденные ответы и пропуски хода разыгрываются сразу,
+     * потому что для позиции с единственным ходом поиск не считает оценку.
+     * @param board доска после хода.
+     * @param diskColor цвет фишки, которой был сделан ход.
+     * @return оценка хода с точки зрения игрока, который его сделал.
+     */
+    private int getScoreAfterStep(Board board, DiskColor diskColor) {
+        DiskColor otherDiskColor = diskColor.getOpposite();
+        var replies = board.getAvailableSteps(otherDiskColor);
+        if (replies.isEmpty()) {
+            if (board.getAvailableSteps(diskColor).isEmpty()) {
+                int difference = board.getDiskAmount(diskColor) - board.getDiskAmount(otherDiskColor);
+                return Integer.signum(difference) * SearchEngine.WIN_SCORE + difference;
+            }
+            return -getScoreAfterStep(board, otherDiskColor);
+        }
+        if (replies.size() == 1) {
+            Cell reply = replies.get(0);
+            board.makeStep(reply.getPositionX(), reply.getPositionY(), otherDiskColor);
+            int score = -getScoreAfterStep(board, otherDiskColor);
+            board.restorePreviousStep();
+            return score;
+        }
+
+        searchEngine.findBestStep(board, otherDiskColor);
+        return -searchEngine.getLastScore();
+    }
+
+    private void add(long key, int step, int score) {
+        if (amount == keys.length) {
+            keys = Arrays.copyOf(keys, amount * 2);
+            steps = Arrays.copyOf(steps, amount * 2);
+            depths = Arrays.copyOf(depths, amount * 2);
+            scores = Arrays.copyOf(scores, amount * 2);
+        }
+        keys[amount] = key;
+        steps[amount] = step;
+        depths[amount] = searchDepth;
+        scores[amount] = score;
+        ++amount;
+    }
+
+    private void write(Path path) throws IOException {
+        OpeningBook.write(path, keys, steps, depths, scores, amount);
+    }
+}
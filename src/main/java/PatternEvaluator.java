@@ -0,0 +1,392 @@
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Класс для оценки позиции на доске 8x8 по шаблонам.
+ * <p>
+ * Шаблон — набор клеток, например край доски или квадрат 3x3 в углу. Состояние клеток шаблона
+ * (пусто, чёрная фишка, белая фишка) кодируется числом в троичной системе, и оценка шаблона берётся
+ * из таблицы весов по этому индексу. Симметричные экземпляры шаблона пользуются одной таблицей.
+ * Индексы всех экземпляров хранит {@link Board} и обновляет при каждом изменении клетки, поэтому оценка
+ * позиции — это несколько обращений к таблицам плюс подвижность и количество фишек на границе.
+ * <p>
+ * Веса по умолчанию строятся из ценности клеток. Если есть файл весов {@link #DEFAULT_PATH} или файл,
+ * указанный в системном свойстве {@link #PATH_PROPERTY}, веса по умолчанию читаются из него при запуске.
+ * Файл весов — поток GZIP: сигнатура и версия ({@code int}), количество шаблонов ({@code int}), для каждого
+ * шаблона размер таблицы ({@code int}) и веса ({@code short}), затем веса подвижности и границы ({@code int}).
+ * Такие файлы записывает {@link EvaluationTuner}.
+ */
+public class PatternEvaluator {
+    public static final String DEFAULT_PATH = "weights.bin";
+    /**
+     * Системное свойство, в котором можно указать путь к файлу весов.
+     */
+    public static final String PATH_PROPERTY = "reversi.weights";
+    public static final int EDGE = 0;
+    public static final int CORNER = 1;
+    public static final int DIAGONAL = 2;
+    public static final int FAMILIES_AMOUNT = 3;
+
+    /**
+     * Клетки шаблонов в исходном положении, индекс клетки {@code y * 8 + x}.
+     */
+    private static final int[][] FAMILY_SQUARES = {
+            {0, 1, 2, 3, 4, 5, 6, 7},
+            {0, 1, 2, 8, 9, 10, 16, 17, 18},
+            {0, 9, 18, 27, 36, 45, 54, 63}
+    };
+    /**
+     * Симметрии, которые переводят исходное положение шаблона в остальные экземпляры.
+     * @see BitBoard#transform(long, int)
+     */
+    private static final int[][] FAMILY_SYMMETRIES = {
+            {0, 1, 4, 6},
+            {0, 1, 2, 3},
+            {0, 2}
+    };
+    /**
+     * Ценность клеток, из которой строятся таблицы весов по умолчанию.
+     */
+    private static final int[] SQUARE_VALUES = {
+            100, -20, 10, 5, 5, 10, -20, 100,
+            -20, -50, -2, -2, -2, -2, -50, -20,
+            10, -2, -1, -1, -1, -1, -2, 10,
+            5, -2, -1, -1, -1, -1, -2, 5,
+            5, -2, -1, -1, -1, -1, -2, 5,
+            10, -2, -1, -1, -1, -1, -2, 10,
+            -20, -50, -2, -2, -2, -2, -50, -20,
+            100, -20, 10, 5, 5, 10, -20, 100
+    };
+    /**
+     * Ценность клеток рядом с углом, когда угол уже занят.
+     */
+    private static final int NEAR_OCCUPIED_CORNER_VALUE = 5;
+    private static final int DEFAULT_MOBILITY_WEIGHT = 8;
+    private static final int DEFAULT_FRONTIER_WEIGHT = -4;
+    private static final int MAGIC = 0x52565754;
+    private static final int VERSION = 1;
+
+    /**
+     * Количество экземпляров всех шаблонов.
+     */
+    public static final int INSTANCES_AMOUNT;
+    private static final int[] INSTANCE_FAMILIES;
+    /**
+     * Для клетки {@code square} экземпляры, в которые она входит, и её вес в троичном индексе лежат
+     * в {@link #SQUARE_INSTANCES} и {@link #SQUARE_POWERS} с позиции {@code SQUARE_OFFSETS[square]}
+     * до {@code SQUARE_OFFSETS[square + 1]}.
+     */
+    private static final int[] SQUARE_OFFSETS = new int[BitBoard.SIZE * BitBoard.SIZE + 1];
+    private static final int[] SQUARE_INSTANCES;
+    private static final int[] SQUARE_POWERS;
+
+    static {
+        int instances = 0;
+        int entries = 0;
+        for (int family = 0; family < FAMILIES_AMOUNT; ++family) {
+            instances += FAMILY_SYMMETRIES[family].length;
+            entries += FAMILY_SYMMETRIES[family].length * FAMILY_SQUARES[family].length;
+        }
+        INSTANCES_AMOUNT = instances;
+        INSTANCE_FAMILIES = new int[instances];
+
+        int[] squares = new int[entries];
+        int[] squareInstances = new int[entries];
+        int[] powers = new int[entries];
+        int instance = 0;
+        int entry = 0;
+        for (int family = 0; family < FAMILIES_AMOUNT; ++family) {
+            for (int symmetry : FAMILY_SYMMETRIES[family]) {
+                INSTANCE_FAMILIES[instance] = family;
+                int power = 1;
+                for (int square : FAMILY_SQUARES[family]) {
+                    squares[entry] = Long.numberOfTrailingZeros(BitBoard.transform(1L << square, symmetry));
+                    squareInstances[entry] = instance;
+                    powers[entry] = power;
+                    power *= 3;
+                    ++entry;
+                }
+                ++instance;
+            }
+        }
+
+        SQUARE_INSTANCES = new int[entries];
+        SQUARE_POWERS = new int[entries];
+        int position = 0;
+        for (int square = 0; square < BitBoard.SIZE * BitBoard.SIZE; ++square) {
+            SQUARE_OFFSETS[square] = position;
+            for (int i = 0; i < entries; ++i) {
+                if (squares[i] == square) {
+                    SQUARE_INSTANCES[position] = squareInstances[i];
+                    SQUARE_POWERS[position] = powers[i];
+                    ++position;
+                }
+            }
+        }
+        SQUARE_OFFSETS[BitBoard.SIZE * BitBoard.SIZE] = position;
+    }
+
+    private static final PatternEvaluator DEFAULT = loadDefault();
+
+    /**
+     * Веса шаблонов с точки зрения чёрных: {@code weights[family][index]}.
+     */
+    private final int[][] weights;
+    private final int mobilityWeight;
+    private final int frontierWeight;
+
+    /**
+     * Конструирует оценку с заданными весами.
+     * @param weights таблицы весов для каждого шаблона размером {@code 3^(количество клеток шаблона)}.
+     * @param mobilityWeight вес разницы в количестве доступных ходов.
+     * @param frontierWeight вес разницы в количестве фишек на границе с пустыми клетками.
+     */
+    public PatternEvaluator(int[][] weights, int mobilityWeight, int frontierWeight) {
+        this.weights = weights;
+        this.mobilityWeight = mobilityWeight;
+        this.frontierWeight = frontierWeight;
+    }
+
+    /**
+     * Возвращает оценку с весами по умолчанию: из файла весов, если он есть, иначе построенными
+     * из ценности клеток.
+     * @return оценка по шаблонам.
+     */
+    public static PatternEvaluator getDefault() {
+        return DEFAULT;
+    }
+
+    /**
+     * Возвращает оценку с весами, построенными из ценности клеток, без учёта файла весов.
+     * @return оценка по шаблонам.
+     */
+    public static PatternEvaluator getBuiltIn() {
+        return new PatternEvaluator(getDefaultWeights(), DEFAULT_MOBILITY_WEIGHT, DEFAULT_FRONTIER_WEIGHT);
+    }
+
+    /**
+     * Читает веса из файла.
+     * @param path путь к файлу весов.
+     * @return оценка по шаблонам.
+     * @throws IOException если файл не удалось прочитать или он имеет неверный формат.
+     */
+    public static PatternEvaluator read(Path path) throws IOException {
+        try (var in = new DataInputStream(new BufferedInputStream(new GZIPInputStream(Files.newInputStream(path))))) {
+            if (in.readInt() != MAGIC || in.readInt() != VERSION || in.readInt() != FAMILIES_AMOUNT) {
+                throw new IOException("Not a pattern weights file");
+            }
+            int[][] weights = new int[FAMILIES_AMOUNT][];
+            for (int family = 0; family < FAMILIES_AMOUNT; ++family) {
+                int length = in.readInt();
+                if (length != pow3(FAMILY_SQUARES[family].length)) {
+                    throw new IOException("Wrong table size " + length + " for pattern " + family);
+                }
+                weights[family] = new int[length];
+                for (int index = 0; index < length; ++index) {
+                    weights[family][index] = in.readShort();
+                }
+            }
+            return new PatternEvaluator(weights, in.readInt(), in.readInt());
+        }
+    }
+
+    /**
+     * Записывает веса в файл. Веса шаблонов хранятся как {@code short} и при записи ограничиваются его диапазоном.
+     * @param path путь к файлу весов.
+     * @throws IOException если файл не удалось записать.
+     */
+    public void write(Path path) throws IOException {
+        try (var out = new DataOutputStream(new BufferedOutputStream(new GZIPOutputStream(
+                Files.newOutputStream(path))))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(FAMILIES_AMOUNT);
+            for (int[] table : weights) {
+                out.writeInt(table.length);
+                for (int weight : table) {
+                    out.writeShort(Math.max(Short.MIN_VALUE, Math.min(Short.MAX_VALUE, weight)));
+                }
+            }
+            out.writeInt(mobilityWeight);
+            out.writeInt(frontierWeight);
+        }
+    }
+
+    /**
+     * Возвращает копию таблицы весов шаблона.
+     * @param family номер шаблона.
+     * @return веса по троичным индексам с точки зрения чёрных.
+     */
+    public int[] getWeights(int family) {
+        return weights[family].clone();
+    }
+
+    public int getMobilityWeight() {
+        return mobilityWeight;
+    }
+
+    public int getFrontierWeight() {
+        return frontierWeight;
+    }
+
+    /**
+     * Проверяет, можно ли оценивать позиции на доске.
+     * @param board доска.
+     * @return {@code true} для доски 8x8.
+     */
+    public static boolean isSupported(Board board) {
+        return board.getSize() == BitBoard.SIZE;
+    }
+
+    /**
+     * Оценивает позицию.
+     * @param board доска размера {@link BitBoard#SIZE}.
+     * @param diskColor цвет фишки, с точки зрения которой оценивается позиция.
+     * @return оценка позиции, чем больше, тем лучше для фишки {@code diskColor}.
+     */
+    public int evaluate(Board board, DiskColor diskColor) {
+        int score = 0;
+        for (int instance = 0; instance < INSTANCES_AMOUNT; ++instance) {
+            score += weights[INSTANCE_FAMILIES[instance]][board.getPatternIndex(instance)];
+        }
+        score += mobilityWeight * (board.getAvailableStepsAmount(DiskColor.BLACK)
+                - board.getAvailableStepsAmount(DiskColor.WHITE));
+        score += frontierWeight * (board.getFrontierAmount(DiskColor.BLACK)
+                - board.getFrontierAmount(DiskColor.WHITE));
+
+        return diskColor == DiskColor.WHITE ? -score : score;
+    }
+
+    /**
+     * Обновляет индексы экземпляров шаблонов после изменения клетки.
+     * @param indices индексы всех экземпляров.
+     * @param square индекс клетки.
+     * @param previous прежний цвет фишки в клетке.
+     * @param current новый цвет фишки в клетке.
+     */
+    public static void updateIndices(int[] indices, int square, DiskColor previous, DiskColor current) {
+        int delta = getState(current) - getState(previous);
+        for (int i = SQUARE_OFFSETS[square]; i < SQUARE_OFFSETS[square + 1]; ++i) {
+            indices[SQUARE_INSTANCES[i]] += delta * SQUARE_POWERS[i];
+        }
+    }
+
+    /**
+     * Возвращает номер шаблона, к которому относится экземпляр.
+     * @param instance номер экземпляра, как в {@link Board#getPatternIndex(int)}.
+     * @return номер шаблона.
+     */
+    public static int getFamily(int instance) {
+        return INSTANCE_FAMILIES[instance];
+    }
+
+    /**
+     * Возвращает количество клеток в шаблоне.
+     * @param family номер шаблона.
+     * @return количество клеток.
+     */
+    public static int getSquaresAmount(int family) {
+        return FAMILY_SQUARES[family].length;
+    }
+
+    /**
+     * Возвращает цифру троичного индекса для цвета фишки.
+     * @param diskColor цвет фишки.
+     * @return {@code 0} для пустой клетки, {@code 1} для чёрной фишки, {@code 2} для белой.
+     */
+    private static int getState(DiskColor diskColor) {
+        return switch (diskColor) {
+            case NONE -> 0;
+            case BLACK -> 1;
+            case WHITE -> 2;
+        };
+    }
+
+    /**
+     * Строит таблицы весов по умолчанию из ценности клеток. Клетки рядом с занятым углом
+     * перестают быть опасными, поэтому их ценность в этом случае заменяется положительной.
+     * @return таблицы весов.
+     */
+    private static int[][] getDefaultWeights() {
+        int[][] defaultWeights = new int[FAMILIES_AMOUNT][];
+        for (int family = 0; family < FAMILIES_AMOUNT; ++family) {
+            int[] squares = FAMILY_SQUARES[family];
+            int[] table = new int[pow3(squares.length)];
+            int[] states = new int[squares.length];
+            for (int index = 0; index < table.length; ++index) {
+                int rest = index;
+                for (int k = 0; k < squares.length; ++k) {
+                    states[k] = rest % 3;
+                    rest /= 3;
+                }
+
+                int score = 0;
+                for (int k = 0; k < squares.length; ++k) {
+                    if (states[k] == 0) {
+                        continue;
+                    }
+                    int value = SQUARE_VALUES[squares[k]];
+                    if (value < 0 && isNearOccupiedCorner(squares, states, k)) {
+                        value = NEAR_OCCUPIED_CORNER_VALUE;
+                    }
+                    score += states[k] == 1 ? value : -value;
+                }
+                table[index] = score;
+            }
+            defaultWeights[family] = table;
+        }
+
+        return defaultWeights;
+    }
+
+    /**
+     * Проверяет, что клетка шаблона соседствует с занятым углом того же шаблона.
+     * @param squares клетки шаблона.
+     * @param states состояния клеток.
+     * @param k позиция клетки в шаблоне.
+     * @return {@code true}, если рядом с клеткой есть занятый угол.
+     */
+    private static boolean isNearOccupiedCorner(int[] squares, int[] states, int k) {
+        int x = squares[k] % BitBoard.SIZE;
+        int y = squares[k] / BitBoard.SIZE;
+        for (int i = 0; i < squares.length; ++i) {
+            int cornerX = squares[i] % BitBoard.SIZE;
+            int cornerY = squares[i] / BitBoard.SIZE;
+            boolean isCorner = (cornerX == 0 || cornerX == BitBoard.SIZE - 1)
+                    && (cornerY == 0 || cornerY == BitBoard.SIZE - 1);
+            if (isCorner && states[i] != 0 && Math.abs(cornerX - x) <= 1 && Math.abs(cornerY - y) <= 1) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    private static PatternEvaluator loadDefault() {
+        Path path = Path.of(System.getProperty(PATH_PROPERTY, DEFAULT_PATH));
+        if (Files.isRegularFile(path)) {
+            try {
+                return read(path);
+            } catch (IOException ex) {
+                System.err.println("Cannot read pattern weights " + path + ": " + ex.getMessage());
+            }
+        }
+        return getBuiltIn();
+    }
+
+    private static int pow3(int exponent) {
+        int result = 1;
+        for (int i = 0; i < exponent; ++i) {
+            result *= 3;
+        }
+
+        return result;
+    }
+}
@@ -0,0 +1,226 @@
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Подсчёт листьев дерева игры до заданной глубины (perft) — проверка корректности генерации ходов
+ * и замер её скорости. Пропуск хода считается отдельным полуходом; позиция, в которой оба игрока
+ * не могут ходить, считается листом.
+ * Ходы корня могут распределяться между потоками, каждый из которых работает со своей копией доски.
+ * В режиме проверки в каждом узле ходы и переворачиваемые фишки сравниваются с {@link ReferenceRules}.
+ */
+public class Perft {
+    /**
+     * Опубликованные значения perft для начальной позиции доски 8x8, начиная с глубины 1.
+     */
+    public static final long[] KNOWN_RESULTS = {
+            4, 12, 56, 244, 1396, 8200, 55092, 390216, 3005288, 24571284, 212258800
+    };
+
+    private final int threadsAmount;
+    private final boolean isVerified;
+    private long nodesPerSecond;
+
+    /**
+     * Создаёт однопоточный подсчёт без проверки.
+     */
+    public Perft() {
+        this(1, false);
+    }
+
+    /**
+     * @param threadsAmount количество потоков, между которыми распределяются ходы корня.
+     * @param isVerified сравнивать ли в каждом узле ходы и перевороты с эталонными правилами.
+     */
+    public Perft(int threadsAmount, boolean isVerified) {
+        this.threadsAmount = Math.max(1, threadsAmount);
+        this.isVerified = isVerified;
+    }
+
+    /**
+     * @return скорость последнего подсчёта в листьях в секунду.
+     */
+    public long getNodesPerSecond() {
+        return nodesPerSecond;
+    }
+
+    /**
+     * Подсчитывает количество листьев до заданной глубины. Доска после подсчёта не меняется.
+     * @param board доска с позицией.
+     * @param diskColor цвет игрока, который делает ход.
+     * @param depth глубина в полуходах.
+     * @return количество листьев.
+     */
+    public long count(Board board, DiskColor diskColor, int depth) {
+        long start = System.nanoTime();
+        long nodes;
+        int[] rootSteps = new int[board.getSize() * board.getSize()];
+        int rootStepsAmount = board.getAvailableSteps(diskColor, rootSteps);
+        if (threadsAmount == 1 || depth < 2 || rootStepsAmount < 2) {
+            boolean isRestoreAllowed = board.isRestoreAllowed();
+            nodes = new Counter(board, depth).count(diskColor, depth, false);
+            board.setStepBackAllowed(isRestoreAllowed);
+        } else {
+            nodes = countParallel(board, diskColor, depth, rootSteps, rootStepsAmount);
+        }
+
+        nodesPerSecond = nodes * 1_000_000_000 / Math.max(1, System.nanoTime() - start);
+        return nodes;
+    }
+
+    private long countParallel(Board board, DiskColor diskColor, int depth, int[] rootSteps, int rootStepsAmount) {
+        if (isVerified) {
+            new Counter(board, depth).verifySteps(diskColor, rootSteps, rootStepsAmount);
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(Math.min(threadsAmount, rootStepsAmount));
+        try {
+            ArrayList<Future<Long>> futures = new ArrayList<>();
+            int size = board.getSize();
+            for (int i = 0; i < rootStepsAmount; ++i) {
+                int square = rootSteps[i];
+                Board boardCopy = board.getBoardCopy();
+                futures.add(executor.submit(() -> {
+                    Counter counter = new Counter(boardCopy, depth);
+                    boardCopy.makeStep(square % size, square / size, diskColor);
+                    return counter.count(diskColor.getOpposite(), depth - 1, false);
+                }));
+            }
+
+            long nodes = 0;
+            for (Future<Long> future : futures) {
+                nodes += future.get();
+            }
+            return nodes;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Подсчёт был прерван", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new IllegalStateException(e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Рекурсивный подсчёт на одной доске с заранее выделенными буферами ходов для каждого уровня.
+     */
+    private class Counter {
+        private final Board board;
+        private final int size;
+        private final int[][] stepsBuffers;
+
+        private Counter(Board board, int depth) {
+            this.board = board;
+            this.size = board.getSize();
+            board.setStepBackAllowed(true);
+            stepsBuffers = new int[depth + 1][size * size];
+        }
+
+        private long count(DiskColor diskColor, int depth, boolean isPassed) {
+            if (depth == 0) {
+                return 1;
+            }
+
+            int[] steps = stepsBuffers[depth];
+            int stepsAmount = board.getAvailableSteps(diskColor, steps);
+            if (isVerified) {
+                verifySteps(diskColor, steps, stepsAmount);
+            }
+            if (stepsAmount == 0) {
+                return isPassed ? 1 : count(diskColor.getOpposite(), depth - 1, true);
+            }
+            if (depth == 1) {
+                return stepsAmount;
+            }
+
+            long nodes = 0;
+            for (int i = 0; i < stepsAmount; ++i) {
+                board.makeStep(steps[i] % size, steps[i] / size, diskColor);
+                nodes += count(diskColor.getOpposite(), depth - 1, false);
+                board.restorePreviousStep();
+            }
+
+            return nodes;
+        }
+
+        /**
+         * Сравнивает ходы и переворачиваемые фишки с эталонными правилами.
+         * @throws IllegalStateException если найдено расхождение.
+         */
+        private void verifySteps(DiskColor diskColor, int[] steps, int stepsAmount) {
+            HashSet<Integer> expected = new HashSet<>();
+            for (int y = 0; y < size; ++y) {
+                for (int x = 0; x < size; ++x) {
+                    Cell cell = board.getCell(x, y);
+                    if (cell.getDisk() == DiskColor.NONE && ReferenceRules.isPossibleStep(board, cell, diskColor)) {
+                        expected.add(y * size + x);
+                    }
+                }
+            }
+
+            HashSet<Integer> actual = new HashSet<>();
+            for (int i = 0; i < stepsAmount; ++i) {
+                actual.add(steps[i]);
+            }
+            if (!expected.equals(actual)) {
+                throw new IllegalStateException("Ходы " + actual + " не совпадают с эталонными " + expected
+                        + " для позиции:\n" + board);
+            }
+
+            for (int square : actual) {
+                Cell cell = board.getCell(square % size, square / size);
+                if (!toSquares(board.getClosedCells(cell, diskColor))
+                        .equals(toSquares(ReferenceRules.getClosedCells(board, cell, diskColor)))) {
+                    throw new IllegalStateException("Перевороты после хода " + square
+                            + " не совпадают с эталонными для позиции:\n" + board);
+                }
+            }
+        }
+
+        private HashSet<Integer> toSquares(ArrayList<Cell> cells) {
+            HashSet<Integer> squares = new HashSet<>();
+            for (Cell cell : cells) {
+                squares.add(cell.getPositionY() * size + cell.getPositionX());
+            }
+
+            return squares;
+        }
+    }
+
+    /**
+     * Аргументы: максимальная глубина, количество потоков, размер доски и флаг {@code verify}.
+     * Для доски 8x8 результаты сравниваются с опубликованными значениями.
+     */
+    public static void main(String[] args) {
+        int maxDepth = args.length > 0 ? Integer.parseInt(args[0]) : 9;
+        int threads = args.length > 1 ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+        int size = args.length > 2 ? Integer.parseInt(args[2]) : 8;
+        boolean isVerified = args.length > 3 && args[3].equals("verify");
+
+        Perft perft = new Perft(threads, isVerified);
+        Board board = new Board(size, true);
+        board.initialize();
+        System.out.printf("%6s %14s %14s %10s%n", "depth", "nodes", "nodes/sec", "expected");
+        boolean isCorrect = true;
+        for (int depth = 1; depth <= maxDepth; ++depth) {
+            long nodes = perft.count(board, DiskColor.BLACK, depth);
+            String expected = "-";
+            if (size == 8 && depth <= KNOWN_RESULTS.length) {
+                expected = nodes == KNOWN_RESULTS[depth - 1] ? "ok" : String.valueOf(KNOWN_RESULTS[depth - 1]);
+                isCorrect &= nodes == KNOWN_RESULTS[depth - 1];
+            }
+            System.out.printf("%6d %14d %14d %10s%n", depth, nodes, perft.getNodesPerSecond(), expected);
+        }
+
+        if (!isCorrect) {
+            System.exit(1);
+        }
+    }
+}
@@ -30,6 +30,54 @@ public class Player {
         return decision;
     }
 
+    /**
+     * Делает ход на переданной доске, решение для которого должно быть готово к заданному моменту.
+     * Если поведение не успевает, решение отменяется и делается лучший найденный ход.
+     * @param board доска, на которой игрок должен сделать ход.
+     * @param deadlineNanos момент по {@link System#nanoTime()} или {@link Long#MAX_VALUE}.
+     * @return объект-решение, которое принял игрок на данном ходу.
+     * @see Behaviour#startDecision(Board, DiskColor, long)
+     */
+    public Decision makeStep(Board board, long deadlineNanos) {
+        DecisionHandle handle = behaviour.startDecision(board, diskColor, deadlineNanos);
+        Decision decision;
+        try {
+            decision = handle.await(deadlineNanos);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            decision = handle.getBestDecision();
+        }
+        if (decision.getAction() == Action.STEP) {
+            board.makeStep(decision.getCoordinateX(), decision.getCoordinateY(), diskColor);
+        }
+
+        return decision;
+    }
+
+    /**
+     * Начинает обдумывание, пока ходит противник.
+     * @param board доска, на которой ходит противник.
+     * @see Behaviour#startPondering(Board, DiskColor)
+     */
+    public void startPondering(Board board) {
+        behaviour.startPondering(board, diskColor);
+    }
+
+    /**
+     * Останавливает обдумывание.
+     */
+    public void stopPondering() {
+        behaviour.stopPondering();
+    }
+
+    /**
+     * Освобождает потоки поведения игрока, когда партия окончена.
+     * @see Behaviour#close()
+     */
+    public void close() {
+        behaviour.close();
+    }
+
     /**
      * Проверяет, является ли игрок ботом.
      * @return {@code true}, если является, иначе {@code false}
@@ -0,0 +1,77 @@
+/**
+ * Текстовая запись позиции в одну строку: клетки доски построчно сверху вниз ({@code B} — чёрная фишка,
+ * {@code W} — белая, {@code -} или {@code .} — пустая клетка), пробел и цвет игрока, который делает ход
+ * ({@code b} или {@code w}). Размер доски определяется по количеству клеток.
+ */
+public class PositionNotation {
+    /**
+     * Записывает позицию в текстовом виде.
+     * @param board доска с позицией.
+     * @param diskColor цвет фишки, которой нужно совершить ход.
+     * @return запись позиции.
+     */
+    public static String format(Board board, DiskColor diskColor) {
+        int size = board.getSize();
+        StringBuilder out = new StringBuilder(size * size + 2);
+        for (int y = 0; y < size; ++y) {
+            for (int x = 0; x < size; ++x) {
+                out.append(switch (board.getCell(x, y).getDisk()) {
+                    case BLACK -> 'B';
+                    case WHITE -> 'W';
+                    case NONE -> '-';
+                });
+            }
+        }
+
+        return out.append(' ').append(diskColor == DiskColor.WHITE ? 'w' : 'b').toString();
+    }
+
+    /**
+     * Разбирает клетки позиции.
+     * @param text запись позиции, цвет игрока после пробела не обязателен.
+     * @param isStepBackAllowed разрешено ли на новой доске возвращаться к предыдущим ходам.
+     * @return новая доска с позицией.
+     * @throws IllegalArgumentException если запись неверна.
+     */
+    public static Board parseBoard(String text, boolean isStepBackAllowed) {
+        String cells = text.trim().split("\\s+")[0];
+        int size = (int) Math.round(Math.sqrt(cells.length()));
+        if (size * size != cells.length() || size < 4 || size % 2 != 0) {
+            throw new IllegalArgumentException("Неверное количество клеток в позиции: " + cells.length());
+        }
+
+        Board board = new Board(size, isStepBackAllowed);
+        for (int i = 0; i < cells.length(); ++i) {
+            DiskColor diskColor = switch (Character.toUpperCase(cells.charAt(i))) {
+                case 'B', 'X' -> DiskColor.BLACK;
+                case 'W', 'O' -> DiskColor.WHITE;
+                case '-', '.' -> DiskColor.NONE;
+                default -> throw new IllegalArgumentException("Неверный символ клетки: " + cells.charAt(i));
+            };
+            if (diskColor != DiskColor.NONE) {
+                board.placeDisk(i % size, i / size, diskColor);
+            }
+        }
+
+        return board;
+    }
+
+    /**
+     * Разбирает цвет игрока, который делает ход.
+     * @param text запись позиции.
+     * @return цвет фишки; если цвет не указан, ходят чёрные.
+     * @throws IllegalArgumentException если цвет указан неверно.
+     */
+    public static DiskColor parseDiskColor(String text) {
+        String[] parts = text.trim().split("\\s+");
+        if (parts.length < 2) {
+            return DiskColor.BLACK;
+        }
+
+        return switch (parts[1].toLowerCase()) {
+            case "b", "black" -> DiskColor.BLACK;
+            case "w", "white" -> DiskColor.WHITE;
+            default -> throw new IllegalArgumentException("Неверный цвет игрока: " + parts[1]);
+        };
+    }
+}
@@ -0,0 +1,188 @@
+import java.util.Arrays;
+
+/**
+ * Представление доски произвольного размера в виде массива цветов клеток.
+ * Ходы и перевороты вычисляются обходом предвычисленных лучей {@link RayTable} и не создают объектов.
+ * <p>
+ * Доска хранит множество пустых клеток, рядом с которыми есть фишка. Только в них можно ходить,
+ * поэтому поиск ходов обходит это множество, а не всю доску. При изменении клетки множество
+ * обновляется по её соседям.
+ */
+public class RayBoard implements BoardEngine {
+    private final RayTable rays;
+    private final DiskColor[] disks;
+    private final int[] diskAmounts = new int[DiskColor.values().length];
+    /**
+     * Количество занятых соседних клеток для каждой клетки.
+     */
+    private final int[] occupiedNeighbours;
+    /**
+     * Пустые клетки с ненулевым {@link #occupiedNeighbours} в произвольном порядке; первые
+     * {@link #frontierSize} элементов.
+     */
+    private final int[] frontier;
+    /**
+     * Позиция клетки в {@link #frontier} или {@code -1}, если её там нет.
+     */
+    private final int[] frontierPositions;
+    private int frontierSize;
+
+    /**
+     * Конструирует пустую доску.
+     * @param size размер доски.
+     */
+    public RayBoard(int size) {
+        rays = RayTable.getTable(size);
+        disks = new DiskColor[size * size];
+        occupiedNeighbours = new int[size * size];
+        frontier = new int[size * size];
+        frontierPositions = new int[size * size];
+        Arrays.fill(disks, DiskColor.NONE);
+        Arrays.fill(frontierPositions, -1);
+        diskAmounts[DiskColor.NONE.ordinal()] = size * size;
+    }
+
+    @Override
+    public void setDisk(int square, DiskColor diskColor) {
+        boolean wasEmpty = disks[square] == DiskColor.NONE;
+        --diskAmounts[disks[square].ordinal()];
+        ++diskAmounts[diskColor.ordinal()];
+        disks[square] = diskColor;
+        if (wasEmpty != (diskColor == DiskColor.NONE)) {
+            updateOccupiedNeighbours(square, wasEmpty ? 1 : -1);
+            updateFrontier(square);
+        }
+    }
+
+    @Override
+    public boolean isPossibleStep(int square, DiskColor diskColor) {
+        for (int direction = 0; direction < RayTable.DIRECTIONS_AMOUNT; ++direction) {
+            if (getClosingPosition(square, direction, diskColor) >= 0) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    @Override
+    public int getAvailableSteps(DiskColor diskColor, int[] squares) {
+        int count = 0;
+        for (int i = 0; i < frontierSize; ++i) {
+            if (isPossibleStep(frontier[i], diskColor)) {
+                squares[count++] = frontier[i];
+            }
+        }
+        // Ходов немного, а порядок по строкам обещан интерфейсом.
+        Arrays.sort(squares, 0, count);
+
+        return count;
+    }
+
+    @Override
+    public int getAvailableStepsAmount(DiskColor diskColor) {
+        int count = 0;
+        for (int i = 0; i < frontierSize; ++i) {
+            if (isPossibleStep(frontier[i], diskColor)) {
+                ++count;
+            }
+        }
+
+        return count;
+    }
+
+    @Override
+    public int getClosedCells(int square, DiskColor diskColor, int[] squares) {
+        int count = 0;
+        for (int direction = 0; direction < RayTable.DIRECTIONS_AMOUNT; ++direction) {
+            int closingPosition = getClosingPosition(square, direction, diskColor);
+            for (int i = rays.getRayStart(square, direction); i < closingPosition; ++i) {
+                squares[count++] = rays.getSquare(i);
+            }
+        }
+
+        return count;
+    }
+
+    @Override
+    public int getDiskAmount(DiskColor diskColor) {
+        return diskAmounts[diskColor.ordinal()];
+    }
+
+    @Override
+    public int getFrontierAmount(DiskColor diskColor) {
+        int amount = 0;
+        for (int square = 0; square < disks.length; ++square) {
+            if (disks[square] == diskColor && hasEmptyNeighbour(square)) {
+                ++amount;
+            }
+        }
+
+        return amount;
+    }
+
+    /**
+     * Ищет на луче фишку, которая вместе с фишкой в начальной клетке замыкает хотя бы одну фишку противника.
+     * @param square клетка, из которой выходит луч.
+     * @param direction номер направления.
+     * @param diskColor цвет фишки в начальной клетке.
+     * @return позиция замыкающей фишки в луче или {@code -1}, если её нет.
+     */
+    private int getClosingPosition(int square, int direction, DiskColor diskColor) {
+        int start = rays.getRayStart(square, direction);
+        int end = rays.getRayEnd(square, direction);
+        for (int i = start; i < end; ++i) {
+            DiskColor disk = disks[rays.getSquare(i)];
+            if (disk == DiskColor.NONE) {
+                return -1;
+            }
+            if (disk == diskColor) {
+                return i > start ? i : -1;
+            }
+        }
+
+        return -1;
+    }
+
+    /**
+     * Меняет количество занятых соседей у соседних клеток и обновляет их принадлежность {@link #frontier}.
+     */
+    private void updateOccupiedNeighbours(int square, int delta) {
+        for (int direction = 0; direction < RayTable.DIRECTIONS_AMOUNT; ++direction) {
+            int start = rays.getRayStart(square, direction);
+            if (start < rays.getRayEnd(square, direction)) {
+                int neighbour = rays.getSquare(start);
+                occupiedNeighbours[neighbour] += delta;
+                updateFrontier(neighbour);
+            }
+        }
+    }
+
+    /**
+     * Добавляет клетку в {@link #frontier} или удаляет из него в зависимости от её состояния.
+     */
+    private void updateFrontier(int square) {
+        boolean isFrontier = disks[square] == DiskColor.NONE && occupiedNeighbours[square] > 0;
+        int position = frontierPositions[square];
+        if (isFrontier && position < 0) {
+            frontier[frontierSize] = square;
+            frontierPositions[square] = frontierSize++;
+        } else if (!isFrontier && position >= 0) {
+            int last = frontier[--frontierSize];
+            frontier[position] = last;
+            frontierPositions[last] = position;
+            frontierPositions[square] = -1;
+        }
+    }
+
+    private boolean hasEmptyNeighbour(int square) {
+        for (int direction = 0; direction < RayTable.DIRECTIONS_AMOUNT; ++direction) {
+            int start = rays.getRayStart(square, direction);
+            if (start < rays.getRayEnd(square, direction) && disks[rays.getSquare(start)] == DiskColor.NONE) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+}
@@ -0,0 +1,83 @@
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Предвычисленные лучи для доски заданного размера: для каждой клетки и каждого из восьми направлений
+ * хранится последовательность индексов клеток от соседней клетки до края доски.
+ * Все лучи лежат в одном плоском массиве, так что обход луча не создаёт объектов.
+ * Таблица неизменяема и создаётся один раз для каждого размера доски.
+ */
+public class RayTable {
+    public static final int DIRECTIONS_AMOUNT = 8;
+
+    private static final int[] DIRECTION_X = {1, 1, 0, -1, -1, -1, 0, 1};
+    private static final int[] DIRECTION_Y = {0, 1, 1, 1, 0, -1, -1, -1};
+    private static final ConcurrentHashMap<Integer, RayTable> TABLES = new ConcurrentHashMap<>();
+
+    /**
+     * Индексы клеток всех лучей подряд.
+     */
+    private final int[] raySquares;
+    /**
+     * Начало луча {@code square * DIRECTIONS_AMOUNT + direction} в {@link #raySquares};
+     * луч заканчивается там, где начинается следующий.
+     */
+    private final int[] rayStarts;
+
+    private RayTable(int size) {
+        int squaresAmount = size * size;
+        rayStarts = new int[squaresAmount * DIRECTIONS_AMOUNT + 1];
+        int[] squares = new int[squaresAmount * DIRECTIONS_AMOUNT * size];
+        int count = 0;
+        for (int square = 0; square < squaresAmount; ++square) {
+            for (int direction = 0; direction < DIRECTIONS_AMOUNT; ++direction) {
+                rayStarts[square * DIRECTIONS_AMOUNT + direction] = count;
+                int x = square % size + DIRECTION_X[direction];
+                int y = square / size + DIRECTION_Y[direction];
+                while (x >= 0 && y >= 0 && x < size && y < size) {
+                    squares[count++] = y * size + x;
+                    x += DIRECTION_X[direction];
+                    y += DIRECTION_Y[direction];
+                }
+            }
+        }
+        rayStarts[squaresAmount * DIRECTIONS_AMOUNT] = count;
+
+        raySquares = new int[count];
+        System.arraycopy(squares, 0, raySquares, 0, count);
+    }
+
+    /**
+     * Возвращает таблицу лучей для доски заданного размера.
+     * @param size размер доски.
+     * @return общая для всех досок этого размера таблица.
+     */
+    public static RayTable getTable(int size) {
+        return TABLES.computeIfAbsent(size, RayTable::new);
+    }
+
+    /**
+     * @param square индекс клетки.
+     * @param direction номер направления от {@code 0} до {@link #DIRECTIONS_AMOUNT}.
+     * @return позиция первой клетки луча.
+     */
+    public int getRayStart(int square, int direction) {
+        return rayStarts[square * DIRECTIONS_AMOUNT + direction];
+    }
+
+    /**
+     * @param square индекс клетки.
+     * @param direction номер направления от {@code 0} до {@link #DIRECTIONS_AMOUNT}.
+     * @return позиция, следующая за последней клеткой луча.
+     */
+    public int getRayEnd(int square, int direction) {
+        return rayStarts[square * DIRECTIONS_AMOUNT + direction + 1];
+    }
+
+    /**
+     * @param position позиция в луче, полученная из {@link #getRayStart} и {@link #getRayEnd}.
+     * @return индекс клетки.
+     */
+    public int getSquare(int position) {
+        return raySquares[position];
+    }
+}
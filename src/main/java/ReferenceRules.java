@@ -0,0 +1,230 @@
+import java.util.ArrayList;
+import java.util.Comparator;
+
+/**
+ * Эталонная реализация правил переворота фишек через ряды клеток доски.
+ * Медленная, но простая: используется для проверки быстрых представлений {@link BoardEngine} в {@link Perft}.
+ */
+public class ReferenceRules {
+    /**
+     * Возвращает клетки, которые замкнуты клеткой с некоторой фишкой.
+     * @param board доска.
+     * @param cell замыкающая с одной стороны клетка.
+     * @param diskColor цвет фишки.
+     * @return клетки, которые замкнуты клеткой с фишкой заданного цвета.
+     */
+    public static ArrayList<Cell> getClosedCells(Board board, Cell cell, DiskColor diskColor) {
+        ArrayList<Cell> closedCells = new ArrayList<>();
+        ArrayList<Cell> horizontalRow = getHorizontalRow(board, cell.getPositionY());
+        int horizontalIndex = cell.getPositionX();
+
+        ArrayList<Cell> verticalRow = getVerticalRow(board, cell.getPositionX());
+        int verticalIndex = cell.getPositionY();
+
+        ArrayList<Cell> diagonalRow = getDiagonalRow(board, cell.getPositionX(), cell.getPositionY());
+        int diagonalIndex = getIndexInRow(diagonalRow, cell);
+
+        ArrayList<Cell> sideDiagonalRow = getSideDiagonalRow(board, cell.getPositionX(), cell.getPositionY());
+        int sideDiagonalIndex = getIndexInRow(sideDiagonalRow, cell);
+
+        closedCells.addAll(getClosedCellsInRow(horizontalRow, horizontalIndex, diskColor));
+        closedCells.addAll(getClosedCellsInRow(verticalRow, verticalIndex, diskColor));
+        closedCells.addAll(getClosedCellsInRow(diagonalRow, diagonalIndex, diskColor));
+        closedCells.addAll(getClosedCellsInRow(sideDiagonalRow, sideDiagonalIndex, diskColor));
+
+        return closedCells;
+    }
+
+    /**
+     * Проверяет, можно ли поставить фишку в клетку.
+     * @param board доска.
+     * @param cell пустая клетка.
+     * @param diskColor цвет фишки.
+     * @return {@code true}, если фишка замкнёт хотя бы одну фишку противника.
+     */
+    public static boolean isPossibleStep(Board board, Cell cell, DiskColor diskColor) {
+        ArrayList<Cell> horizontalRow = getHorizontalRow(board, cell.getPositionY());
+        int horizontalIndex = cell.getPositionX();
+
+        ArrayList<Cell> verticalRow = getVerticalRow(board, cell.getPositionX());
+        int verticalIndex = cell.getPositionY();
+
+        ArrayList<Cell> diagonalRow = getDiagonalRow(board, cell.getPositionX(), cell.getPositionY());
+        int diagonalIndex = getIndexInRow(diagonalRow, cell);
+
+        ArrayList<Cell> sideDiagonalRow = getSideDiagonalRow(board, cell.getPositionX(), cell.getPositionY());
+        int sideDiagonalIndex = getIndexInRow(sideDiagonalRow, cell);
+
+        return hasClosingCell(horizontalRow, horizontalIndex, diskColor)
+                || hasClosingCell(verticalRow, verticalIndex, diskColor)
+                || hasClosingCell(diagonalRow, diagonalIndex, diskColor)
+                || hasClosingCell(sideDiagonalRow, sideDiagonalIndex, diskColor);
+    }
+
+    /**
+     * Проверяет, есть ли в ряду замыкающая клетка хотя бы с одной стороны.
+     * @param row ряд клеток.
+     * @param diskPosition позиция клетки с поставленной фишкой.
+     * @param diskColor цвет фишки.
+     * @return {@code true}, если замыкающая клетка есть.
+     */
+    private static boolean hasClosingCell(ArrayList<Cell> row, int diskPosition, DiskColor diskColor) {
+        return getClosingCellIndex(row, diskPosition, diskColor, -1) != -1
+                || getClosingCellIndex(row, diskPosition, diskColor, 1) != -1;
+    }
+
+    /**
+     * Возвращает позицию замыкающей клетки относитльно ряда или {@code -1}, если клетка не была найдена.
+     * @param row ряд, в котором нужно найти замыкающую клетку.
+     * @param diskPosition позиция клетки с поставленной фишкой.
+     * @param diskColor цвет фишки.
+     * @param direction направление поиска: {@code -1} или {@code 1}.
+     * @return позиция замыкающей клетки относитльно ряда или {@code -1}, если клетка не была найдена.
+     */
+    private static int getClosingCellIndex(ArrayList<Cell> row, int diskPosition, DiskColor diskColor,
+                                           int direction) {
+        int position = diskPosition + direction;
+        while (position >= 0 && position < row.size()) {
+            DiskColor diskColor1 = row.get(position).getDisk();
+            if (diskColor == diskColor1 && Math.abs(position - diskPosition) > 1) {
+                return position;
+            } else if (diskColor1 == DiskColor.NONE || diskColor == diskColor1) {
+                break;
+            } else {
+                position += direction;
+            }
+        }
+
+        return -1;
+    }
+
+    /**
+     * Возвращает замкнутые клтеки в некотором ряду с обеих сторон от клетки.
+     * @param row ряд,в котором нужно найти замкнутые клетки.
+     * @param index позиция клетки, которая с одной стороны замыкает другие клетки.
+     * @param diskColor цвет фишки, в клеткии на позции {@code index}
+     * @return замкнутые клтеки в некотором ряду
+     */
+    private static ArrayList<Cell> getClosedCellsInRow(ArrayList<Cell> row, int index, DiskColor diskColor) {
+        ArrayList<Cell> closedCells = new ArrayList<>();
+        for (int direction = -1; direction <= 1; direction += 2) {
+            int closingCellIndex = getClosingCellIndex(row, index, diskColor, direction);
+            if (closingCellIndex < 0) {
+                continue;
+            }
+            for (int i = index + direction; i != closingCellIndex; i += direction) {
+                closedCells.add(row.get(i));
+            }
+        }
+
+        return closedCells;
+    }
+
+    /**
+     * Возвращает горизонтальный ряд доски по индексу.
+     * @param board доска.
+     * @param index индекс ряда.
+     * @return ряд с клетками.
+     */
+    private static ArrayList<Cell> getHorizontalRow(Board board, int index) {
+        ArrayList<Cell> horizontalRow = new ArrayList<>();
+        for (int i = 0; i < board.getSize(); ++i) {
+            horizontalRow.add(board.getCell(i, index));
+        }
+
+        return horizontalRow;
+    }
+
+    /**
+     * Возвращает вертикальный ряд доски по индексу.
+     * @param board доска.
+     * @param index индекс ряда.
+     * @return ряд с клетками.
+     */
+    private static ArrayList<Cell> getVerticalRow(Board board, int index) {
+        ArrayList<Cell> verticalRow = new ArrayList<>();
+        for (int i = 0; i < board.getSize(); ++i) {
+            verticalRow.add(board.getCell(index, i));
+        }
+
+        return verticalRow;
+    }
+
+    /**
+     * Составляет ряд из клеток на диагонали по координатам одной клетки.
+     * @param board доска.
+     * @param x координата по оси x.
+     * @param y координата по оси y.
+     * @return ряд из клеток на диагонали.
+     */
+    private static ArrayList<Cell> getDiagonalRow(Board board, int x, int y) {
+        int size = board.getSize();
+        ArrayList<Cell> diagonalRow = new ArrayList<>();
+        int startX = x - 1;
+        int startY = y - 1;
+        while (startY < size && startX < size && startX >= 0 && startY >= 0) {
+            diagonalRow.add(board.getCell(startX, startY));
+            --startX;
+            --startY;
+        }
+
+        startX = x;
+        startY = y;
+        while (startY < size && startX < size && startX >= 0 && startY >= 0) {
+            diagonalRow.add(board.getCell(startX, startY));
+            ++startX;
+            ++startY;
+        }
+
+        diagonalRow.sort(Comparator.comparingInt(Cell::getPositionY));
+        return diagonalRow;
+    }
+
+    /**
+     * Составляет ряд из клеток на побочной диагонали по координатам одной клетки.
+     * @param board доска.
+     * @param x координата по оси x.
+     * @param y координата по оси y.
+     * @return ряд из клеток на побочной диагонали.
+     */
+    private static ArrayList<Cell> getSideDiagonalRow(Board board, int x, int y) {
+        int size = board.getSize();
+        int startX = x;
+        int startY = y;
+        ArrayList<Cell> diagonalRow = new ArrayList<>();
+        while (startY < size && startX < size && startX >= 0 && startY >= 0) {
+            diagonalRow.add(board.getCell(startX, startY));
+            ++startX;
+            --startY;
+        }
+
+        startX = x - 1;
+        startY = y + 1;
+        while (startY < size && startX < size && startX >= 0 && startY >= 0) {
+            diagonalRow.add(board.getCell(startX, startY));
+            --startX;
+            ++startY;
+        }
+
+        diagonalRow.sort(Comparator.comparingInt(Cell::getPositionY));
+        return diagonalRow;
+    }
+
+    /**
+     * Возвращает индекс клетки в некотором ряду клеток.
+     * @param row ряд клеток.
+     * @param cell клетка, индекс которой нужно найти.
+     * @return позиция клетки или {@code -1}, если клетка не была найдена.
+     */
+    private static int getIndexInRow(ArrayList<Cell> row, Cell cell) {
+        int i = 0;
+        for (Cell cell1: row) {
+            if (cell1.getPositionX() == cell.getPositionX() && cell1.getPositionY() == cell.getPositionY()) {
+                return i;
+            }
+            ++i;
+        }
+
+        return -1;
+    }
+}
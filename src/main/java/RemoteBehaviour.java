@@ -0,0 +1,41 @@
+/**
+ * Поведение игрока, который играет по сети. Ход приходит из сокета раньше, чем его спрашивают,
+ * поэтому {@link #makeDecision(Board, DiskColor)} не ждёт ввода, а возвращает последний полученный ход.
+ * @see GameServer
+ */
+public class RemoteBehaviour implements Behaviour {
+    private Decision receivedDecision;
+
+    /**
+     * Запоминает ход, полученный от удалённого игрока.
+     * @param square индекс клетки {@code y * size + x}.
+     * @param size размер доски.
+     */
+    public void receiveStep(int square, int size) {
+        receivedDecision = new Decision(Action.STEP, square % size, square / size);
+    }
+
+    /**
+     * Возвращает полученный ход или пропуск, если хода нет или ход невозможен.
+     * Полученный ход используется один раз.
+     * @param board доска, на которой проходит игра.
+     * @param diskColor цвет фишки, которой нужно совершить ход.
+     * @return объект-решение, которое было принято.
+     */
+    @Override
+    public Decision makeDecision(Board board, DiskColor diskColor) {
+        Decision decision = receivedDecision;
+        receivedDecision = null;
+        if (decision == null) {
+            return new Decision(Action.SKIP);
+        }
+
+        for (Cell step : board.getAvailableSteps(diskColor)) {
+            if (step.getPositionX() == decision.getCoordinateX() && step.getPositionY() == decision.getCoordinateY()) {
+                return decision;
+            }
+        }
+
+        return new Decision(Action.SKIP);
+    }
+}
@@ -8,8 +8,35 @@ public class ReversiGame {
     private Player player2;
     private int bestScorePlayer1 = -1;
     private int bestScorePlayer2 = -1;
+    /**
+     * Оба игрока подряд не смогли сделать ход.
+     */
+    private boolean isBothPassed;
+    /**
+     * Игрок, проигравший по времени, или {@code null}.
+     */
+    private Player lostOnTime;
+    private final BoardRenderer renderer;
+    private final TimeControl timeControl;
 
     public ReversiGame() {
+        this(new TextBoardRenderer(BoardRenderer.createConsoleStream()));
+    }
+
+    /**
+     * @param renderer отрисовщик доски и сообщений партии.
+     */
+    public ReversiGame(BoardRenderer renderer) {
+        this(renderer, new TimeControl(0, 0));
+    }
+
+    /**
+     * @param renderer отрисовщик доски и сообщений партии.
+     * @param timeControl контроль времени партий; боты принимают решения к сроку, который он отводит.
+     */
+    public ReversiGame(BoardRenderer renderer, TimeControl timeControl) {
+        this.renderer = renderer;
+        this.timeControl = timeControl;
         board = new Board(8, true);
         board.initialize();
     }
@@ -28,9 +55,15 @@ public class ReversiGame {
             }
 
             initialize(menuAction);
+            isBothPassed = false;
+            lostOnTime = null;
+            timeControl.reset();
             while (!isGameFinished()) {
                 update();
             }
+            // Каждая партия создаёт новых игроков, поэтому потоки ботов освобождаются сразу после неё.
+            player1.close();
+            player2.close();
             printFinalMessage();
             updateBestScore();
             menuAction = getMenuAction();
@@ -44,14 +77,18 @@ public class ReversiGame {
      * @param menuAction выбранный пользователем пункт в меню.
      */
     private void initialize(MenuAction menuAction) {
-        player1 = new Player(new HumanBehaviour(), DiskColor.BLACK);
+        player1 = new Player(new HumanBehaviour(renderer), DiskColor.BLACK);
         currentPlayer = player1;
+        // Боты создаются через фабрику, чтобы при включённых метриках их решения тоже учитывались.
         if (menuAction == MenuAction.PLAY_EASY_BOT) {
-            player2 = new Player(new EasyBotBehaviour(), DiskColor.WHITE);
+            player2 = new Player(BehaviourFactory.create("easy"), DiskColor.WHITE);
         } else if (menuAction == MenuAction.PLAY_HARD_BOT) {
-            player2 = new Player(new HardBotBehaviour(), DiskColor.WHITE);
+            player2 = new Player(BehaviourFactory.create("hard"), DiskColor.WHITE);
+        } else if (menuAction == MenuAction.PLAY_EXPERT_BOT) {
+            player2 = new Player(BehaviourFactory.create("search:" + SearchBotBehaviour.DEFAULT_TIME_BUDGET_MILLIS
+                    + ":" + Runtime.getRuntime().availableProcessors()), DiskColor.WHITE);
         } else {
-            player2 = new Player(new HumanBehaviour(), DiskColor.WHITE);
+            player2 = new Player(new HumanBehaviour(renderer), DiskColor.WHITE);
             board.setStepBackAllowed(false);
         }
     }
@@ -73,15 +110,15 @@ public class ReversiGame {
     private void update() {
         board.setDisplayPossibleSteps(!currentPlayer.isBot(), currentPlayer.getDiskColor());
 
-        System.out.println(board);
+        renderer.render(board);
         printScore();
         if (currentPlayer.isBot()) {
             printMessageCenteredOnBoard("Bot makes a step now\n");
         }
 
-        if (board.getAvailableSteps(currentPlayer.getDiskColor()).isEmpty()) {
+        if (!board.hasAvailableSteps(currentPlayer.getDiskColor())) {
             if (!currentPlayer.isBot()) {
-                System.out.println("Player " + (currentPlayer == player1 ? "1" : "2") + " skip a step," +
+                renderer.prompt("Player " + (currentPlayer == player1 ? "1" : "2") + " skip a step," +
                         " because no steps available. Press enter to continue.");
                 ReadEnter();
             }
@@ -89,22 +126,49 @@ public class ReversiGame {
         }
 
         Decision decision = new Decision(Action.SKIP);
+        timeControl.startMove();
+        long deadline = timeControl.getDeadline(currentPlayer.getDiskColor(), board.getEmptyAmount());
         while (decision.getAction() != Action.STEP) {
             if (!currentPlayer.isBot()) {
                 printStepMessage();
             }
 
-            decision = currentPlayer.makeStep(board);
+            // Всё накопленное должно быть на экране до ввода игрока или долгого хода бота.
+            renderer.flush();
+            decision = currentPlayer.makeStep(board, deadline);
             if (decision.getAction() == Action.UNDO) {
                 board.restorePreviousStep();
                 board.restorePreviousStep();
 
-                System.out.println(board);
+                renderer.render(board);
                 printScore();
+                startPondering();
             }
         }
+        // Боты, которые решают синхронно (см. Behaviour.startDecision), могут не уложиться в срок;
+        // время с их часов списывается, но по времени проигрывает только человек.
+        if (!timeControl.finishMove(currentPlayer.getDiskColor()) && !currentPlayer.isBot()) {
+            lostOnTime = currentPlayer;
+            return;
+        }
 
         changeCurrentPlayer();
+        // Ходы текущего игрока запоминаются доской и будут использованы на следующем ходу.
+        isBothPassed = !board.hasAvailableSteps(currentPlayer.getDiskColor())
+                && !board.hasAvailableSteps(currentPlayer.getDiskColor().getOpposite());
+        if (!isGameFinished()) {
+            startPondering();
+        }
+    }
+
+    /**
+     * Если ходит человек, а его противник бот, бот обдумывает позицию, пока человек выбирает ход.
+     */
+    private void startPondering() {
+        Player opponent = currentPlayer == player1 ? player2 : player1;
+        if (!currentPlayer.isBot() && opponent.isBot()) {
+            opponent.startPondering(board);
+        }
     }
 
     /**
@@ -125,7 +189,7 @@ public class ReversiGame {
     private void printMessageCenteredOnBoard(String message) {
         int boardDisplaySize = 4 * board.getSize() + 1;
         int messageHalfLength = message.length() / 2;
-        System.out.println(" ".repeat(boardDisplaySize / 2 - messageHalfLength + 3) + message);
+        renderer.println(" ".repeat(boardDisplaySize / 2 - messageHalfLength + 3) + message);
     }
 
     /**
@@ -133,36 +197,36 @@ public class ReversiGame {
      * @return {@code true}, если игра закончилась, {@code false} иначе.
      */
     private boolean isGameFinished() {
-        int blackScore = board.getDiskAmount(DiskColor.BLACK);
-        int whiteScore = board.getDiskAmount(DiskColor.WHITE);
-        return blackScore + whiteScore == 64 || Math.min(blackScore, whiteScore) == 0
-                || (board.getAvailableSteps(DiskColor.BLACK).isEmpty()
-                && board.getAvailableSteps(DiskColor.WHITE).isEmpty());
+        return isBothPassed || lostOnTime != null || board.isFinalPosition();
     }
 
     /**
      * Выводит сообщение перед шагом игрока.
      */
     private void printStepMessage() {
-        System.out.println("Now player " + (currentPlayer == player1 ? "1" : "2") + " is making a move");
+        renderer.println("Now player " + (currentPlayer == player1 ? "1" : "2") + " is making a move");
     }
 
     /**
      * Выводит заключительное сообщение.
      */
     private void printFinalMessage() {
+        renderer.render(board);
         printMessageCenteredOnBoard("GAME OVER");
-        System.out.println(board);
         printScore();
         int blackScore = board.getDiskAmount(DiskColor.BLACK);
         int whiteScore = board.getDiskAmount(DiskColor.WHITE);
-        if (blackScore > whiteScore) {
+        if (lostOnTime != null) {
+            printMessageCenteredOnBoard("Player " + (lostOnTime == player1 ? "1 (Black disks)" : "2 (White disks)")
+                    + " lost on time\n");
+        } else if (blackScore > whiteScore) {
             printMessageCenteredOnBoard("Player 1 (Black disks) win!!!\n");
         } else if (whiteScore > blackScore) {
             printMessageCenteredOnBoard("Player 2 (White disks) win!!!\n");
         } else {
             printMessageCenteredOnBoard("Draw: both players have the same score\n");
         }
+        renderer.flush();
     }
 
     /**
@@ -185,6 +249,10 @@ public class ReversiGame {
         int blackScore = board.getDiskAmount(DiskColor.BLACK);
         int whiteScore = board.getDiskAmount(DiskColor.WHITE);
         printMessageCenteredOnBoard("black: " + blackScore + " | white: " + whiteScore + "\n");
+        if (timeControl.isEnabled()) {
+            printMessageCenteredOnBoard("clock black: " + timeControl.format(DiskColor.BLACK)
+                    + " | white: " + timeControl.format(DiskColor.WHITE) + "\n");
+        }
     }
 
     /**
@@ -214,9 +282,10 @@ public class ReversiGame {
                 Select an action to continue:
                 1. Play with easy bot
                 2. Play with hard bot
-                3. Play with another person
-                4. Print best score
-                5. Exit from game
+                3. Play with expert bot
+                4. Play with another person
+                5. Print best score
+                6. Exit from game
                 Please, enter selected action.""");
 
         boolean isCorrectInput = false;
@@ -224,7 +293,7 @@ public class ReversiGame {
         do {
             System.out.print(">> ");
             Scanner scanner = new Scanner(System.in);
-            String pattern = "[1-5]";
+            String pattern = "[1-6]";
             try {
                 input = scanner.next(pattern);
                 isCorrectInput = true;
@@ -238,8 +307,10 @@ public class ReversiGame {
         } else if ("2".equals(input)) {
             return MenuAction.PLAY_HARD_BOT;
         } else if ("3".equals(input)){
-            return MenuAction.PLAY_HUMAN;
+            return MenuAction.PLAY_EXPERT_BOT;
         } else if ("4".equals(input)){
+            return MenuAction.PLAY_HUMAN;
+        } else if ("5".equals(input)){
             return MenuAction.PRINT_BEST_SCORE;
         } else {
             return MenuAction.EXIT;
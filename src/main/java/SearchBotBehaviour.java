@@ -0,0 +1,189 @@
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.IntConsumer;
+
+/**
+ * Класс, описывающий поведение бота уровня эксперта, который выбирает ход перебором.
+ * @see SearchEngine
+ */
+public class SearchBotBehaviour implements Behaviour {
+    public static final long DEFAULT_TIME_BUDGET_MILLIS = 1000;
+
+    private final SearchEngine searchEngine;
+    /**
+     * Книга дебютов или {@code null}, если её нет.
+     * @see OpeningBook#getDefault()
+     */
+    private final OpeningBook openingBook = OpeningBook.getDefault();
+    /**
+     * Поток для обдумывания во время хода противника и для решений в фоне; создаётся при первом использовании.
+     */
+    private ExecutorService executor;
+    /**
+     * Текущее обдумывание или решение в фоне либо {@code null}, если их нет.
+     */
+    private Future<?> backgroundTask;
+    /**
+     * Флаг остановки перебора в {@link #backgroundTask}.
+     */
+    private AtomicBoolean backgroundStopFlag;
+
+    public SearchBotBehaviour() {
+        this(DEFAULT_TIME_BUDGET_MILLIS);
+    }
+
+    /**
+     * Конструирует бота с заданным временем на ход.
+     * @param timeBudgetMillis время на выбор хода в миллисекундах.
+     */
+    public SearchBotBehaviour(long timeBudgetMillis) {
+        this(timeBudgetMillis, 1);
+    }
+
+    /**
+     * Конструирует бота с заданным временем на ход, который ищет ход в несколько потоков.
+     * @param timeBudgetMillis время на выбор хода в миллисекундах.
+     * @param threadsAmount количество потоков поиска.
+     */
+    public SearchBotBehaviour(long timeBudgetMillis, int threadsAmount) {
+        searchEngine = new SearchEngine(timeBudgetMillis, SearchEngine.DEFAULT_MAX_DEPTH,
+                new TranspositionTable(), threadsAmount);
+    }
+
+    /**
+     * Метод для принятия решения о следующем ходе для бота уровня эксперта.
+     * @param board доска, на которой проходит игра.
+     * @param diskColor цвет фишки, которой нужно совершить ход.
+     * @return объект-решение, которое было принято.
+     * @see Decision объект-решение
+     */
+    @Override
+    public Decision makeDecision(Board board, DiskColor diskColor) {
+        stopPondering();
+        return decide(board, diskColor, Long.MAX_VALUE, null, new AtomicBoolean());
+    }
+
+    /**
+     * Ищет ход в фоновом потоке. Лучший ход каждой завершённой итерации перебора сразу становится
+     * лучшим решением; отмена останавливает перебор.
+     * @param board доска, на которой проходит игра. Копируется.
+     * @param diskColor цвет фишки, которой нужно совершить ход.
+     * @param deadlineNanos момент, к которому нужно решение; перебор заканчивается не позже него.
+     * @return решение, принимаемое в фоне.
+     */
+    @Override
+    public DecisionHandle startDecision(Board board, DiskColor diskColor, long deadlineNanos) {
+        stopPondering();
+        // Отмена поднимает флаг только этого перебора, поэтому она не остановит следующее решение,
+        // а отмена до начала перебора не потеряется.
+        AtomicBoolean stopFlag = new AtomicBoolean();
+        DecisionHandle handle = new DecisionHandle(DecisionHandle.getQuickDecision(board, diskColor),
+                () -> stopFlag.set(true));
+        Board boardCopy = board.getBoardCopy();
+        backgroundStopFlag = stopFlag;
+        backgroundTask = getExecutor().submit(() -> {
+            if (!handle.isDone()) {
+                handle.complete(decide(boardCopy, diskColor, deadlineNanos, handle, stopFlag));
+            }
+        });
+
+        return handle;
+    }
+
+    private Decision decide(Board board, DiskColor diskColor, long deadlineNanos, DecisionHandle handle,
+                            AtomicBoolean stopFlag) {
+        int size = board.getSize();
+        int step = openingBook == null ? -1 : openingBook.findStep(board, diskColor);
+        if (step < 0) {
+            IntConsumer listener = handle == null ? null : bestStep -> handle.update(toDecision(bestStep, size));
+            step = searchEngine.findBestStep(board, diskColor, deadlineNanos, listener, stopFlag);
+        }
+
+        return toDecision(step, size);
+    }
+
+    private static Decision toDecision(int step, int size) {
+        if (step < 0) {
+            return new Decision(Action.SKIP);
+        }
+        return new Decision(Action.STEP, step % size, step / size);
+    }
+
+    /**
+     * Перебирает позицию противника в фоновом потоке. Оценки ответов на все его ходы попадают в общую
+     * таблицу транспозиций, поэтому после настоящего хода противника поиск продолжается с уже
+     * просмотренного поддерева, а время на ход остаётся прежним.
+     * @param board доска, на которой ходит противник. Копируется.
+     * @param diskColor цвет фишек бота.
+     */
+    @Override
+    public void startPondering(Board board, DiskColor diskColor) {
+        stopPondering();
+        Board boardCopy = board.getBoardCopy();
+        DiskColor opponentColor = diskColor.getOpposite();
+        AtomicBoolean stopFlag = new AtomicBoolean();
+        backgroundStopFlag = stopFlag;
+        backgroundTask = getExecutor().submit(() -> searchEngine.ponder(boardCopy, opponentColor, stopFlag));
+    }
+
+    /**
+     * Останавливает обдумывание или отменённое решение в фоне, если оно ещё не закончилось, и ждёт окончания.
+     */
+    @Override
+    public void stopPondering() {
+        if (backgroundTask == null) {
+            return;
+        }
+
+        backgroundStopFlag.set(true);
+        boolean isInterrupted = false;
+        while (!backgroundTask.isDone()) {
+            try {
+                backgroundTask.get();
+            } catch (ExecutionException ignored) {
+            } catch (InterruptedException e) {
+                isInterrupted = true;
+            }
+        }
+        backgroundTask = null;
+        backgroundStopFlag = null;
+        if (isInterrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Останавливает фоновый перебор и потоки бота.
+     */
+    @Override
+    public void close() {
+        stopPondering();
+        if (executor != null) {
+            executor.shutdownNow();
+            executor = null;
+        }
+        searchEngine.close();
+    }
+
+    private ExecutorService getExecutor() {
+        if (executor == null) {
+            executor = Executors.newSingleThreadExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "search-bot");
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+        return executor;
+    }
+
+    /**
+     * Возвращает поиск, которым пользуется бот, чтобы узнать глубину и количество узлов последнего поиска.
+     * @return поиск бота.
+     */
+    public SearchEngine getSearchEngine() {
+        return searchEngine;
+    }
+}
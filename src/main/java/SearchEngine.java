@@ -0,0 +1,570 @@
+import java.util.ArrayList;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.IntConsumer;
+
+/**
+ * Класс, выбирающий ход перебором в форме negamax с альфа-бета отсечением и поиском с нулевым окном
+ * (principal variation search). Глубина перебора увеличивается итеративно, пока не истечёт время.
+ * Поиск может выполняться в несколько потоков по схеме Lazy SMP: потоки независимо перебирают одно
+ * и то же дерево и обмениваются результатами через общую таблицу транспозиций.
+ */
+public class SearchEngine implements AutoCloseable {
+    /**
+     * Оценка выигранной позиции, к которой прибавляется разница в количестве фишек.
+     */
+    public static final int WIN_SCORE = 1_000_000;
+    public static final int DEFAULT_MAX_DEPTH = 64;
+
+    private static final int INFINITY = 2 * WIN_SCORE;
+    private static final int MOBILITY_WEIGHT = 5;
+    private static final int CORNER_WEIGHT = 25;
+    /**
+     * Через сколько узлов проверяется, не истекло ли время. Должно быть степенью двойки.
+     */
+    private static final int TIME_CHECK_INTERVAL = 1024;
+
+    private final long timeBudgetMillis;
+    private final int maxDepth;
+    private final TranspositionTable transpositionTable;
+    private final PatternEvaluator patternEvaluator = PatternEvaluator.getDefault();
+    private final int threadsAmount;
+    /**
+     * Пул потоков для параллельного поиска или {@code null}, если поиск однопоточный.
+     */
+    private final ForkJoinPool pool;
+    /**
+     * Упорядочивание ходов каждого потока поиска. Сохраняется между вызовами, чтобы таблица истории
+     * переносилась в следующую позицию партии.
+     */
+    private final MoveOrdering[] moveOrderings;
+
+    private long deadline;
+    /**
+     * Флаг остановки текущего перебора. У каждого перебора свой флаг, поэтому остановка одного
+     * перебора не задевает следующий.
+     */
+    private volatile AtomicBoolean currentStopFlag = new AtomicBoolean();
+    /**
+     * Получатель лучшего хода каждой завершённой итерации или {@code null}.
+     */
+    private IntConsumer bestStepListener;
+    private long nodes;
+    private int depthReached;
+    private int lastScore;
+    private long elapsedNanos;
+
+    /**
+     * Конструирует поиск с ограничением по времени.
+     * @param timeBudgetMillis время на выбор хода в миллисекундах.
+     */
+    public SearchEngine(long timeBudgetMillis) {
+        this(timeBudgetMillis, DEFAULT_MAX_DEPTH);
+    }
+
+    /**
+     * Конструирует поиск с ограничением по времени и глубине.
+     * @param timeBudgetMillis время на выбор хода в миллисекундах.
+     * @param maxDepth максимальная глубина перебора.
+     */
+    public SearchEngine(long timeBudgetMillis, int maxDepth) {
+        this(timeBudgetMillis, maxDepth, new TranspositionTable());
+    }
+
+    /**
+     * Конструирует поиск с ограничением по времени и глубине и заданной таблицей транспозиций.
+     * Таблица сохраняется между вызовами {@link #findBestStep(Board, DiskColor)}.
+     * @param timeBudgetMillis время на выбор хода в миллисекундах.
+     * @param maxDepth максимальная глубина перебора.
+     * @param transpositionTable таблица транспозиций.
+     */
+    public SearchEngine(long timeBudgetMillis, int maxDepth, TranspositionTable transpositionTable) {
+        this(timeBudgetMillis, maxDepth, transpositionTable, 1);
+    }
+
+    /**
+     * Конструирует многопоточный поиск.
+     * @param timeBudgetMillis время на выбор хода в миллисекундах.
+     * @param maxDepth максимальная глубина перебора.
+     * @param transpositionTable таблица транспозиций, общая для всех потоков.
+     * @param threadsAmount количество потоков поиска.
+     */
+    public SearchEngine(long timeBudgetMillis, int maxDepth, TranspositionTable transpositionTable,
+                        int threadsAmount) {
+        this.timeBudgetMillis = timeBudgetMillis;
+        this.maxDepth = maxDepth;
+        this.transpositionTable = transpositionTable;
+        this.threadsAmount = Math.max(1, threadsAmount);
+        pool = this.threadsAmount > 1 ? new ForkJoinPool(this.threadsAmount) : null;
+        moveOrderings = new MoveOrdering[this.threadsAmount];
+    }
+
+    public int getThreadsAmount() {
+        return threadsAmount;
+    }
+
+    /**
+     * Возвращает глубину последней полностью завершённой итерации поиска.
+     * @return глубина перебора.
+     */
+    public int getDepthReached() {
+        return depthReached;
+    }
+
+    /**
+     * Возвращает оценку лучшего хода на последней полностью завершённой итерации поиска.
+     * @return оценка с точки зрения игрока, который делал ход, или {@code 0}, если перебора не было.
+     */
+    public int getLastScore() {
+        return lastScore;
+    }
+
+    /**
+     * Возвращает количество узлов, просмотренных при последнем поиске.
+     * @return количество узлов.
+     */
+    public long getNodes() {
+        return nodes;
+    }
+
+    /**
+     * Возвращает скорость последнего поиска.
+     * @return количество узлов в секунду по всем потокам.
+     */
+    public long getNodesPerSecond() {
+        return elapsedNanos == 0 ? 0 : nodes * 1_000_000_000 / elapsedNanos;
+    }
+
+    /**
+     * Находит лучший ход для фишки заданного цвета.
+     * @param board доска, на которой проходит игра. Не изменяется.
+     * @param diskColor цвет фишки, которой нужно совершить ход.
+     * @return индекс клетки {@code y * size + x} или {@code -1}, если ходов нет.
+     */
+    public int findBestStep(Board board, DiskColor diskColor) {
+        return findBestStep(board, diskColor, Long.MAX_VALUE, null, new AtomicBoolean());
+    }
+
+    /**
+     * Находит лучший ход, заканчивая поиск не позже заданного момента, и сообщает о лучшем ходе
+     * после каждой завершённой итерации.
+     * @param board доска, на которой проходит игра. Не изменяется.
+     * @param diskColor цвет фишки, которой нужно совершить ход.
+     * @param deadlineNanos момент по {@link System#nanoTime()}, когда поиск должен закончиться, даже если
+     *                      время на ход ещё не истекло, или {@link Long#MAX_VALUE}.
+     * @param bestStepListener получатель лучшего хода или {@code null}. Вызывается в потоке поиска:
+     *                         сначала с первым ходом после упорядочивания, затем после каждой итерации.
+     * @param stopFlag флаг остановки этого перебора. Если он уже поднят, поиск сразу возвращает первый ход
+     *                 после упорядочивания.
+     * @return индекс клетки {@code y * size + x} или {@code -1}, если ходов нет.
+     */
+    public int findBestStep(Board board, DiskColor diskColor, long deadlineNanos, IntConsumer bestStepListener,
+                            AtomicBoolean stopFlag) {
+        this.bestStepListener = bestStepListener;
+        try {
+            return search(board, diskColor, timeBudgetMillis * 1_000_000, deadlineNanos, stopFlag);
+        } finally {
+            this.bestStepListener = null;
+        }
+    }
+
+    /**
+     * Перебирает позицию без ограничения по времени, пока не будет поднят флаг остановки или не будет
+     * достигнута максимальная глубина. Результаты остаются в таблице транспозиций, поэтому следующий
+     * {@link #findBestStep(Board, DiskColor)} в позиции из этого дерева начинается с готовых оценок.
+     * Вызывать одновременно с {@link #findBestStep(Board, DiskColor)} нельзя.
+     * @param board доска, на которой проходит игра. Не изменяется.
+     * @param diskColor цвет фишки, которой нужно совершить ход.
+     * @param stopFlag флаг остановки этого перебора.
+     * @return лучший ход, найденный до остановки, или {@code -1}, если ходов нет.
+     */
+    public int ponder(Board board, DiskColor diskColor, AtomicBoolean stopFlag) {
+        return search(board, diskColor, Long.MAX_VALUE, Long.MAX_VALUE, stopFlag);
+    }
+
+    /**
+     * Очищает упорядочивание ходов всех потоков поиска, чтобы следующий поиск не зависел от позиций,
+     * которые поиск перебирал раньше. Вместе с очисткой таблицы транспозиций делает результат
+     * поиска на заданную глубину воспроизводимым. Вызывать одновременно с поиском нельзя.
+     */
+    public void clearMoveOrdering() {
+        for (MoveOrdering moveOrdering : moveOrderings) {
+            if (moveOrdering != null) {
+                moveOrdering.clear();
+            }
+        }
+    }
+
+    /**
+     * Останавливает текущий перебор. Метод можно вызывать из любого потока. Вызов до начала перебора
+     * его не остановит; чтобы отменить определённый перебор, нужно поднять его собственный флаг остановки.
+     */
+    public void stop() {
+        currentStopFlag.set(true);
+    }
+
+    /**
+     * Останавливает потоки параллельного поиска. После закрытия поиском пользоваться нельзя.
+     */
+    @Override
+    public void close() {
+        if (pool != null) {
+            pool.shutdownNow();
+        }
+    }
+
+    private int search(Board board, DiskColor diskColor, long timeBudgetNanos, long deadlineNanos,
+                       AtomicBoolean stopFlag) {
+        long start = System.nanoTime();
+        deadline = Math.min(timeBudgetNanos == Long.MAX_VALUE ? Long.MAX_VALUE : start + timeBudgetNanos,
+                deadlineNanos);
+        currentStopFlag = stopFlag;
+        nodes = 0;
+        depthReached = 0;
+        lastScore = 0;
+        elapsedNanos = 0;
+
+        int squaresAmount = board.getSize() * board.getSize();
+        int emptyAmount = squaresAmount - board.getDiskAmount(DiskColor.BLACK) - board.getDiskAmount(DiskColor.WHITE);
+        int depthLimit = Math.max(1, Math.min(maxDepth, emptyAmount));
+
+        SearchWorker mainWorker = new SearchWorker(0, board, diskColor, depthLimit, stopFlag);
+        if (bestStepListener != null && mainWorker.bestStep >= 0) {
+            bestStepListener.accept(mainWorker.bestStep);
+        }
+        if (mainWorker.rootCount <= 1) {
+            return mainWorker.bestStep;
+        }
+
+        if (pool == null) {
+            mainWorker.call();
+            nodes = mainWorker.nodes;
+        } else {
+            ArrayList<SearchWorker> workers = new ArrayList<>(threadsAmount);
+            workers.add(mainWorker);
+            for (int id = 1; id < threadsAmount; ++id) {
+                workers.add(new SearchWorker(id, board, diskColor, depthLimit, stopFlag));
+            }
+            pool.invokeAll(workers);
+            for (SearchWorker worker : workers) {
+                nodes += worker.nodes;
+            }
+        }
+        depthReached = mainWorker.depthReached;
+        lastScore = mainWorker.bestScore;
+        elapsedNanos = System.nanoTime() - start;
+        // Обдумывание в показатели не попадает: у него нет ограничения по времени.
+        if (Metrics.ENABLED && timeBudgetNanos != Long.MAX_VALUE) {
+            Metrics.recordSearch(nodes, depthReached, elapsedNanos);
+        }
+
+        return mainWorker.bestStep;
+    }
+
+    /**
+     * Поток поиска со своей копией доски и буферами. Результат поиска определяет поток с номером {@code 0},
+     * остальные потоки только заполняют таблицу транспозиций.
+     */
+    private class SearchWorker implements Callable<Void> {
+        private final int id;
+        private final Board board;
+        private final DiskColor diskColor;
+        private final int depthLimit;
+        private final AtomicBoolean stopFlag;
+        /**
+         * Буферы для ходов на каждом уровне перебора, чтобы не создавать объекты в процессе поиска.
+         */
+        private final int[][] stepsBuffers;
+        private final MoveOrdering moveOrdering;
+        private final int rootCount;
+        private long nodes = 0;
+        private int depthReached = 0;
+        private int bestStep;
+        private int bestScore = 0;
+        /**
+         * Оценка лучшего хода последней итерации, заполняется в {@link #searchRoot(int, int[], int)}.
+         */
+        private int rootScore;
+
+        /**
+         * Конструирует поток поиска.
+         * @param id номер потока.
+         * @param board доска, на которой проходит игра. Не изменяется.
+         * @param diskColor цвет фишки, которой нужно совершить ход.
+         * @param depthLimit максимальная глубина перебора.
+         * @param stopFlag флаг остановки перебора.
+         */
+        SearchWorker(int id, Board board, DiskColor diskColor, int depthLimit, AtomicBoolean stopFlag) {
+            this.id = id;
+            this.stopFlag = stopFlag;
+            this.board = board.getBoardCopy();
+            this.board.setStepBackAllowed(true);
+            this.diskColor = diskColor;
+            this.depthLimit = depthLimit;
+            int squaresAmount = board.getSize() * board.getSize();
+            // Пас не уменьшает глубину, но два паса подряд заканчивают игру, поэтому уровней не больше 2 * глубина + 1.
+            stepsBuffers = new int[2 * depthLimit + 2][squaresAmount];
+            moveOrdering = getMoveOrdering(id, board.getSize(), stepsBuffers.length - 1);
+            rootCount = this.board.getAvailableSteps(diskColor, stepsBuffers[0]);
+            moveOrdering.order(stepsBuffers[0], rootCount, -1, 0, diskColor);
+            bestStep = rootCount == 0 ? -1 : stepsBuffers[0][0];
+        }
+
+        @Override
+        public Void call() {
+            int[] rootSteps = stepsBuffers[0];
+            // Вспомогательные потоки начинают с другого хода и с другой глубины,
+            // чтобы заполнять таблицу транспозиций позициями, до которых основной поток ещё не дошёл.
+            if (id > 0) {
+                moveToFront(rootSteps, rootCount, rootSteps[id % rootCount]);
+            }
+            for (int depth = 1 + (id & 1); depth <= depthLimit; ++depth) {
+                int step = searchRoot(depth, rootSteps, rootCount);
+                if (stopFlag.get()) {
+                    break;
+                }
+                bestStep = step;
+                bestScore = rootScore;
+                depthReached = depth;
+                moveToFront(rootSteps, rootCount, bestStep);
+                if (id == 0 && bestStepListener != null) {
+                    bestStepListener.accept(bestStep);
+                }
+            }
+            if (id == 0) {
+                stopFlag.set(true);
+            }
+
+            return null;
+        }
+
+        /**
+         * Перебирает ходы из корня дерева.
+         * @param depth глубина перебора.
+         * @param steps доступные ходы, лучший ход предыдущей итерации стоит первым.
+         * @param count количество доступных ходов.
+         * @return лучший ход на этой глубине.
+         */
+        private int searchRoot(int depth, int[] steps, int count) {
+            int alpha = -INFINITY;
+            int depthBestStep = steps[0];
+            for (int i = 0; i < count; ++i) {
+                makeStep(steps[i], diskColor);
+                int score;
+                if (i == 0) {
+                    score = -negamax(diskColor.getOpposite(), depth - 1, 1, -INFINITY, -alpha, false);
+                } else {
+                    score = -negamax(diskColor.getOpposite(), depth - 1, 1, -alpha - 1, -alpha, false);
+                    if (score > alpha) {
+                        score = -negamax(diskColor.getOpposite(), depth - 1, 1, -INFINITY, -alpha, false);
+                    }
+                }
+                board.restorePreviousStep();
+
+                if (stopFlag.get()) {
+                    return depthBestStep;
+                }
+                if (score > alpha) {
+                    alpha = score;
+                    depthBestStep = steps[i];
+                }
+            }
+            rootScore = alpha;
+
+            return depthBestStep;
+        }
+
+        /**
+         * Оценивает позицию перебором с альфа-бета отсечением.
+         * @param diskColor цвет фишки, которой нужно совершить ход.
+         * @param depth оставшаяся глубина перебора.
+         * @param ply расстояние от корня дерева.
+         * @param alpha нижняя граница оценки.
+         * @param beta верхняя граница оценки.
+         * @param isPassed пропустил ли ход предыдущий игрок.
+         * @return оценка позиции с точки зрения игрока, который делает ход.
+         */
+        private int negamax(DiskColor diskColor, int depth, int ply, int alpha, int beta, boolean isPassed) {
+            if ((++nodes & (TIME_CHECK_INTERVAL - 1)) == 0 && System.nanoTime() > deadline) {
+                stopFlag.set(true);
+            }
+            if (stopFlag.get()) {
+                return 0;
+            }
+            if (depth == 0) {
+                return evaluate(diskColor);
+            }
+
+            long key = board.getHash() ^ Zobrist.getSideKey(diskColor);
+            long entry = transpositionTable.probe(key);
+            int tableStep = -1;
+            if (entry != 0) {
+                tableStep = TranspositionTable.getBestStep(entry);
+                if (TranspositionTable.getDepth(entry) >= depth) {
+                    int score = TranspositionTable.getScore(entry);
+                    int bound = TranspositionTable.getBound(entry);
+                    if (bound == TranspositionTable.BOUND_EXACT
+                            || (bound == TranspositionTable.BOUND_LOWER && score >= beta)
+                            || (bound == TranspositionTable.BOUND_UPPER && score <= alpha)) {
+                        return score;
+                    }
+                }
+            }
+
+            int[] steps = stepsBuffers[ply];
+            int count = board.getAvailableSteps(diskColor, steps);
+            if (count == 0) {
+                if (isPassed) {
+                    return getFinalScore(diskColor);
+                }
+                return -negamax(diskColor.getOpposite(), depth, ply + 1, -beta, -alpha, true);
+            }
+            moveOrdering.order(steps, count, tableStep, ply, diskColor);
+
+            int originalAlpha = alpha;
+            int bestScore = -INFINITY;
+            int bestStep = steps[0];
+            for (int i = 0; i < count; ++i) {
+                makeStep(steps[i], diskColor);
+                int score;
+                if (i == 0) {
+                    score = -negamax(diskColor.getOpposite(), depth - 1, ply + 1, -beta, -alpha, false);
+                } else {
+                    score = -negamax(diskColor.getOpposite(), depth - 1, ply + 1, -alpha - 1, -alpha, false);
+                    if (score > alpha && score < beta) {
+                        score = -negamax(diskColor.getOpposite(), depth - 1, ply + 1, -beta, -alpha, false);
+                    }
+                }
+                board.restorePreviousStep();
+
+                if (stopFlag.get()) {
+                    return 0;
+                }
+                if (score > bestScore) {
+                    bestScore = score;
+                    bestStep = steps[i];
+                    if (score > alpha) {
+                        alpha = score;
+                        if (alpha >= beta) {
+                            moveOrdering.recordCutoff(bestStep, ply, depth, diskColor);
+                            break;
+                        }
+                    }
+                }
+            }
+
+            int bound = TranspositionTable.BOUND_EXACT;
+            if (bestScore <= originalAlpha) {
+                bound = TranspositionTable.BOUND_UPPER;
+            } else if (bestScore >= beta) {
+                bound = TranspositionTable.BOUND_LOWER;
+            }
+            transpositionTable.store(key, depth, bound, bestScore, bestStep);
+
+            return bestScore;
+        }
+
+        /**
+         * Эвристически оценивает позицию: на доске 8x8 по шаблонам, на остальных досках
+         * по подвижности, занятым углам и количеству фишек.
+         * @param diskColor цвет фишки, с точки зрения которой оценивается позиция.
+         * @return оценка позиции.
+         * @see PatternEvaluator
+         */
+        private int evaluate(DiskColor diskColor) {
+            if (PatternEvaluator.isSupported(board)) {
+                return patternEvaluator.evaluate(board, diskColor);
+            }
+
+            DiskColor otherDiskColor = diskColor.getOpposite();
+            int mobility = board.getAvailableStepsAmount(diskColor) - board.getAvailableStepsAmount(otherDiskColor);
+
+            int last = board.getSize() - 1;
+            int corners = getCornerRate(board.getCell(0, 0), diskColor)
+                    + getCornerRate(board.getCell(last, 0), diskColor)
+                    + getCornerRate(board.getCell(0, last), diskColor)
+                    + getCornerRate(board.getCell(last, last), diskColor);
+
+            int disks = board.getDiskAmount(diskColor) - board.getDiskAmount(otherDiskColor);
+            return MOBILITY_WEIGHT * mobility + CORNER_WEIGHT * corners + disks;
+        }
+
+        /**
+         * Возвращает точную оценку законченной игры.
+         * @param diskColor цвет фишки, с точки зрения которой оценивается позиция.
+         * @return оценка позиции.
+         */
+        private int getFinalScore(DiskColor diskColor) {
+            int difference = board.getDiskAmount(diskColor) - board.getDiskAmount(diskColor.getOpposite());
+            if (difference > 0) {
+                return WIN_SCORE + difference;
+            } else if (difference < 0) {
+                return -WIN_SCORE + difference;
+            }
+            return 0;
+        }
+
+        /**
+         * Делает ход по индексу клетки.
+         * @param square индекс клетки.
+         * @param diskColor цвет фишки.
+         */
+        private void makeStep(int square, DiskColor diskColor) {
+            board.makeStep(square % board.getSize(), square / board.getSize(), diskColor);
+        }
+    }
+
+    /**
+     * Возвращает упорядочивание ходов потока поиска, подготовленное к новому перебору.
+     * @param id номер потока.
+     * @param size размер доски.
+     * @param maxPly наибольшее расстояние от корня.
+     * @return упорядочивание ходов.
+     */
+    private MoveOrdering getMoveOrdering(int id, int size, int maxPly) {
+        MoveOrdering moveOrdering = moveOrderings[id];
+        if (moveOrdering == null || moveOrdering.getSize() != size || moveOrdering.getMaxPly() < maxPly) {
+            moveOrdering = new MoveOrdering(size, Math.max(maxPly, 2 * maxDepth + 1));
+            moveOrderings[id] = moveOrdering;
+        } else {
+            moveOrdering.startSearch();
+        }
+
+        return moveOrdering;
+    }
+
+    /**
+     * Возвращает вклад угловой клетки в оценку позиции.
+     * @param cell угловая клетка.
+     * @param diskColor цвет фишки, с точки зрения которой оценивается позиция.
+     * @return {@code 1}, если угол занят своей фишкой, {@code -1}, если чужой, иначе {@code 0}.
+     */
+    private int getCornerRate(Cell cell, DiskColor diskColor) {
+        if (cell.getDisk() == DiskColor.NONE) {
+            return 0;
+        }
+        return cell.getDisk() == diskColor ? 1 : -1;
+    }
+
+    /**
+     * Переставляет ход в начало списка, сохраняя порядок остальных ходов.
+     * Если хода нет в списке, список не изменяется.
+     * @param steps список ходов.
+     * @param count количество ходов.
+     * @param step ход, который нужно переставить.
+     */
+    private static void moveToFront(int[] steps, int count, int step) {
+        int i = 0;
+        while (i < count && steps[i] != step) {
+            ++i;
+        }
+        if (i == count) {
+            return;
+        }
+        for (; i > 0; --i) {
+            steps[i] = steps[i - 1];
+        }
+        steps[0] = step;
+    }
+}
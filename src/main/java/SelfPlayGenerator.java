@@ -0,0 +1,150 @@
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Path;
+import java.util.SplittableRandom;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Supplier;
+
+/**
+ * Игра бота с самим собой для получения позиций с известным исходом партии, на которых настраиваются
+ * веса оценки (см. {@link EvaluationTuner}). Партии начинаются со случайного дебюта, чтобы позиции
+ * не повторялись, играются параллельно на пуле потоков и дописываются в файл записей партий
+ * {@link GameRecordWriter} по мере окончания.
+ */
+public class SelfPlayGenerator {
+    public static final int DEFAULT_OPENING_PLIES = 8;
+
+    private final Supplier<Behaviour> behaviourFactory;
+    private final int threadsAmount;
+    private final int openingPlies;
+    private final long seed;
+
+    /**
+     * @param behaviourFactory фабрика поведений, которые играют за обе стороны.
+     * @param threadsAmount количество одновременно играемых партий.
+     * @param openingPlies количество случайных ходов дебюта.
+     * @param seed начальное значение генератора дебютов.
+     */
+    public SelfPlayGenerator(Supplier<Behaviour> behaviourFactory, int threadsAmount, int openingPlies, long seed) {
+        this.behaviourFactory = behaviourFactory;
+        this.threadsAmount = Math.max(1, threadsAmount);
+        this.openingPlies = openingPlies;
+        this.seed = seed;
+    }
+
+    /**
+     * Играет партии и дописывает их в файл.
+     * @param gamesAmount количество партий.
+     * @param output файл записей партий; если он есть, партии добавляются в конец.
+     * @param out поток для вывода хода работы или {@code null}.
+     * @throws IOException если файл не удалось записать.
+     */
+    public void run(int gamesAmount, Path output, PrintStream out) throws IOException {
+        // Поведения всех потоков, чтобы закрыть их после игры.
+        ConcurrentLinkedQueue<Behaviour> createdBehaviours = new ConcurrentLinkedQueue<>();
+        ThreadLocal<Behaviour> behaviours = ThreadLocal.withInitial(() -> {
+            Behaviour behaviour = behaviourFactory.get();
+            createdBehaviours.add(behaviour);
+            return behaviour;
+        });
+        ExecutorService executor = Executors.newFixedThreadPool(threadsAmount);
+        CompletionService<GameRecord> completionService = new ExecutorCompletionService<>(executor);
+        try (GameRecordWriter writer = GameRecordWriter.open(output)) {
+            for (int game = 0; game < gamesAmount; ++game) {
+                long gameSeed = seed + game;
+                completionService.submit(() -> play(behaviours.get(), gameSeed));
+            }
+
+            for (int game = 1; game <= gamesAmount; ++game) {
+                writer.append(completionService.take().get());
+                if (out != null && (game % 100 == 0 || game == gamesAmount)) {
+                    out.printf("%d games written%n", game);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Игра была прервана", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new IllegalStateException(e.getCause());
+        } finally {
+            executor.shutdownNow();
+            createdBehaviours.forEach(Behaviour::close);
+        }
+    }
+
+    /**
+     * Играет одну партию: случайный дебют, затем ходы бота за обе стороны.
+     * @param behaviour поведение потока.
+     * @param gameSeed начальное значение генератора дебюта.
+     * @return запись партии.
+     */
+    private GameRecord play(Behaviour behaviour, long gameSeed) {
+        SplittableRandom random = new SplittableRandom(gameSeed);
+        Board board = new Board(BitBoard.SIZE, false);
+        board.initialize();
+        int[] squares = new int[BitBoard.SIZE * BitBoard.SIZE];
+        int[] steps = new int[BitBoard.SIZE * BitBoard.SIZE];
+        int stepsAmount = 0;
+        DiskColor diskColor = DiskColor.BLACK;
+        boolean isPassed = false;
+        while (true) {
+            int available = board.getAvailableSteps(diskColor, squares);
+            if (available == 0) {
+                if (isPassed) {
+                    break;
+                }
+                isPassed = true;
+            } else {
+                isPassed = false;
+                int step;
+                if (stepsAmount < openingPlies) {
+                    step = squares[random.nextInt(available)];
+                } else {
+                    Decision decision = behaviour.makeDecision(board, diskColor);
+                    if (decision.getAction() != Action.STEP) {
+                        throw new IllegalStateException("Бот не сделал ход, хотя ходы есть:\n" + board);
+                    }
+                    step = decision.getCoordinateY() * BitBoard.SIZE + decision.getCoordinateX();
+                }
+                board.makeStep(step % BitBoard.SIZE, step / BitBoard.SIZE, diskColor);
+                steps[stepsAmount++] = step;
+            }
+            diskColor = diskColor.getOpposite();
+        }
+
+        return new GameRecord(BitBoard.SIZE, steps, stepsAmount, board.getDiskAmount(DiskColor.BLACK),
+                board.getDiskAmount(DiskColor.WHITE));
+    }
+
+    /**
+     * Аргументы: файл записей партий, количество партий, поведение, количество потоков,
+     * количество ходов случайного дебюта и начальное значение генератора.
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length < 1) {
+            System.out.println("Usage: SelfPlayGenerator <records> [games] [behaviour] [threads] [opening plies]"
+                    + " [seed]");
+            return;
+        }
+
+        int gamesAmount = args.length > 1 ? Integer.parseInt(args[1]) : 1000;
+        String behaviourName = args.length > 2 ? args[2] : "pattern";
+        int threadsAmount = args.length > 3 ? Integer.parseInt(args[3]) : Runtime.getRuntime().availableProcessors();
+        int openingPlies = args.length > 4 ? Integer.parseInt(args[4]) : DEFAULT_OPENING_PLIES;
+        long seed = args.length > 5 ? Long.parseLong(args[5]) : System.nanoTime();
+
+        SelfPlayGenerator generator = new SelfPlayGenerator(BehaviourFactory.getFactory(behaviourName),
+                threadsAmount, openingPlies, seed);
+        long start = System.nanoTime();
+        generator.run(gamesAmount, Path.of(args[0]), System.out);
+        System.out.printf("%d games in %.1f s%n", gamesAmount, (System.nanoTime() - start) / 1e9);
+    }
+}
@@ -0,0 +1,20 @@
+/**
+ * Отрисовщик для запуска без консоли: ничего не выводит.
+ */
+public class SilentBoardRenderer implements BoardRenderer {
+    @Override
+    public void render(Board board) {
+    }
+
+    @Override
+    public void println(String message) {
+    }
+
+    @Override
+    public void prompt(String prompt) {
+    }
+
+    @Override
+    public void flush() {
+    }
+}
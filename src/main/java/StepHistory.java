@@ -0,0 +1,92 @@
+import java.util.Arrays;
+
+/**
+ * Класс для хранения истории ходов в виде изменений доски.
+ * Для каждого хода хранится клетка, в которую поставили фишку, и список перевёрнутых фишек.
+ * Данные лежат в массивах примитивов, поэтому запись и отмена хода не создают новых объектов.
+ */
+public class StepHistory {
+    private int[] squares = new int[64];
+    /**
+     * Для хода с номером {@code i} перевёрнутые фишки лежат в {@link #flips}
+     * начиная с позиции {@code flipStarts[i]}.
+     */
+    private int[] flipStarts = new int[64];
+    private int[] flips = new int[256];
+    private int stepsAmount = 0;
+    private int flipsAmount = 0;
+
+    /**
+     * Добавляет в историю новый ход.
+     * @param square индекс клетки, в которую поставили фишку.
+     */
+    public void push(int square) {
+        if (stepsAmount == squares.length) {
+            squares = Arrays.copyOf(squares, stepsAmount * 2);
+            flipStarts = Arrays.copyOf(flipStarts, stepsAmount * 2);
+        }
+        squares[stepsAmount] = square;
+        flipStarts[stepsAmount] = flipsAmount;
+        ++stepsAmount;
+    }
+
+    /**
+     * Добавляет перевёрнутую фишку к последнему ходу.
+     * @param square индекс клетки с перевёрнутой фишкой.
+     */
+    public void addFlip(int square) {
+        if (flipsAmount == flips.length) {
+            flips = Arrays.copyOf(flips, flipsAmount * 2);
+        }
+        flips[flipsAmount++] = square;
+    }
+
+    /**
+     * Удаляет из истории последний ход.
+     */
+    public void pop() {
+        --stepsAmount;
+        flipsAmount = flipStarts[stepsAmount];
+    }
+
+    public boolean isEmpty() {
+        return stepsAmount == 0;
+    }
+
+    public int getStepsAmount() {
+        return stepsAmount;
+    }
+
+    /**
+     * Возвращает индекс клетки, в которую была поставлена фишка последним ходом.
+     * @return индекс клетки.
+     */
+    public int getLastSquare() {
+        return squares[stepsAmount - 1];
+    }
+
+    /**
+     * Возвращает позицию первой перевёрнутой последним ходом фишки.
+     * @return позиция для {@link #getFlip(int)}.
+     */
+    public int getLastFlipsStart() {
+        return flipStarts[stepsAmount - 1];
+    }
+
+    /**
+     * Возвращает позицию после последней перевёрнутой фишки.
+     * @return позиция для {@link #getFlip(int)}.
+     */
+    public int getLastFlipsEnd() {
+        return flipsAmount;
+    }
+
+    /**
+     * Возвращает индекс клетки с перевёрнутой фишкой.
+     * @param position позиция в истории.
+     * @return индекс клетки.
+     */
+    public int getFlip(int position) {
+        return flips[position];
+    }
+}
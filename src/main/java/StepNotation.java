@@ -0,0 +1,41 @@
+/**
+ * Текстовая запись клеток в том же виде, в каком их вводит пользователь: номер строки, считая снизу,
+ * и буква столбца, например {@code 5H}.
+ */
+public class StepNotation {
+    /**
+     * Записывает клетку в текстовом виде.
+     * @param square индекс клетки {@code y * size + x}.
+     * @param size размер доски.
+     * @return запись клетки, например {@code 5H}.
+     */
+    public static String format(int square, int size) {
+        return String.valueOf(size - square / size) + (char) ('A' + square % size);
+    }
+
+    /**
+     * Разбирает текстовую запись клетки.
+     * @param text запись клетки, буква столбца может быть в любом регистре.
+     * @param size размер доски.
+     * @return индекс клетки {@code y * size + x} или {@code -1}, если запись неверна.
+     */
+    public static int parse(String text, int size) {
+        if (text.length() < 2) {
+            return -1;
+        }
+
+        int x = Character.toUpperCase(text.charAt(text.length() - 1)) - 'A';
+        int row;
+        try {
+            row = Integer.parseInt(text.substring(0, text.length() - 1));
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+        int y = size - row;
+        if (x < 0 || x >= size || y < 0 || y >= size) {
+            return -1;
+        }
+
+        return y * size + x;
+    }
+}
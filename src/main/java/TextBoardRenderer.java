@@ -0,0 +1,36 @@
+import java.io.PrintStream;
+
+/**
+ * Выводит доску целиком, как {@link Board#toString()}, через буферизованный поток.
+ */
+public class TextBoardRenderer implements BoardRenderer {
+    private final PrintStream out;
+
+    /**
+     * @param out поток для вывода; буфер сбрасывается только в {@link #flush()}.
+     */
+    public TextBoardRenderer(PrintStream out) {
+        this.out = out;
+    }
+
+    @Override
+    public void render(Board board) {
+        out.println(board);
+    }
+
+    @Override
+    public void println(String message) {
+        out.println(message);
+    }
+
+    @Override
+    public void prompt(String prompt) {
+        out.print(prompt);
+        out.flush();
+    }
+
+    @Override
+    public void flush() {
+        out.flush();
+    }
+}
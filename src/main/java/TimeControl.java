@@ -0,0 +1,126 @@
+/**
+ * Контроль времени партии: ограничение времени на один ход и часы с запасом времени на всю партию
+ * у каждого игрока. Нулевое ограничение означает, что его нет.
+ * <p>
+ * Боту отводится время до момента, который возвращает {@link #getDeadline(DiskColor, int)}, с запасом.
+ * Боты, которые переопределяют {@link Behaviour#startDecision(Board, DiskColor, long)} и думают в фоне,
+ * укладываются в этот момент. Реализация по умолчанию решает синхронно и срок не учитывает, поэтому
+ * такие боты могут его превысить: {@link ReversiGame} списывает время с их часов, но по времени
+ * проигрывает только человек. Объект хранит состояние часов одной партии и не потокобезопасен.
+ */
+public final class TimeControl {
+    /**
+     * Запас времени на то, чтобы забрать решение бота и сделать ход после отведённого момента.
+     */
+    private static final long MOVE_OVERHEAD_NANOS = 20_000_000;
+
+    private final long moveNanos;
+    private final long gameNanos;
+    /**
+     * Оставшееся время партии для каждого цвета фишек.
+     */
+    private final long[] remainingNanos = new long[2];
+    private long moveStart;
+
+    /**
+     * @param moveMillis время на один ход в миллисекундах или {@code 0}.
+     * @param gameMillis время на всю партию для каждого игрока в миллисекундах или {@code 0}.
+     */
+    public TimeControl(long moveMillis, long gameMillis) {
+        moveNanos = Math.max(0, moveMillis) * 1_000_000;
+        gameNanos = Math.max(0, gameMillis) * 1_000_000;
+        reset();
+    }
+
+    /**
+     * Разбирает контроль времени вида {@code ход[:партия]} в секундах, например {@code 5}
+     * или {@code 0:300} — только пять минут на партию.
+     * @param text описание контроля времени.
+     * @return контроль времени.
+     * @throws IllegalArgumentException если описание неверное.
+     */
+    public static TimeControl parse(String text) {
+        String[] parts = text.split(":");
+        if (parts.length > 2) {
+            throw new IllegalArgumentException("Неверный контроль времени: " + text);
+        }
+        try {
+            long moveMillis = Math.round(Double.parseDouble(parts[0]) * 1000);
+            long gameMillis = parts.length > 1 ? Math.round(Double.parseDouble(parts[1]) * 1000) : 0;
+            return new TimeControl(moveMillis, gameMillis);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Неверный контроль времени: " + text, e);
+        }
+    }
+
+    public boolean isEnabled() {
+        return moveNanos > 0 || gameNanos > 0;
+    }
+
+    /**
+     * Ставит часы обоих игроков на начало партии.
+     */
+    public void reset() {
+        remainingNanos[0] = gameNanos;
+        remainingNanos[1] = gameNanos;
+    }
+
+    /**
+     * Запускает часы игрока, который начинает думать над ходом.
+     */
+    public void startMove() {
+        moveStart = System.nanoTime();
+    }
+
+    /**
+     * Возвращает момент, к которому бот должен принять решение. Запас партии делится поровну
+     * на оставшиеся ходы игрока.
+     * @param diskColor цвет фишек игрока, который ходит.
+     * @param emptyAmount количество пустых клеток на доске.
+     * @return момент по {@link System#nanoTime()} или {@link Long#MAX_VALUE}, если времени не ограничено.
+     */
+    public long getDeadline(DiskColor diskColor, int emptyAmount) {
+        if (!isEnabled()) {
+            return Long.MAX_VALUE;
+        }
+
+        long allowedNanos = Long.MAX_VALUE;
+        if (moveNanos > 0) {
+            allowedNanos = moveNanos;
+        }
+        if (gameNanos > 0) {
+            int movesLeft = Math.max(1, (emptyAmount + 1) / 2);
+            allowedNanos = Math.min(allowedNanos, remainingNanos[diskColor.ordinal()] / movesLeft);
+        }
+        return moveStart + Math.max(0, allowedNanos - MOVE_OVERHEAD_NANOS);
+    }
+
+    /**
+     * Останавливает часы игрока и списывает потраченное время.
+     * @param diskColor цвет фишек игрока, который сделал ход.
+     * @return {@code false}, если игрок превысил время на ход или на партию.
+     */
+    public boolean finishMove(DiskColor diskColor) {
+        long elapsed = System.nanoTime() - moveStart;
+        if (!isEnabled()) {
+            return true;
+        }
+
+        long remaining = remainingNanos[diskColor.ordinal()] -= elapsed;
+        return (moveNanos == 0 || elapsed <= moveNanos) && (gameNanos == 0 || remaining >= 0);
+    }
+
+    /**
+     * Возвращает состояние часов игрока для вывода.
+     * @param diskColor цвет фишек игрока.
+     * @return оставшееся время партии в виде {@code м:сс.с} или ограничение на ход, если часов партии нет.
+     */
+    public String format(DiskColor diskColor) {
+        if (gameNanos == 0) {
+            return String.format("%.1f s/move", moveNanos / 1e9);
+        }
+
+        long tenths = Math.max(0, remainingNanos[diskColor.ordinal()]) / 100_000_000;
+        return String.format("%d:%02d.%d", tenths / 600, tenths / 10 % 60, tenths % 10);
+    }
+}
@@ -0,0 +1,186 @@
+import java.io.PrintStream;
+import java.util.SplittableRandom;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Supplier;
+
+/**
+ * Матч двух поведений без участия пользователя.
+ * Партии играются парами: обе партии пары начинаются с одного и того же случайного дебюта,
+ * и участники в них меняются цветами. Партии выполняются параллельно на пуле потоков,
+ * у каждого потока свои экземпляры поведений. Результат каждой партии печатается сразу после её окончания.
+ */
+public class Tournament {
+    public static final int DEFAULT_OPENING_PLIES = 6;
+
+    private final Supplier<Behaviour> firstFactory;
+    private final Supplier<Behaviour> secondFactory;
+    private final int threadsAmount;
+    private final int openingPlies;
+    private final long seed;
+
+    /**
+     * @param firstFactory фабрика поведений первого участника.
+     * @param secondFactory фабрика поведений второго участника.
+     * @param threadsAmount количество одновременно играемых партий.
+     * @param openingPlies количество случайных ходов дебюта.
+     * @param seed начальное значение генератора дебютов.
+     */
+    public Tournament(Supplier<Behaviour> firstFactory, Supplier<Behaviour> secondFactory, int threadsAmount,
+                      int openingPlies, long seed) {
+        this.firstFactory = firstFactory;
+        this.secondFactory = secondFactory;
+        this.threadsAmount = Math.max(1, threadsAmount);
+        this.openingPlies = openingPlies;
+        this.seed = seed;
+    }
+
+    /**
+     * Играет матч.
+     * @param gamesAmount количество партий; нечётное количество округляется вверх до пары.
+     * @param out поток для вывода результатов партий или {@code null}.
+     * @return счёт матча с точки зрения первого участника.
+     */
+    public TournamentResult run(int gamesAmount, PrintStream out) {
+        int pairsAmount = (gamesAmount + 1) / 2;
+        // Поведения всех потоков, чтобы закрыть их после матча.
+        ConcurrentLinkedQueue<Behaviour> behaviours = new ConcurrentLinkedQueue<>();
+        ThreadLocal<Behaviour> firstBehaviours = ThreadLocal.withInitial(() -> register(behaviours, firstFactory));
+        ThreadLocal<Behaviour> secondBehaviours = ThreadLocal.withInitial(() -> register(behaviours, secondFactory));
+        ExecutorService executor = Executors.newFixedThreadPool(threadsAmount);
+        CompletionService<int[]> completionService = new ExecutorCompletionService<>(executor);
+        try {
+            for (int pair = 0; pair < pairsAmount; ++pair) {
+                for (int game = 2 * pair; game < 2 * pair + 2; ++game) {
+                    int gameIndex = game;
+                    long openingSeed = seed + pair;
+                    completionService.submit(() -> {
+                        Board board = getOpening(openingSeed);
+                        boolean isFirstBlack = gameIndex % 2 == 0;
+                        Behaviour first = firstBehaviours.get();
+                        Behaviour second = secondBehaviours.get();
+                        int difference = play(board, isFirstBlack ? first : second, isFirstBlack ? second : first);
+                        return new int[] {gameIndex, isFirstBlack ? difference : -difference};
+                    });
+                }
+            }
+
+            TournamentResult result = new TournamentResult();
+            for (int i = 0; i < 2 * pairsAmount; ++i) {
+                int[] game = completionService.take().get();
+                result.add(game[1]);
+                if (out != null) {
+                    out.printf("game %d (first plays %s): %+d, total %s%n", game[0],
+                            game[0] % 2 == 0 ? "black" : "white", game[1], result);
+                }
+            }
+            return result;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Матч был прерван", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new IllegalStateException(e.getCause());
+        } finally {
+            executor.shutdownNow();
+            behaviours.forEach(Behaviour::close);
+        }
+    }
+
+    private static Behaviour register(ConcurrentLinkedQueue<Behaviour> behaviours, Supplier<Behaviour> factory) {
+        Behaviour behaviour = factory.get();
+        behaviours.add(behaviour);
+        return behaviour;
+    }
+
+    /**
+     * Создаёт доску со случайным дебютом. Если случайные ходы привели к концу игры, дебют обрывается.
+     * @param openingSeed начальное значение генератора.
+     * @return доска после дебюта, на которой ходят чёрные при чётном количестве фишек.
+     */
+    private Board getOpening(long openingSeed) {
+        SplittableRandom random = new SplittableRandom(openingSeed);
+        Board board = new Board(8, false);
+        board.initialize();
+        int[] steps = new int[board.getSize() * board.getSize()];
+        DiskColor diskColor = DiskColor.BLACK;
+        for (int ply = 0; ply < openingPlies; ++ply) {
+            int stepsAmount = board.getAvailableSteps(diskColor, steps);
+            if (stepsAmount == 0) {
+                break;
+            }
+            int step = steps[random.nextInt(stepsAmount)];
+            board.makeStep(step % board.getSize(), step / board.getSize(), diskColor);
+            diskColor = diskColor.getOpposite();
+        }
+
+        return board;
+    }
+
+    /**
+     * Доигрывает партию до конца.
+     * @param board доска с дебютом.
+     * @param black поведение игрока чёрными.
+     * @param white поведение игрока белыми.
+     * @return разность количества чёрных и белых фишек в конце партии.
+     */
+    private int play(Board board, Behaviour black, Behaviour white) {
+        Player current = new Player(black, DiskColor.BLACK);
+        Player next = new Player(white, DiskColor.WHITE);
+        if ((board.getDiskAmount(DiskColor.BLACK) + board.getDiskAmount(DiskColor.WHITE)) % 2 == 1) {
+            Player player = current;
+            current = next;
+            next = player;
+        }
+
+        boolean isPassed = false;
+        while (true) {
+            if (!board.hasAvailableSteps(current.getDiskColor())) {
+                if (isPassed) {
+                    break;
+                }
+                isPassed = true;
+            } else {
+                isPassed = false;
+                Decision decision = current.makeStep(board);
+                if (decision.getAction() != Action.STEP) {
+                    throw new IllegalStateException("Бот не сделал ход, хотя ходы есть:\n" + board);
+                }
+            }
+
+            Player player = current;
+            current = next;
+            next = player;
+        }
+
+        return board.getDiskAmount(DiskColor.BLACK) - board.getDiskAmount(DiskColor.WHITE);
+    }
+
+    /**
+     * Аргументы: первое поведение, второе поведение, количество партий, количество потоков,
+     * количество ходов случайного дебюта и начальное значение генератора.
+     * Названия поведений описаны в {@link BehaviourFactory}.
+     */
+    public static void main(String[] args) {
+        if (args.length < 2) {
+            System.out.println("Usage: Tournament <first> <second> [games] [threads] [opening plies] [seed]");
+            return;
+        }
+
+        int gamesAmount = args.length > 2 ? Integer.parseInt(args[2]) : 100;
+        int threadsAmount = args.length > 3 ? Integer.parseInt(args[3]) : Runtime.getRuntime().availableProcessors();
+        int openingPlies = args.length > 4 ? Integer.parseInt(args[4]) : DEFAULT_OPENING_PLIES;
+        long seed = args.length > 5 ? Long.parseLong(args[5]) : System.nanoTime();
+
+        Tournament tournament = new Tournament(BehaviourFactory.getFactory(args[0]),
+                BehaviourFactory.getFactory(args[1]), threadsAmount, openingPlies, seed);
+        TournamentResult result = tournament.run(gamesAmount, System.out);
+        System.out.println(args[0] + " vs " + args[1] + ": " + result);
+    }
+}
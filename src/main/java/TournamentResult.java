@@ -0,0 +1,119 @@
+/**
+ * Счёт матча первого участника против второго и оценка разницы их рейтингов Эло.
+ * Объект не потокобезопасен: результаты партий добавляются из одного потока.
+ */
+public class TournamentResult {
+    /**
+     * Квантиль нормального распределения для 95% доверительного интервала.
+     */
+    private static final double CONFIDENCE_QUANTILE = 1.96;
+
+    private int wins;
+    private int draws;
+    private int losses;
+
+    /**
+     * Добавляет результат партии.
+     * @param diskDifference разность количества фишек первого и второго участника в конце партии.
+     */
+    public void add(int diskDifference) {
+        if (diskDifference > 0) {
+            ++wins;
+        } else if (diskDifference < 0) {
+            ++losses;
+        } else {
+            ++draws;
+        }
+    }
+
+    public int getWins() {
+        return wins;
+    }
+
+    public int getDraws() {
+        return draws;
+    }
+
+    public int getLosses() {
+        return losses;
+    }
+
+    public int getGamesAmount() {
+        return wins + draws + losses;
+    }
+
+    /**
+     * @return средний результат первого участника: 1 за победу, 0.5 за ничью.
+     */
+    public double getScore() {
+        return getGamesAmount() == 0 ? 0.5 : (wins + 0.5 * draws) / getGamesAmount();
+    }
+
+    /**
+     * Возвращает разницу рейтингов Эло первого и второго участника. Если один участник выиграл все партии,
+     * разница бесконечна, поэтому результат считается так, будто он отдал половину партии:
+     * тогда это оценка снизу.
+     * @return разница рейтингов Эло первого и второго участника.
+     */
+    public double getElo() {
+        int games = getGamesAmount();
+        if (games == 0) {
+            return 0;
+        }
+
+        double bound = 0.5 / games;
+        return toElo(Math.max(bound, Math.min(1 - bound, getScore())));
+    }
+
+    /**
+     * Проверяет, что один из участников выиграл все партии и погрешность разницы рейтингов не определена.
+     * @return {@code true}, если партии были и все их выиграл один участник.
+     */
+    public boolean isWhitewash() {
+        int games = getGamesAmount();
+        return games > 0 && (wins == games || losses == games);
+    }
+
+    /**
+     * Возвращает половину ширины 95% доверительного интервала разницы рейтингов.
+     * Интервал строится по нормальному приближению среднего результата партии
+     * и переводится в рейтинг через логистическую кривую.
+     * @return погрешность разницы рейтингов Эло; бесконечность, если партий нет или один участник
+     *         выиграл все партии.
+     */
+    public double getEloError() {
+        int games = getGamesAmount();
+        if (games == 0 || isWhitewash()) {
+            return Double.POSITIVE_INFINITY;
+        }
+
+        double score = getScore();
+        double variance = (wins * Math.pow(1 - score, 2) + draws * Math.pow(0.5 - score, 2)
+                + losses * Math.pow(score, 2)) / games;
+        double margin = CONFIDENCE_QUANTILE * Math.sqrt(variance / games);
+        // Интервал не должен выходить за 0 и 1, где рейтинг бесконечен.
+        double bound = 0.5 / games;
+        return (toElo(Math.min(1 - bound, score + margin)) - toElo(Math.max(bound, score - margin))) / 2;
+    }
+
+    private static double toElo(double score) {
+        if (score <= 0) {
+            return Double.NEGATIVE_INFINITY;
+        }
+        if (score >= 1) {
+            return Double.POSITIVE_INFINITY;
+        }
+
+        return 400 * Math.log10(score / (1 - score));
+    }
+
+    @Override
+    public String toString() {
+        if (isWhitewash()) {
+            return String.format("+%d =%d -%d, score %.1f%%, Elo %s %+.1f", wins, draws, losses,
+                    100 * getScore(), wins > 0 ? ">" : "<", getElo());
+        }
+        return String.format("+%d =%d -%d, score %.1f%%, Elo %+.1f +/- %.1f", wins, draws, losses,
+                100 * getScore(), getElo(), getEloError());
+    }
+}
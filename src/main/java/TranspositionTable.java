@@ -0,0 +1,121 @@
+import java.util.Arrays;
+
+/**
+ * Таблица транспозиций фиксированного размера для сохранения результатов перебора.
+ * Таблица разбита на корзины по две записи: первая заменяется только записью с не меньшей глубиной,
+ * вторая заменяется всегда. Записи хранятся в массивах примитивов: ключ и упакованные в {@code long}
+ * оценка, лучший ход, глубина и тип оценки.
+ * <p>
+ * Таблицу можно использовать из нескольких потоков без блокировок: вместо ключа хранится
+ * {@code key ^ entry}, поэтому запись, которую одновременно изменяли два потока, просто не найдётся.
+ */
+public class TranspositionTable {
+    public static final int BOUND_EXACT = 0;
+    public static final int BOUND_LOWER = 1;
+    public static final int BOUND_UPPER = 2;
+    public static final int DEFAULT_SIZE_MEGABYTES = 16;
+
+    private static final int ENTRY_BYTES = 16;
+    private static final int MOVE_SHIFT = 32;
+    private static final int DEPTH_SHIFT = 48;
+    private static final int BOUND_SHIFT = 56;
+    /**
+     * Бит, отличающий занятую запись от пустой.
+     */
+    private static final long VALID_BIT = 1L << 63;
+
+    private final long[] keys;
+    private final long[] entries;
+    private final int bucketMask;
+
+    public TranspositionTable() {
+        this(DEFAULT_SIZE_MEGABYTES);
+    }
+
+    /**
+     * Конструирует таблицу заданного объёма.
+     * @param sizeMegabytes объём таблицы в мегабайтах.
+     */
+    public TranspositionTable(int sizeMegabytes) {
+        long entriesAmount = Math.max(2, (long) sizeMegabytes * 1024 * 1024 / ENTRY_BYTES);
+        int buckets = Integer.highestOneBit((int) Math.min(entriesAmount / 2, 1 << 30));
+        keys = new long[buckets * 2];
+        entries = new long[buckets * 2];
+        bucketMask = buckets - 1;
+    }
+
+    /**
+     * Ищет запись для позиции.
+     * @param key хеш позиции.
+     * @return упакованная запись или {@code 0}, если позиции нет в таблице.
+     */
+    public long probe(long key) {
+        int index = getBucketIndex(key);
+        long entry = entries[index];
+        if (entry == 0 || (keys[index] ^ entry) != key) {
+            entry = entries[index + 1];
+            if (entry != 0 && (keys[index + 1] ^ entry) != key) {
+                entry = 0;
+            }
+        }
+        if (Metrics.ENABLED) {
+            Metrics.recordTableProbe(entry != 0);
+        }
+
+        return entry;
+    }
+
+    /**
+     * Сохраняет результат перебора позиции.
+     * @param key хеш позиции.
+     * @param depth глубина перебора.
+     * @param bound тип оценки: {@link #BOUND_EXACT}, {@link #BOUND_LOWER} или {@link #BOUND_UPPER}.
+     * @param score оценка позиции.
+     * @param bestStep лучший ход или {@code -1}, если его нет.
+     */
+    public void store(long key, int depth, int bound, int score, int bestStep) {
+        long entry = VALID_BIT
+                | ((long) bound << BOUND_SHIFT)
+                | ((long) Math.min(depth, 0xff) << DEPTH_SHIFT)
+                | ((long) (bestStep + 1) << MOVE_SHIFT)
+                | (score & 0xffffffffL);
+
+        int index = getBucketIndex(key);
+        long current = entries[index];
+        if (current == 0 || (keys[index] ^ current) == key || depth >= getDepth(current)) {
+            keys[index] = key ^ entry;
+            entries[index] = entry;
+        } else {
+            keys[index + 1] = key ^ entry;
+            entries[index + 1] = entry;
+        }
+    }
+
+    /**
+     * Очищает таблицу.
+     */
+    public void clear() {
+        Arrays.fill(keys, 0);
+        Arrays.fill(entries, 0);
+    }
+
+    public static int getScore(long entry) {
+        return (int) entry;
+    }
+
+    public static int getBestStep(long entry) {
+        return (int) ((entry >>> MOVE_SHIFT) & 0xffff) - 1;
+    }
+
+    public static int getDepth(long entry) {
+        return (int) ((entry >>> DEPTH_SHIFT) & 0xff);
+    }
+
+    public static int getBound(long entry) {
+        return (int) ((entry >>> BOUND_SHIFT) & 0x3);
+    }
+
+    private int getBucketIndex(long key) {
+        return ((int) (key ^ (key >>> 32)) & bucketMask) * 2;
+    }
+}
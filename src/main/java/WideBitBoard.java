@@ -0,0 +1,345 @@
+/**
+ * Представление доски размера больше 8x8 в виде битовых масок, составленных из массивов {@code long}.
+ * Клетка с координатами (x, y) соответствует биту {@code y * size + x}, который лежит в слове
+ * {@code square / 64}. Ходы ищутся сдвигами масок сразу по всем клеткам с масками краёв доски,
+ * как в {@link BitBoard}, но цепочки фишек противника заполняются удваивающимися сдвигами (Kogge-Stone):
+ * на доске 32x32 хватает пяти шагов вместо тридцати.
+ * Перевороты после одного хода лежат на восьми лучах от клетки, поэтому они ищутся обходом {@link RayTable}
+ * с проверкой битов. Объект не потокобезопасен: промежуточные маски хранятся в полях.
+ */
+public class WideBitBoard implements BoardEngine {
+    /**
+     * Наибольший поддерживаемый размер доски: сдвиг на {@code size + 1} должен помещаться в одно слово.
+     */
+    public static final int MAX_SIZE = 32;
+
+    private final int size;
+    private final int wordsAmount;
+    private final RayTable rays;
+    /**
+     * Сдвиги для четырёх направлений: по горизонтали, по вертикали, по диагонали и по побочной диагонали.
+     */
+    private final int[] shifts;
+    /**
+     * Маски клеток, в которые может попасть бит при сдвиге в сторону больших индексов, для каждого направления.
+     * Отсекают перенос через край доски и биты за последней клеткой.
+     */
+    private final long[][] leftMasks;
+    /**
+     * Маски клеток, в которые может попасть бит при сдвиге в сторону меньших индексов, для каждого направления.
+     */
+    private final long[][] rightMasks;
+    private final long[] validMask;
+
+    private final long[] black;
+    private final long[] white;
+
+    private final long[] empty;
+    private final long[] moves;
+    private final long[] line;
+    private final long[] propagator;
+    private final long[] maskedEmpty;
+
+    /**
+     * Конструирует пустую доску.
+     * @param size размер доски, не больше {@link #MAX_SIZE}.
+     */
+    public WideBitBoard(int size) {
+        if (size > MAX_SIZE) {
+            throw new IllegalArgumentException("Размер доски не может быть больше " + MAX_SIZE);
+        }
+
+        this.size = size;
+        wordsAmount = (size * size + Long.SIZE - 1) / Long.SIZE;
+        rays = RayTable.getTable(size);
+        shifts = new int[] {1, size, size + 1, size - 1};
+
+        validMask = new long[wordsAmount];
+        long[] notFirstColumn = new long[wordsAmount];
+        long[] notLastColumn = new long[wordsAmount];
+        for (int square = 0; square < size * size; ++square) {
+            setBit(validMask, square);
+            if (square % size != 0) {
+                setBit(notFirstColumn, square);
+            }
+            if (square % size != size - 1) {
+                setBit(notLastColumn, square);
+            }
+        }
+        leftMasks = new long[][] {notFirstColumn, validMask, notFirstColumn, notLastColumn};
+        rightMasks = new long[][] {notLastColumn, validMask, notLastColumn, notFirstColumn};
+
+        black = new long[wordsAmount];
+        white = new long[wordsAmount];
+        empty = new long[wordsAmount];
+        moves = new long[wordsAmount];
+        line = new long[wordsAmount];
+        propagator = new long[wordsAmount];
+        maskedEmpty = new long[wordsAmount];
+    }
+
+    @Override
+    public void setDisk(int square, DiskColor diskColor) {
+        long bit = 1L << square;
+        int word = square >>> 6;
+        black[word] &= ~bit;
+        white[word] &= ~bit;
+        if (diskColor == DiskColor.BLACK) {
+            black[word] |= bit;
+        } else if (diskColor == DiskColor.WHITE) {
+            white[word] |= bit;
+        }
+    }
+
+    @Override
+    public boolean isPossibleStep(int square, DiskColor diskColor) {
+        long[] player = getDisks(diskColor);
+        long[] opponent = getDisks(diskColor.getOpposite());
+        for (int direction = 0; direction < RayTable.DIRECTIONS_AMOUNT; ++direction) {
+            if (getClosingPosition(square, direction, player, opponent) >= 0) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    @Override
+    public int getAvailableSteps(DiskColor diskColor, int[] squares) {
+        computeMoves(diskColor);
+        int count = 0;
+        for (int word = 0; word < wordsAmount; ++word) {
+            long mask = moves[word];
+            while (mask != 0) {
+                squares[count++] = (word << 6) + Long.numberOfTrailingZeros(mask);
+                mask &= mask - 1;
+            }
+        }
+
+        return count;
+    }
+
+    @Override
+    public int getAvailableStepsAmount(DiskColor diskColor) {
+        computeMoves(diskColor);
+        return bitCount(moves);
+    }
+
+    @Override
+    public int getClosedCells(int square, DiskColor diskColor, int[] squares) {
+        long[] player = getDisks(diskColor);
+        long[] opponent = getDisks(diskColor.getOpposite());
+        int count = 0;
+        for (int direction = 0; direction < RayTable.DIRECTIONS_AMOUNT; ++direction) {
+            int closingPosition = getClosingPosition(square, direction, player, opponent);
+            for (int i = rays.getRayStart(square, direction); i < closingPosition; ++i) {
+                squares[count++] = rays.getSquare(i);
+            }
+        }
+
+        return count;
+    }
+
+    @Override
+    public int getDiskAmount(DiskColor diskColor) {
+        if (diskColor == DiskColor.NONE) {
+            return size * size - bitCount(black) - bitCount(white);
+        }
+
+        return bitCount(getDisks(diskColor));
+    }
+
+    @Override
+    public int getFrontierAmount(DiskColor diskColor) {
+        long[] player = getDisks(diskColor);
+        computeEmpty();
+        for (int word = 0; word < wordsAmount; ++word) {
+            line[word] = 0;
+        }
+        for (int i = 0; i < shifts.length; ++i) {
+            shift(empty, line, shifts[i], leftMasks[i], true);
+            shift(empty, line, -shifts[i], rightMasks[i], true);
+        }
+
+        int amount = 0;
+        for (int word = 0; word < wordsAmount; ++word) {
+            amount += Long.bitCount(line[word] & player[word]);
+        }
+
+        return amount;
+    }
+
+    /**
+     * Вычисляет в {@link #moves} маску клеток, доступных для хода, заполнением вдоль каждого направления.
+     * @param diskColor цвет фишки.
+     */
+    private void computeMoves(DiskColor diskColor) {
+        long[] player = getDisks(diskColor);
+        long[] opponent = getDisks(diskColor.getOpposite());
+        computeEmpty();
+        for (int word = 0; word < wordsAmount; ++word) {
+            moves[word] = 0;
+        }
+
+        for (int i = 0; i < shifts.length; ++i) {
+            addMoves(player, opponent, shifts[i], leftMasks[i]);
+            addMoves(player, opponent, -shifts[i], rightMasks[i]);
+        }
+    }
+
+    /**
+     * Добавляет в {@link #moves} ходы, замыкающие фишки противника в одном направлении.
+     * Маска {@code mask} для одного шага отсекает перенос через край доски, а маска продвижения
+     * для шага длины {@code k} оставляет только клетки, от которых назад идут {@code k} фишек противника,
+     * поэтому длинные сдвиги тоже не переходят через край.
+     * @param shift сдвиг одного шага: положительный в сторону больших индексов.
+     * @param mask маска клеток, в которые можно попасть одним шагом.
+     */
+    private void addMoves(long[] player, long[] opponent, int shift, long[] mask) {
+        and(propagator, opponent, mask);
+        if (shift(player, line, shift, propagator, false) == 0) {
+            return;
+        }
+
+        for (int length = 1; length < size - 2; length *= 2) {
+            shift(line, line, shift * length, propagator, true);
+            if (2 * length < size - 2) {
+                shift(propagator, propagator, shift * length, propagator, false);
+            }
+        }
+
+        and(maskedEmpty, empty, mask);
+        shift(line, moves, shift, maskedEmpty, true);
+    }
+
+    private void computeEmpty() {
+        for (int word = 0; word < wordsAmount; ++word) {
+            empty[word] = ~(black[word] | white[word]) & validMask[word];
+        }
+    }
+
+    /**
+     * Ищет на луче фишку, которая вместе с фишкой в начальной клетке замыкает хотя бы одну фишку противника.
+     * @return позиция замыкающей фишки в луче или {@code -1}, если её нет.
+     */
+    private int getClosingPosition(int square, int direction, long[] player, long[] opponent) {
+        int start = rays.getRayStart(square, direction);
+        int end = rays.getRayEnd(square, direction);
+        for (int i = start; i < end; ++i) {
+            int raySquare = rays.getSquare(i);
+            if (isSet(player, raySquare)) {
+                return i > start ? i : -1;
+            }
+            if (!isSet(opponent, raySquare)) {
+                return -1;
+            }
+        }
+
+        return -1;
+    }
+
+    private long[] getDisks(DiskColor diskColor) {
+        return diskColor == DiskColor.BLACK ? black : white;
+    }
+
+    /**
+     * Записывает в {@code target} маску {@code source}, сдвинутую на {@code shift} бит и умноженную на маску.
+     * Слова обходятся в порядке, при котором {@code target} может совпадать с {@code source} или {@code mask}.
+     * @param shift сдвиг: положительный в сторону больших индексов, отрицательный в сторону меньших.
+     * @param isAccumulated добавить результат к {@code target} вместо того, чтобы заменить его.
+     * @return объединение всех слов результата: ноль, если сдвинутая маска пуста.
+     */
+    private long shift(long[] source, long[] target, int shift, long[] mask, boolean isAccumulated) {
+        if (shift >= Long.SIZE || shift <= -Long.SIZE) {
+            return shiftWords(source, target, shift, mask, isAccumulated);
+        }
+
+        return shift >= 0 ? shiftLeft(source, target, shift, mask, isAccumulated)
+                : shiftRight(source, target, -shift, mask, isAccumulated);
+    }
+
+    /**
+     * Сдвиг в сторону больших индексов меньше чем на слово: самый частый случай, без проверок внутри цикла.
+     */
+    private long shiftLeft(long[] source, long[] target, int bits, long[] mask, boolean isAccumulated) {
+        long result = 0;
+        int inverse = Long.SIZE - bits;
+        for (int word = wordsAmount - 1; word > 0; --word) {
+            long value = ((source[word] << bits) | (source[word - 1] >>> inverse)) & mask[word];
+            result |= value;
+            target[word] = isAccumulated ? target[word] | value : value;
+        }
+        long value = (source[0] << bits) & mask[0];
+        target[0] = isAccumulated ? target[0] | value : value;
+
+        return result | value;
+    }
+
+    /**
+     * Сдвиг в сторону меньших индексов меньше чем на слово.
+     */
+    private long shiftRight(long[] source, long[] target, int bits, long[] mask, boolean isAccumulated) {
+        long result = 0;
+        int inverse = Long.SIZE - bits;
+        int last = wordsAmount - 1;
+        for (int word = 0; word < last; ++word) {
+            long value = ((source[word] >>> bits) | (source[word + 1] << inverse)) & mask[word];
+            result |= value;
+            target[word] = isAccumulated ? target[word] | value : value;
+        }
+        long value = (source[last] >>> bits) & mask[last];
+        target[last] = isAccumulated ? target[last] | value : value;
+
+        return result | value;
+    }
+
+    /**
+     * Сдвиг на слово и больше, который нужен длинным шагам заполнения на больших досках.
+     */
+    private long shiftWords(long[] source, long[] target, int shift, long[] mask, boolean isAccumulated) {
+        int words = Math.abs(shift) >>> 6;
+        int bits = Math.abs(shift) & 63;
+        long result = 0;
+        for (int i = 0; i < wordsAmount; ++i) {
+            int word = shift > 0 ? wordsAmount - 1 - i : i;
+            int from = shift > 0 ? word - words : word + words;
+            int carryFrom = shift > 0 ? from - 1 : from + 1;
+            long value = 0;
+            if (from >= 0 && from < wordsAmount) {
+                value = shift > 0 ? source[from] << bits : source[from] >>> bits;
+                if (bits != 0 && carryFrom >= 0 && carryFrom < wordsAmount) {
+                    value |= shift > 0 ? source[carryFrom] >>> (Long.SIZE - bits)
+                            : source[carryFrom] << (Long.SIZE - bits);
+                }
+            }
+            value &= mask[word];
+            result |= value;
+            target[word] = isAccumulated ? target[word] | value : value;
+        }
+
+        return result;
+    }
+
+    private void and(long[] target, long[] first, long[] second) {
+        for (int word = 0; word < wordsAmount; ++word) {
+            target[word] = first[word] & second[word];
+        }
+    }
+
+    private static int bitCount(long[] mask) {
+        int count = 0;
+        for (long word : mask) {
+            count += Long.bitCount(word);
+        }
+
+        return count;
+    }
+
+    private static boolean isSet(long[] mask, int square) {
+        return (mask[square >>> 6] & (1L << square)) != 0;
+    }
+
+    private static void setBit(long[] mask, int square) {
+        mask[square >>> 6] |= 1L << square;
+    }
+}
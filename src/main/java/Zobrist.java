@@ -0,0 +1,41 @@
+import java.util.SplittableRandom;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Класс со случайными ключами для хеширования позиций методом Зобриста.
+ * Ключи зависят только от размера доски, поэтому хеш одной и той же позиции одинаков при каждом запуске.
+ */
+public class Zobrist {
+    private static final ConcurrentHashMap<Integer, long[]> KEYS = new ConcurrentHashMap<>();
+    /**
+     * Ключ, которым отличаются позиции с ходом белых от позиций с ходом чёрных.
+     */
+    private static final long WHITE_TO_MOVE_KEY = new SplittableRandom(0).nextLong();
+
+    /**
+     * Возвращает ключи для доски заданного размера.
+     * Ключ фишки цвета {@code diskColor} в клетке {@code square} лежит по индексу
+     * {@code square * 2 + diskColor.ordinal()}.
+     * @param size размер доски.
+     * @return массив ключей. Не должен изменяться.
+     */
+    public static long[] getKeys(int size) {
+        return KEYS.computeIfAbsent(size, key -> {
+            SplittableRandom random = new SplittableRandom(size);
+            long[] keys = new long[size * size * 2];
+            for (int i = 0; i < keys.length; ++i) {
+                keys[i] = random.nextLong();
+            }
+            return keys;
+        });
+    }
+
+    /**
+     * Возвращает ключ игрока, который делает ход.
+     * @param diskColor цвет фишки, которой нужно совершить ход.
+     * @return ключ, который нужно объединить с хешем доски через {@code ^}.
+     */
+    public static long getSideKey(DiskColor diskColor) {
+        return diskColor == DiskColor.WHITE ? WHITE_TO_MOVE_KEY : 0;
+    }
+}
@@ -0,0 +1,99 @@
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Random;
+import java.util.TreeSet;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Сравнение быстрых представлений доски с {@link ReferenceRules} в позициях случайных партий.
+ * Размер доски выбирает представление: {@link BitBoard} для 8x8, {@link WideBitBoard} до 32x32,
+ * {@link RayBoard} для остальных.
+ */
+class EngineConsistencyTest {
+    private static final int GAMES_AMOUNT = 4;
+    /**
+     * Сколько полуходов проверяется в партии на большой доске: эталонные правила медленные.
+     */
+    private static final int LARGE_BOARD_PLIES = 48;
+
+    @Test
+    void bitBoardMatchesReferenceRules() {
+        checkRandomGames(8);
+    }
+
+    @Test
+    void wideBitBoardMatchesReferenceRules() {
+        checkRandomGames(10);
+        checkRandomGames(16);
+        checkRandomGames(WideBitBoard.MAX_SIZE);
+    }
+
+    @Test
+    void rayBoardMatchesReferenceRules() {
+        checkRandomGames(6);
+        checkRandomGames(WideBitBoard.MAX_SIZE + 2);
+    }
+
+    private static void checkRandomGames(int size) {
+        int pliesLimit = size <= BitBoard.SIZE ? size * size : LARGE_BOARD_PLIES;
+        for (int game = 0; game < GAMES_AMOUNT; ++game) {
+            Random random = new Random(size * 31L + game);
+            Board board = new Board(size, false);
+            board.initialize();
+            DiskColor diskColor = DiskColor.BLACK;
+            for (int ply = 0; ply < pliesLimit && !board.isFinalPosition(); ++ply) {
+                String position = "size " + size + ", game " + game + ", ply " + ply;
+                checkPosition(board, DiskColor.BLACK, position);
+                checkPosition(board, DiskColor.WHITE, position);
+
+                int[] steps = new int[size * size];
+                int count = board.getAvailableSteps(diskColor, steps);
+                if (count > 0) {
+                    int step = steps[random.nextInt(count)];
+                    board.makeStep(step % size, step / size, diskColor);
+                }
+                diskColor = diskColor.getOpposite();
+            }
+        }
+    }
+
+    private static void checkPosition(Board board, DiskColor diskColor, String position) {
+        int size = board.getSize();
+        TreeSet<Integer> expectedSteps = new TreeSet<>();
+        for (int y = 0; y < size; ++y) {
+            for (int x = 0; x < size; ++x) {
+                Cell cell = board.getCell(x, y);
+                if (cell.getDisk() == DiskColor.NONE && ReferenceRules.isPossibleStep(board, cell, diskColor)) {
+                    expectedSteps.add(y * size + x);
+                }
+            }
+        }
+
+        int[] steps = new int[size * size];
+        int count = board.getAvailableSteps(diskColor, steps);
+        TreeSet<Integer> actualSteps = new TreeSet<>();
+        for (int i = 0; i < count; ++i) {
+            actualSteps.add(steps[i]);
+        }
+        assertEquals(expectedSteps, actualSteps, diskColor + " steps, " + position);
+        assertEquals(expectedSteps.size(), board.getAvailableStepsAmount(diskColor), position);
+        assertEquals(!expectedSteps.isEmpty(), board.hasAvailableSteps(diskColor), position);
+
+        for (int step : expectedSteps) {
+            Cell cell = board.getCell(step % size, step / size);
+            assertEquals(toSquares(ReferenceRules.getClosedCells(board, cell, diskColor), size),
+                    toSquares(board.getClosedCells(cell, diskColor), size),
+                    diskColor + " flips after " + step + ", " + position);
+        }
+    }
+
+    private static TreeSet<Integer> toSquares(ArrayList<Cell> cells, int size) {
+        TreeSet<Integer> squares = new TreeSet<>();
+        for (Cell cell : cells) {
+            squares.add(cell.getPositionY() * size + cell.getPositionX());
+        }
+        return squares;
+    }
+}
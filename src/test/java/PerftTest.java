@@ -0,0 +1,40 @@
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+/**
+ * Проверка генерации ходов доски 8x8 по опубликованным значениям perft.
+ */
+class PerftTest {
+    private static final int MAX_DEPTH = 6;
+
+    @Test
+    void countsMatchPublishedResults() {
+        Board board = new Board(BitBoard.SIZE, false);
+        board.initialize();
+        Perft perft = new Perft();
+        for (int depth = 1; depth <= MAX_DEPTH; ++depth) {
+            assertEquals(Perft.KNOWN_RESULTS[depth - 1], perft.count(board, DiskColor.BLACK, depth),
+                    "perft " + depth);
+        }
+    }
+
+    @Test
+    void parallelCountMatchesPublishedResult() {
+        Board board = new Board(BitBoard.SIZE, false);
+        board.initialize();
+        long nodes = new Perft(4, false).count(board, DiskColor.BLACK, MAX_DEPTH);
+        assertEquals(Perft.KNOWN_RESULTS[MAX_DEPTH - 1], nodes);
+    }
+
+    @Test
+    void countDoesNotChangeBoard() {
+        Board board = new Board(BitBoard.SIZE, false);
+        board.initialize();
+        long hash = board.getHash();
+        new Perft().count(board, DiskColor.BLACK, 4);
+        assertEquals(hash, board.getHash());
+        assertFalse(board.isRestoreAllowed());
+    }
+}
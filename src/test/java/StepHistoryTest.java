@@ -0,0 +1,85 @@
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Проверка отмены ходов через {@link StepHistory}: после отмены доска, количество фишек
+ * и хеш Зобриста должны совпадать с позицией до хода.
+ */
+class StepHistoryTest {
+    @Test
+    void historyKeepsFlipsOfEachStep() {
+        StepHistory history = new StepHistory();
+        history.push(10);
+        history.addFlip(11);
+        history.addFlip(12);
+        history.push(20);
+        history.addFlip(21);
+
+        assertEquals(2, history.getStepsAmount());
+        assertEquals(20, history.getLastSquare());
+        assertEquals(1, history.getLastFlipsEnd() - history.getLastFlipsStart());
+        assertEquals(21, history.getFlip(history.getLastFlipsStart()));
+
+        history.pop();
+        assertEquals(10, history.getLastSquare());
+        assertEquals(11, history.getFlip(history.getLastFlipsStart()));
+        assertEquals(12, history.getFlip(history.getLastFlipsEnd() - 1));
+        history.pop();
+        assertTrue(history.isEmpty());
+    }
+
+    @Test
+    void undoRestoresPositionAndHash() {
+        checkUndo(6);
+        checkUndo(8);
+        checkUndo(10);
+    }
+
+    private static void checkUndo(int size) {
+        Random random = new Random(size);
+        Board board = new Board(size, true);
+        board.initialize();
+        ArrayList<String> positions = new ArrayList<>();
+        ArrayList<Long> hashes = new ArrayList<>();
+        DiskColor diskColor = DiskColor.BLACK;
+        int[] steps = new int[size * size];
+        while (!board.isFinalPosition()) {
+            int count = board.getAvailableSteps(diskColor, steps);
+            if (count > 0) {
+                positions.add(board.toString());
+                hashes.add(board.getHash());
+                int step = steps[random.nextInt(count)];
+                board.makeStep(step % size, step / size, diskColor);
+                assertEquals(getHash(board), board.getHash(), "hash after step " + positions.size());
+            }
+            diskColor = diskColor.getOpposite();
+        }
+
+        for (int i = positions.size() - 1; i >= 0; --i) {
+            board.restorePreviousStep();
+            assertEquals(positions.get(i), board.toString(), "position after undo to step " + i);
+            assertEquals((long) hashes.get(i), board.getHash(), "hash after undo to step " + i);
+        }
+        assertEquals(2, board.getDiskAmount(DiskColor.BLACK));
+        assertEquals(2, board.getDiskAmount(DiskColor.WHITE));
+    }
+
+    /**
+     * Считает хеш позиции заново, расставляя фишки на пустой доске.
+     */
+    private static long getHash(Board board) {
+        int size = board.getSize();
+        Board copy = new Board(size, false);
+        for (int y = 0; y < size; ++y) {
+            for (int x = 0; x < size; ++x) {
+                copy.placeDisk(x, y, board.getCell(x, y).getDisk());
+            }
+        }
+        return copy.getHash();
+    }
+}